@@ -0,0 +1,332 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An {@link Expression} flattened into a postfix program so that it can be
+ * evaluated any number of times without being parsed again.
+ * <p>
+ * The program is a flat array of opcodes. {@link #PUSH} is followed by an
+ * index into the constant pool, {@link #LOAD} by the index of a variable, every
+ * other opcode is an operator or a function working on the top of the
+ * evaluation stack.
+ * <p>
+ * A compiled expression is immutable, the evaluate methods keep their stacks
+ * local so they can be called from any number of threads at once.
+ */
+class CompiledExpression {
+    static final int PUSH = 0;
+    static final int LOAD = 1;
+    private static final int OPERATOR_BASE = 2;
+    private static final Operator.operator[] OPERATORS = Operator.operator.values();
+    private static final int FUNCTION_BASE = OPERATOR_BASE + OPERATORS.length;
+    private static final Function.function[] FUNCTIONS = Function.function.values();
+
+    // Number of rows the columnar evaluation works through per opcode.
+    private static final int BLOCK_SIZE = 256;
+
+    private final int[] program;
+    private final double[] constants;
+    private final String[] variables;
+    private final int maxStack;
+    private final int eliminated;
+    // The exact value of a program that is a single constant, null if unknown.
+    private final Rational exactValue;
+
+    private CompiledExpression(int[] program, double[] constants, String[] variables,
+                               int maxStack, int eliminated, Rational exactValue) {
+        this.program = program;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxStack = maxStack;
+        this.eliminated = eliminated;
+        this.exactValue = exactValue;
+    }
+
+    /**
+     * Parses the elements and compiles the resulting tree. The elements
+     * themselves are left untouched.
+     *
+     * @param express - the elements of the expression, in input order.
+     * @return - the compiled program.
+     * @throws CalculationError - if the expression is malformed.
+     */
+    static CompiledExpression compile(List<ExpressionElement> express) throws CalculationError {
+        return compile(Parser.parse(express));
+    }
+
+    /**
+     * Emits the tree in post-order, which is the order its nodes are evaluated
+     * in on a stack machine.
+     *
+     * @param root - the root of the syntax tree.
+     * @return - the compiled program.
+     */
+    static CompiledExpression compile(ExpressionNode root) {
+        return compile(root, 0);
+    }
+
+    /**
+     * Simplifies the tree with an {@link Optimizer} before compiling it.
+     *
+     * @param root - the root of the syntax tree.
+     * @return - the compiled program.
+     */
+    static CompiledExpression optimize(ExpressionNode root) {
+        Optimizer optimizer = new Optimizer();
+        ExpressionNode optimized = optimizer.optimize(root);
+        return compile(optimized, optimizer.getEliminated());
+    }
+
+    private static CompiledExpression compile(ExpressionNode root, int eliminated) {
+        ArrayList<ExpressionNode> order = ExpressionNode.postOrder(root);
+        Builder builder = new Builder(order.size());
+        for (int i = 0, size = order.size(); i < size; i++) {
+            ExpressionNode node = order.get(i);
+            switch (node.getKind()) {
+                case CONSTANT:
+                    builder.push(((ConstantNode) node).getValue());
+                    break;
+                case VARIABLE:
+                    builder.load(((VariableNode) node).getName());
+                    break;
+                case OPERATOR:
+                    builder.emit(((OperatorNode) node).getOperator());
+                    break;
+                case FUNCTION:
+                    builder.emit(((FunctionNode) node).getFunction());
+                    break;
+            }
+        }
+        Rational exact = root.getKind() == ExpressionNode.kind.CONSTANT
+                ? ((ConstantNode) root).getRational() : null;
+        return builder.build(eliminated, exact);
+    }
+
+    /**
+     * @return - the names of the variables, in the order their values are
+     * expected by the evaluate methods.
+     */
+    String[] getVariables() {
+        return variables.clone();
+    }
+
+    /**
+     * @return - how many nodes of the syntax tree were optimized away before the
+     * expression was compiled.
+     */
+    int getEliminated() {
+        return eliminated;
+    }
+
+    /**
+     * @return - the exact value of a program that is a single constant known
+     * exactly, as an optimized expression without variables is once whole
+     * numbers are folded in longs, null otherwise.
+     */
+    Rational getExactValue() {
+        return exactValue;
+    }
+
+    /**
+     * @param name - name of a variable.
+     * @return - the index of the variable, -1 if the expression does not use it.
+     */
+    int indexOf(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @param values - one value per variable, in the order of {@link #getVariables()}.
+     * @return - the value of the expression.
+     */
+    double evaluate(double... values) {
+        checkBindings(values.length);
+        double[] stack = new double[maxStack];
+        int sp = 0;
+        int pc = 0;
+        int length = program.length;
+        while (pc < length) {
+            int op = program[pc++];
+            if (op == PUSH) {
+                stack[sp++] = constants[program[pc++]];
+            } else if (op == LOAD) {
+                stack[sp++] = values[program[pc++]];
+            } else if (op < FUNCTION_BASE) {
+                sp--;
+                stack[sp - 1] = Operator.apply(OPERATORS[op - OPERATOR_BASE],
+                        stack[sp - 1], stack[sp]);
+            } else {
+                stack[sp - 1] = Function.apply(FUNCTIONS[op - FUNCTION_BASE], stack[sp - 1]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluates the expression for every row of a table.
+     *
+     * @param columns - one column per variable, in the order of {@link #getVariables()}.
+     * @param result  - receives the value of the expression for each row.
+     */
+    void evaluate(double[][] columns, double[] result) {
+        evaluate(columns, result, 0, result.length);
+    }
+
+    /**
+     * Evaluates the expression for the rows {@code from} (inclusive) to
+     * {@code to} (exclusive) of a table.
+     * <p>
+     * Rather than running the whole program once per row, each opcode is applied
+     * to a block of rows at a time, so the interpretation cost is shared by the
+     * block and the work left is a tight loop over arrays. Nothing is allocated
+     * per row.
+     *
+     * @param columns - one column per variable, in the order of {@link #getVariables()}.
+     * @param result  - receives the value of the expression for each row.
+     * @param from    - first row to evaluate.
+     * @param to      - row to stop at.
+     */
+    void evaluate(double[][] columns, double[] result, int from, int to) {
+        checkBindings(columns.length);
+        double[][] stack = new double[maxStack][BLOCK_SIZE];
+        int length = program.length;
+        for (int row = from; row < to; row += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, to - row);
+            int sp = 0;
+            int pc = 0;
+            while (pc < length) {
+                int op = program[pc++];
+                if (op == PUSH) {
+                    Arrays.fill(stack[sp++], 0, n, constants[program[pc++]]);
+                } else if (op == LOAD) {
+                    System.arraycopy(columns[program[pc++]], row, stack[sp++], 0, n);
+                } else if (op < FUNCTION_BASE) {
+                    sp--;
+                    apply(OPERATORS[op - OPERATOR_BASE], stack[sp - 1], stack[sp], n);
+                } else {
+                    apply(FUNCTIONS[op - FUNCTION_BASE], stack[sp - 1], n);
+                }
+            }
+            System.arraycopy(stack[0], 0, result, row, n);
+        }
+    }
+
+    private void checkBindings(int count) {
+        if (count != variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length
+                    + " variable values but got " + count);
+        }
+    }
+
+    private static void apply(Operator.operator op, double[] a, double[] b, int n) {
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < n; i++) {
+                    a[i] += b[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < n; i++) {
+                    a[i] -= b[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < n; i++) {
+                    a[i] *= b[i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < n; i++) {
+                    a[i] /= b[i];
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    a[i] = Operator.apply(op, a[i], b[i]);
+                }
+        }
+    }
+
+    private static void apply(Function.function func, double[] a, int n) {
+        switch (func) {
+            case SQRT:
+                for (int i = 0; i < n; i++) {
+                    a[i] = Math.sqrt(a[i]);
+                }
+                break;
+            case SQUARE:
+                for (int i = 0; i < n; i++) {
+                    a[i] *= a[i];
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    a[i] = Function.apply(func, a[i]);
+                }
+        }
+    }
+
+    /**
+     * Accumulates the opcodes, constants and variables of a program while
+     * keeping track of the depth of the evaluation stack.
+     */
+    private static class Builder {
+        private final int[] program;
+        private int pc = 0;
+        private final double[] constants;
+        private int nConstants = 0;
+        private final ArrayList<String> variables = new ArrayList<>();
+        private int depth = 0;
+        private int maxDepth = 0;
+
+        Builder(int nodes) {
+            // At most two ints per node, one constant per node.
+            program = new int[2 * nodes];
+            constants = new double[nodes];
+        }
+
+        void push(double value) {
+            constants[nConstants] = value;
+            program[pc++] = PUSH;
+            program[pc++] = nConstants++;
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        void load(String name) {
+            int index = variables.indexOf(name);
+            if (index < 0) {
+                index = variables.size();
+                variables.add(name);
+            }
+            program[pc++] = LOAD;
+            program[pc++] = index;
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        void emit(Operator.operator op) {
+            depth--;
+            program[pc++] = OPERATOR_BASE + op.ordinal();
+        }
+
+        void emit(Function.function func) {
+            program[pc++] = FUNCTION_BASE + func.ordinal();
+        }
+
+        CompiledExpression build(int eliminated, Rational exactValue) {
+            return new CompiledExpression(Arrays.copyOf(program, pc),
+                    Arrays.copyOf(constants, nConstants),
+                    variables.toArray(new String[variables.size()]), maxDepth, eliminated,
+                    exactValue);
+        }
+    }
+}
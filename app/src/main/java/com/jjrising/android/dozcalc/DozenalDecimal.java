@@ -0,0 +1,853 @@
+package com.jjrising.android.dozcalc;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An arbitrary precision dozenal number, signum * mag * 12^exponent, for
+ * results that need more than the fifteen or so dozenal digits of a double.
+ * <p>
+ * The magnitude is kept in limbs of six dozenal digits, base 12^6, least
+ * significant first, so every digit sits at a fixed place within its limb:
+ * shifting by a power of twelve is a limb copy and a small multiply, and
+ * {@link #toString()} writes the digits out limb by limb in linear time with
+ * no base conversion. Values are kept with no trailing zero digits, so two
+ * equal values have equal fields.
+ * <p>
+ * Each operation takes the number of significant dozenal digits to keep and
+ * rounds the exact result to them, half to even. {@link #pow(int, int)} is the
+ * one exception, being within one unit in the last place.
+ */
+final class DozenalDecimal implements Comparable<DozenalDecimal> {
+    // Dozenal digits per limb, and the limb base 12^6.
+    private static final int LIMB_DIGITS = 6;
+    private static final int BASE = 2_985_984;
+    // Powers of twelve up to a whole limb.
+    private static final int[] POW12 = {1, 12, 144, 1728, 20736, 248832, BASE};
+    // Rows a product can accumulate before its columns are carried, as each
+    // limb product is below 2^43.
+    private static final int CARRY_ROWS = 1 << 19;
+    private static final int[] NO_LIMBS = new int[0];
+
+    static final DozenalDecimal ZERO = new DozenalDecimal(0, NO_LIMBS, 0);
+    static final DozenalDecimal ONE = new DozenalDecimal(1, new int[]{1}, 0);
+
+    private final int signum;
+    private final int[] mag;
+    private final int exponent;
+
+    private DozenalDecimal(int signum, int[] mag, int exponent) {
+        this.signum = signum;
+        this.mag = mag;
+        this.exponent = exponent;
+    }
+
+    /**
+     * @param value - any long.
+     * @return - the same value, exactly.
+     */
+    static DozenalDecimal valueOf(long value) {
+        if (value == Long.MIN_VALUE) {
+            return of(-1, mulSmall(limbs(Long.MIN_VALUE >>> 1), 2), 0);
+        }
+        return of(Long.signum(value), limbs(Math.abs(value)), 0);
+    }
+
+    /**
+     * @param value - any integer.
+     * @return - the same value, exactly.
+     */
+    static DozenalDecimal valueOf(BigInteger value) {
+        if (value.bitLength() < 64) {
+            return valueOf(value.longValue());
+        }
+        String digits = value.abs().toString(12);
+        int nDigits = digits.length();
+        int[] mag = new int[(nDigits + LIMB_DIGITS - 1) / LIMB_DIGITS];
+        for (int end = nDigits, limb = 0; end > 0; end -= LIMB_DIGITS, limb++) {
+            mag[limb] = Integer.parseInt(digits.substring(Math.max(end - LIMB_DIGITS, 0), end), 12);
+        }
+        return of(value.signum(), mag, 0);
+    }
+
+    /**
+     * Every finite double is a dozenal fraction, as 2^-k = 6^k 12^-k.
+     *
+     * @param value - a finite double.
+     * @return - the same value, exactly.
+     */
+    static DozenalDecimal valueOf(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("Not a finite number: " + value);
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int binExp = (int) ((bits & DoubleConstants.EXPONENT_MASK) >> DoubleConstants.EXP_SHIFT);
+        long significand = bits & DoubleConstants.MANTISSA_MASK;
+        if (binExp == 0) {
+            binExp = 1;
+        } else {
+            significand |= DoubleConstants.MANTISSA_HOB;
+        }
+        if (significand == 0) {
+            return ZERO;
+        }
+        binExp -= DoubleConstants.EXP_BIAS + DoubleConstants.EXP_SHIFT;
+        int[] mag = limbs(significand);
+        long exponent = 0;
+        if (binExp > 0) {
+            for (; binExp > 0; binExp -= 20) {
+                mag = mulSmall(mag, 1 << Math.min(binExp, 20));
+            }
+        } else {
+            exponent = binExp;
+            for (int k = -binExp; k > 0; k -= 8) {
+                int f = 1;
+                for (int i = Math.min(k, 8); i > 0; i--) {
+                    f *= 6;
+                }
+                mag = mulSmall(mag, f);
+            }
+        }
+        return of(bits < 0 ? -1 : 1, mag, exponent);
+    }
+
+    /**
+     * Reads digits with at most one point, and an optional sign and exponent,
+     * as in "-1E.X5" or "1.4e-1X". The exponent is written in dozenal.
+     *
+     * @param text - the number.
+     * @return - its value, exactly.
+     * @throws NumberException - if the text is not a number.
+     */
+    static DozenalDecimal parse(CharSequence text) throws NumberException {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        int[] digits = new int[length];
+        int nDigits = 0;
+        int pointIndex = -1;
+        for (; i < length && text.charAt(i) != 'e'; i++) {
+            char ch = text.charAt(i);
+            int digit = Lexer.digitValue(ch);
+            if (digit >= 0) {
+                digits[nDigits++] = digit;
+            } else if (ch == '.' && pointIndex < 0) {
+                pointIndex = nDigits;
+            } else {
+                throw new NumberException("Illegal number format: " + text);
+            }
+        }
+        long exp = 0;
+        if (i < length) {
+            boolean negativeExp = ++i < length && text.charAt(i) == '-';
+            if (negativeExp) {
+                i++;
+            }
+            if (i == length) {
+                throw new NumberException("Illegal number format: " + text);
+            }
+            for (; i < length; i++) {
+                int digit = Lexer.digitValue(text.charAt(i));
+                if (digit < 0 || exp > Integer.MAX_VALUE) {
+                    throw new NumberException("Illegal number format: " + text);
+                }
+                exp = 12 * exp + digit;
+            }
+            if (negativeExp) {
+                exp = -exp;
+            }
+        }
+        if (nDigits == 0) {
+            throw new NumberException("Illegal number format: " + text);
+        }
+        // Six digits to a limb, counting from the last.
+        int[] mag = new int[(nDigits + LIMB_DIGITS - 1) / LIMB_DIGITS];
+        for (int end = nDigits, limb = 0; end > 0; end -= LIMB_DIGITS, limb++) {
+            int value = 0;
+            for (int d = Math.max(end - LIMB_DIGITS, 0); d < end; d++) {
+                value = 12 * value + digits[d];
+            }
+            mag[limb] = value;
+        }
+        return of(negative ? -1 : 1, trim(mag),
+                exp + (pointIndex < 0 ? nDigits : pointIndex) - nDigits);
+    }
+
+    /**
+     * @return - -1, 0 or 1 as the value is negative, zero or positive.
+     */
+    int signum() {
+        return signum;
+    }
+
+    DozenalDecimal negate() {
+        return signum == 0 ? this : new DozenalDecimal(-signum, mag, exponent);
+    }
+
+    /**
+     * @return - the number of significant dozenal digits, 0 for zero.
+     */
+    int precision() {
+        return digitCount(mag);
+    }
+
+    /**
+     * @return - the double nearest to the value.
+     */
+    double doubleValue() {
+        if (signum == 0) {
+            return 0.0;
+        }
+        int nDigits = digitCount(mag);
+        int[] digits = new int[nDigits];
+        for (int i = 0, at = nDigits - 1; i < mag.length; i++) {
+            for (int limb = mag[i], d = 0; d < LIMB_DIGITS && at >= 0; d++, limb /= 12) {
+                digits[at--] = limb % 12;
+            }
+        }
+        long pointIndex = (long) nDigits + exponent;
+        double value = new FloatingDozenal.DozToBinaryBuffer(digits, nDigits,
+                (int) Math.max(Math.min(pointIndex, Integer.MAX_VALUE / 2),
+                        Integer.MIN_VALUE / 2)).doubleValue();
+        return signum * value;
+    }
+
+    /**
+     * @param precision - significant digits to keep, at least 1.
+     * @return - the value rounded to them.
+     */
+    DozenalDecimal round(int precision) {
+        checkPrecision(precision);
+        return round(signum, mag, exponent, precision, false);
+    }
+
+    DozenalDecimal add(DozenalDecimal augend, int precision) {
+        checkPrecision(precision);
+        if (augend.signum == 0) {
+            return round(precision);
+        } else if (signum == 0) {
+            return augend.round(precision);
+        }
+        DozenalDecimal x = this;
+        DozenalDecimal y = augend;
+        long xTop = x.exponent + (long) digitCount(x.mag);
+        long yTop = y.exponent + (long) digitCount(y.mag);
+        if (yTop > xTop) {
+            x = augend;
+            y = this;
+            long t = xTop;
+            xTop = yTop;
+            yTop = t;
+        }
+        // A y wholly below 12^pos is below every place the sum can round at,
+        // so any value below 12^pos of the same sign rounds the same way.
+        long pos = Math.min(x.exponent, xTop - precision - 2);
+        int[] yMag = y.mag;
+        long yExp = y.exponent;
+        if (yTop <= pos) {
+            yMag = ONE.mag;
+            yExp = pos - 1;
+        }
+        long exp = Math.min(x.exponent, yExp);
+        int[] xMag = shiftLeft(x.mag, x.exponent - exp);
+        yMag = shiftLeft(yMag, yExp - exp);
+        if (x.signum == y.signum) {
+            return round(x.signum, add(xMag, yMag), exp, precision, false);
+        }
+        int cmp = compare(xMag, yMag);
+        if (cmp == 0) {
+            return ZERO;
+        } else if (cmp > 0) {
+            return round(x.signum, subtract(xMag, yMag), exp, precision, false);
+        }
+        return round(y.signum, subtract(yMag, xMag), exp, precision, false);
+    }
+
+    DozenalDecimal subtract(DozenalDecimal subtrahend, int precision) {
+        return add(subtrahend.negate(), precision);
+    }
+
+    DozenalDecimal multiply(DozenalDecimal multiplicand, int precision) {
+        checkPrecision(precision);
+        if (signum == 0 || multiplicand.signum == 0) {
+            return ZERO;
+        }
+        return round(signum * multiplicand.signum, multiply(mag, multiplicand.mag),
+                (long) exponent + multiplicand.exponent, precision, false);
+    }
+
+    /**
+     * @throws ArithmeticException - if the divisor is zero.
+     */
+    DozenalDecimal divide(DozenalDecimal divisor, int precision) {
+        checkPrecision(precision);
+        if (divisor.signum == 0) {
+            throw new ArithmeticException("Division by zero");
+        } else if (signum == 0) {
+            return ZERO;
+        }
+        // Scale so that the integer quotient has at least precision + 1
+        // digits. The rest of the quotient only matters as being zero or not.
+        long k = precision + 1L + digitCount(divisor.mag) - digitCount(mag);
+        int[] u = mag;
+        int[] v = divisor.mag;
+        if (k >= 0) {
+            u = shiftLeft(u, k);
+        } else {
+            v = shiftLeft(v, -k);
+        }
+        int[][] qr = divideAndRemainder(u, v);
+        return round(signum * divisor.signum, qr[0], (long) exponent - divisor.exponent - k,
+                precision, qr[1].length != 0);
+    }
+
+    /**
+     * @throws ArithmeticException - if the value is negative.
+     */
+    DozenalDecimal sqrt(int precision) {
+        checkPrecision(precision);
+        if (signum < 0) {
+            throw new ArithmeticException("Square root of a negative number");
+        } else if (signum == 0) {
+            return ZERO;
+        }
+        // Scale to an even power of twelve and at least 2 precision + 2
+        // digits, so that the integer root has at least precision + 1.
+        long k = 2L * precision + 2 - digitCount(mag);
+        if ((exponent - k & 1) != 0) {
+            k++;
+        }
+        int[] m;
+        boolean inexact = false;
+        if (k >= 0) {
+            m = shiftLeft(mag, k);
+        } else {
+            // The root of the digits kept is the root of the value, floored.
+            m = shiftRight(mag, (int) -k);
+            inexact = compare(shiftLeft(m, -k), mag) != 0;
+        }
+        int[] root = sqrt(m);
+        inexact |= compare(multiply(root, root), m) != 0;
+        return round(1, root, (exponent - k) / 2, precision, inexact);
+    }
+
+    /**
+     * Raises the value to a power by repeated squaring, with enough guard
+     * digits that the result is within one unit in the last place.
+     *
+     * @param n - the power, which may be negative.
+     * @throws ArithmeticException - if the value is zero and n negative.
+     */
+    DozenalDecimal pow(int n, int precision) {
+        checkPrecision(precision);
+        if (n == 0) {
+            return ONE;
+        }
+        long e = Math.abs((long) n);
+        // Each of the at most 2 log2(e) products rounds by half a unit.
+        int guard = 2;
+        for (int errors = 2 * (64 - Long.numberOfLeadingZeros(e)); errors > 0; errors /= 12) {
+            guard++;
+        }
+        int working = precision + guard;
+        DozenalDecimal result = ONE;
+        DozenalDecimal square = this;
+        while (true) {
+            if ((e & 1) != 0) {
+                result = result.multiply(square, working);
+            }
+            e >>= 1;
+            if (e == 0) {
+                break;
+            }
+            square = square.multiply(square, working);
+        }
+        return n < 0 ? ONE.divide(result, precision) : result.round(precision);
+    }
+
+    @Override
+    public int compareTo(DozenalDecimal other) {
+        if (signum != other.signum) {
+            return signum < other.signum ? -1 : 1;
+        } else if (signum == 0) {
+            return 0;
+        }
+        long top = exponent + (long) digitCount(mag);
+        long otherTop = other.exponent + (long) digitCount(other.mag);
+        if (top != otherTop) {
+            return top < otherTop ? -signum : signum;
+        }
+        long exp = Math.min(exponent, other.exponent);
+        return signum * compare(shiftLeft(mag, exponent - exp),
+                shiftLeft(other.mag, other.exponent - exp));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DozenalDecimal)) {
+            return false;
+        }
+        DozenalDecimal other = (DozenalDecimal) obj;
+        return signum == other.signum && exponent == other.exponent
+                && Arrays.equals(mag, other.mag);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * signum + exponent) + Arrays.hashCode(mag);
+    }
+
+    /**
+     * Writes the digits the way {@link Numeral} does, in place up to eight
+     * whole digits or two leading zeros and with a dozenal exponent beyond.
+     */
+    @Override
+    public String toString() {
+        if (signum == 0) {
+            return "0";
+        }
+        int nDigits = digitCount(mag);
+        char[] digits = new char[nDigits];
+        int at = nDigits;
+        for (int i = 0; i < mag.length - 1; i++) {
+            at -= LIMB_DIGITS;
+            FloatingDozenal.BinaryToDozBuffer.putChunk(mag[i], digits, at);
+        }
+        for (int top = mag[mag.length - 1]; at > 0; top /= 12) {
+            digits[--at] = Symbols.getCharacter(top % 12);
+        }
+        // The value is 0.ddd * 12^dozExp.
+        long dozExp = (long) exponent + nDigits;
+        StringBuilder text = new StringBuilder(nDigits + 16);
+        if (signum < 0) {
+            text.append('-');
+        }
+        if (dozExp > 0 && dozExp < 9) {
+            int whole = (int) dozExp;
+            if (whole >= nDigits) {
+                text.append(digits);
+                for (int i = nDigits; i < whole; i++) {
+                    text.append('0');
+                }
+            } else {
+                text.append(digits, 0, whole).append('.').append(digits, whole, nDigits - whole);
+            }
+        } else if (dozExp <= 0 && dozExp > -3) {
+            text.append("0.");
+            for (long i = dozExp; i < 0; i++) {
+                text.append('0');
+            }
+            text.append(digits);
+        } else {
+            text.append(digits[0]).append('.');
+            if (nDigits > 1) {
+                text.append(digits, 1, nDigits - 1);
+            } else {
+                text.append('0');
+            }
+            text.append('e');
+            long e = dozExp - 1;
+            if (e < 0) {
+                text.append('-');
+                e = -e;
+            }
+            int start = text.length();
+            for (; e > 0; e /= 12) {
+                text.insert(start, Symbols.getCharacter((int) (e % 12)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1) {
+            throw new IllegalArgumentException("Precision must be positive: " + precision);
+        }
+    }
+
+    /**
+     * Drops trailing zero digits into the exponent.
+     */
+    private static DozenalDecimal of(int signum, int[] mag, long exponent) {
+        if (mag.length == 0) {
+            return ZERO;
+        }
+        int zeroLimbs = 0;
+        while (mag[zeroLimbs] == 0) {
+            zeroLimbs++;
+        }
+        int zeroDigits = 0;
+        for (int low = mag[zeroLimbs]; low % 12 == 0; low /= 12) {
+            zeroDigits++;
+        }
+        int shift = LIMB_DIGITS * zeroLimbs + zeroDigits;
+        if (shift > 0) {
+            mag = shiftRight(mag, shift);
+            exponent += shift;
+        }
+        if (exponent != (int) exponent) {
+            throw new ArithmeticException("Exponent out of range");
+        }
+        return new DozenalDecimal(signum, mag, (int) exponent);
+    }
+
+    /**
+     * Rounds signum * mag * 12^exponent, half to even, to at most precision
+     * digits.
+     *
+     * @param sticky - whether the true value is a little more than mag, by
+     *               less than a unit of its last digit. The caller makes sure
+     *               mag then has more than precision digits.
+     */
+    private static DozenalDecimal round(int signum, int[] mag, long exponent, int precision,
+                                        boolean sticky) {
+        int drop = digitCount(mag) - precision;
+        if (drop > 0) {
+            int limbs = drop / LIMB_DIGITS;
+            int digits = drop % LIMB_DIGITS;
+            int[] q;
+            // The first dropped digits, against half of their place.
+            int first;
+            int half;
+            int restLimbs;
+            if (digits > 0) {
+                q = new int[mag.length - limbs];
+                int d = POW12[digits];
+                long r = 0;
+                for (int i = mag.length - 1; i >= limbs; i--) {
+                    long t = r * BASE + mag[i];
+                    q[i - limbs] = (int) (t / d);
+                    r = t % d;
+                }
+                first = (int) r;
+                half = d / 2;
+                restLimbs = limbs;
+            } else {
+                q = Arrays.copyOfRange(mag, limbs, mag.length);
+                first = mag[limbs - 1];
+                half = BASE / 2;
+                restLimbs = limbs - 1;
+            }
+            boolean rest = sticky;
+            for (int i = 0; i < restLimbs && !rest; i++) {
+                rest = mag[i] != 0;
+            }
+            q = trim(q);
+            // The base is even, so the parity of q is that of its lowest limb.
+            if (first > half || first == half && (rest || (q[0] & 1) != 0)) {
+                q = add(q, ONE.mag);
+            }
+            mag = q;
+            exponent += drop;
+        }
+        return of(signum, mag, exponent);
+    }
+
+    private static int digitCount(int[] mag) {
+        if (mag.length == 0) {
+            return 0;
+        }
+        int top = mag[mag.length - 1];
+        int digits = 1;
+        while (digits < LIMB_DIGITS && top >= POW12[digits]) {
+            digits++;
+        }
+        return LIMB_DIGITS * (mag.length - 1) + digits;
+    }
+
+    /**
+     * @param value - a non-negative long.
+     * @return - its limbs, without stripping trailing zero digits.
+     */
+    private static int[] limbs(long value) {
+        int[] mag = new int[4];
+        int n = 0;
+        for (; value != 0; value /= BASE) {
+            mag[n++] = (int) (value % BASE);
+        }
+        return Arrays.copyOf(mag, n);
+    }
+
+    private static int[] trim(int[] mag) {
+        int n = mag.length;
+        while (n > 0 && mag[n - 1] == 0) {
+            n--;
+        }
+        return n == mag.length ? mag : Arrays.copyOf(mag, n);
+    }
+
+    /**
+     * @return - mag * 12^digits.
+     */
+    private static int[] shiftLeft(int[] mag, long digits) {
+        if (digits == 0 || mag.length == 0) {
+            return mag;
+        }
+        if (digits > Integer.MAX_VALUE / 2) {
+            throw new ArithmeticException("Exponent out of range");
+        }
+        int limbs = (int) digits / LIMB_DIGITS;
+        int f = POW12[(int) digits % LIMB_DIGITS];
+        int[] result = new int[mag.length + limbs + 1];
+        long carry = 0;
+        for (int i = 0; i < mag.length; i++) {
+            long t = (long) mag[i] * f + carry;
+            result[i + limbs] = (int) (t % BASE);
+            carry = t / BASE;
+        }
+        result[mag.length + limbs] = (int) carry;
+        return trim(result);
+    }
+
+    /**
+     * @return - floor(mag / 12^digits).
+     */
+    private static int[] shiftRight(int[] mag, int digits) {
+        int limbs = digits / LIMB_DIGITS;
+        if (limbs >= mag.length) {
+            return NO_LIMBS;
+        }
+        int d = POW12[digits % LIMB_DIGITS];
+        int[] result = new int[mag.length - limbs];
+        long r = 0;
+        for (int i = mag.length - 1; i >= limbs; i--) {
+            long t = r * BASE + mag[i];
+            result[i - limbs] = (int) (t / d);
+            r = t % d;
+        }
+        return trim(result);
+    }
+
+    private static int compare(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return a.length < b.length ? -1 : 1;
+        }
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] add(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        int[] result = new int[a.length + 1];
+        int carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            int t = a[i] + (i < b.length ? b[i] : 0) + carry;
+            carry = t >= BASE ? 1 : 0;
+            result[i] = t - carry * BASE;
+        }
+        result[a.length] = carry;
+        return trim(result);
+    }
+
+    /**
+     * @return - a - b, for a no less than b.
+     */
+    private static int[] subtract(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int borrow = 0;
+        for (int i = 0; i < a.length; i++) {
+            int t = a[i] - (i < b.length ? b[i] : 0) - borrow;
+            borrow = t < 0 ? 1 : 0;
+            result[i] = t + borrow * BASE;
+        }
+        return trim(result);
+    }
+
+    /**
+     * @param f - a factor below 2^31.
+     */
+    private static int[] mulSmall(int[] a, int f) {
+        int[] result = new int[a.length + 2];
+        long carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            long t = (long) a[i] * f + carry;
+            result[i] = (int) (t % BASE);
+            carry = t / BASE;
+        }
+        result[a.length] = (int) (carry % BASE);
+        result[a.length + 1] = (int) (carry / BASE);
+        return trim(result);
+    }
+
+    /**
+     * Schoolbook multiplication, summing each column in a long and carrying
+     * once at the end.
+     */
+    private static int[] multiply(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        long[] columns = new long[a.length + b.length];
+        for (int j = 0; j < b.length; j++) {
+            long bj = b[j];
+            if (bj != 0) {
+                for (int i = 0; i < a.length; i++) {
+                    columns[i + j] += a[i] * bj;
+                }
+            }
+            if ((j + 1) % CARRY_ROWS == 0) {
+                carry(columns);
+            }
+        }
+        carry(columns);
+        int[] result = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            result[i] = (int) columns[i];
+        }
+        return trim(result);
+    }
+
+    private static void carry(long[] columns) {
+        long carry = 0;
+        for (int i = 0; i < columns.length; i++) {
+            long t = columns[i] + carry;
+            columns[i] = t % BASE;
+            carry = t / BASE;
+        }
+    }
+
+    /**
+     * Long division, Knuth's algorithm D in base 12^6.
+     *
+     * @param u - the dividend.
+     * @param v - the divisor, not zero.
+     * @return - the quotient and the remainder.
+     */
+    private static int[][] divideAndRemainder(int[] u, int[] v) {
+        if (compare(u, v) < 0) {
+            return new int[][]{NO_LIMBS, u};
+        }
+        int n = v.length;
+        if (n == 1) {
+            int[] q = new int[u.length];
+            long r = 0;
+            for (int i = u.length - 1; i >= 0; i--) {
+                long t = r * BASE + u[i];
+                q[i] = (int) (t / v[0]);
+                r = t % v[0];
+            }
+            return new int[][]{trim(q), r == 0 ? NO_LIMBS : new int[]{(int) r}};
+        }
+        // Scale both so that the divisor's top limb is at least half the base,
+        // which keeps each estimated quotient limb at most two too large.
+        int f = BASE / (v[n - 1] + 1);
+        int[] vn = Arrays.copyOf(mulSmall(v, f), n);
+        int m = u.length - n;
+        int[] un = Arrays.copyOf(mulSmall(u, f), u.length + 1);
+        long vTop = vn[n - 1];
+        long vNext = vn[n - 2];
+        int[] q = new int[m + 1];
+        for (int j = m; j >= 0; j--) {
+            long num = (long) un[j + n] * BASE + un[j + n - 1];
+            long qhat = num / vTop;
+            long rhat = num - qhat * vTop;
+            while (qhat >= BASE || qhat * vNext > rhat * BASE + un[j + n - 2]) {
+                qhat--;
+                rhat += vTop;
+                if (rhat >= BASE) {
+                    break;
+                }
+            }
+            long carry = 0;
+            int borrow = 0;
+            for (int i = 0; i < n; i++) {
+                long p = qhat * vn[i] + carry;
+                carry = p / BASE;
+                int t = un[i + j] - (int) (p - carry * BASE) - borrow;
+                borrow = t >>> 31;
+                un[i + j] = t + (-borrow & BASE);
+            }
+            long top = un[j + n] - carry - borrow;
+            if (top < 0) {
+                // qhat was one too large: add the divisor back.
+                qhat--;
+                int c = 0;
+                for (int i = 0; i < n; i++) {
+                    int t = un[i + j] + vn[i] + c;
+                    c = t >= BASE ? 1 : 0;
+                    un[i + j] = t - c * BASE;
+                }
+                top += c;
+            }
+            un[j + n] = (int) top;
+            q[j] = (int) qhat;
+        }
+        int[] r = trim(Arrays.copyOf(un, n));
+        if (r.length != 0 && f != 1) {
+            long rest = 0;
+            for (int i = r.length - 1; i >= 0; i--) {
+                long t = rest * BASE + r[i];
+                r[i] = (int) (t / f);
+                rest = t % f;
+            }
+            r = trim(r);
+        }
+        return new int[][]{trim(q), r};
+    }
+
+    /**
+     * @return - floor(sqrt(m)), by Newton's method from above.
+     */
+    private static int[] sqrt(int[] m) {
+        if (m.length <= 2) {
+            long value = m.length == 0 ? 0 : m.length == 1 ? m[0] : (long) m[1] * BASE + m[0];
+            long root = (long) Math.sqrt(value);
+            while (root * root > value) {
+                root--;
+            }
+            while ((root + 1) * (root + 1) <= value) {
+                root++;
+            }
+            return limbs(root);
+        }
+        int[] x;
+        if (m.length < 8) {
+            // Start from the root of the top two or three limbs, rounded up
+            // past any error of the double, so as not to start below the root.
+            int drop = (m.length - 2) / 2;
+            double top = 0;
+            for (int i = m.length - 1; i >= 2 * drop; i--) {
+                top = top * BASE + m[i];
+            }
+            long estimate = (long) (Math.sqrt(top) * (1 + 0x1p-40)) + 2;
+            x = shiftLeft(limbs(estimate), (long) LIMB_DIGITS * drop);
+        } else {
+            // Start from the root of the top half or more, which leaves only
+            // a few steps at full length.
+            int drop = m.length / 4;
+            int[] root = sqrt(Arrays.copyOfRange(m, 2 * drop, m.length));
+            x = shiftLeft(add(root, ONE.mag), (long) LIMB_DIGITS * drop);
+        }
+        while (true) {
+            int[] y = half(add(x, divideAndRemainder(m, x)[0]));
+            if (compare(y, x) >= 0) {
+                return x;
+            }
+            x = y;
+        }
+    }
+
+    private static int[] half(int[] a) {
+        int[] result = new int[a.length];
+        int r = 0;
+        for (int i = a.length - 1; i >= 0; i--) {
+            int t = r * BASE + a[i];
+            result[i] = t >> 1;
+            r = t & 1;
+        }
+        return trim(result);
+    }
+}
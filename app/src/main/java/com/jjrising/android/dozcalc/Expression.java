@@ -1,60 +1,105 @@
 package com.jjrising.android.dozcalc;
 
 import java.util.ArrayList;
-import java.util.ListIterator;
-import java.util.NoSuchElementException;
 
+/**
+ * A list of elements as entered by the user.
+ * <p>
+ * Evaluating an expression never modifies it or its elements, so once it is
+ * built it can be evaluated any number of times and from several threads at
+ * once. The compiled program is cached until the expression is edited.
+ * <p>
+ * While elements are entered one at a time the state of the parser after each
+ * of them is kept, so adding or removing the last element and asking for the
+ * {@link #preview()} only costs as much as the elements involved, not the whole
+ * expression. Expressions built all at once only pay for this when a preview
+ * is asked for.
+ */
 class Expression {
-    private ArrayList<ExpressionElement> express;
+    private final ArrayList<ExpressionElement> express;
+    private volatile CompiledExpression compiled;
+    // states.get(i) is the parser after consuming the first i + 1 elements.
+    private final ArrayList<Parser> states = new ArrayList<>();
 
     Expression() {
         express = new ArrayList<>();
     }
 
     Expression(ArrayList<ExpressionElement> express) {
-        this.express = express;
+        this.express = new ArrayList<>(express);
     }
 
-    Expression(String str) throws StringException {
-        express = new ArrayList<>();
-        StringBuilder builder = new StringBuilder();
-        for (char ch : str.toCharArray()) {
-            builder.append(ch);
-            if (builder.toString().matches("[XE\\d.]")) {
-                express.add(Digit.fromString(builder.toString()));
-            } else if (builder.toString().matches("[+\\-*/^]")) {
-                express.add(Operator.fromString(builder.toString()));
-            } else if (builder.toString().matches("[!]|sqrt|sin|cos|tan")) {
-                express.add(Function.fromString(builder.toString()));
-            } else if (builder.toString().matches("pi|e")) {
-                express.add(Numeral.fromString(builder.toString()));
-            } else if (builder.toString().matches("[()]")) {
-                if (builder.toString().equals("("))
-                    express.add(new OpenParen());
-                else // builder.equals(")")
-                    express.add(new CloseParen());
-            } else {
-                continue;
-            }
-            builder = new StringBuilder(); // clear the string builder.
-        }
+    /**
+     * @param text - the expression as text, see {@link Lexer} for what it may
+     *             contain.
+     * @throws StringException - if the text can not be split into elements.
+     */
+    Expression(CharSequence text) throws StringException {
+        express = Lexer.tokenize(text);
     }
 
     void add(ExpressionElement a) {
         express.add(a);
+        compiled = null;
+        if (states.size() == express.size() - 1)
+            advance();
     }
 
     void back() {
         if (express.size() != 0)
             express.remove(express.size() - 1);
+        if (states.size() > express.size())
+            states.remove(states.size() - 1);
+        compiled = null;
     }
 
     void remove(int index) {
         express.remove(index);
+        while (states.size() > index)
+            states.remove(states.size() - 1);
+        compiled = null;
     }
 
     void clear() {
         express.clear();
+        states.clear();
+        compiled = null;
+    }
+
+    /**
+     * The value of the expression as entered so far, with any open parentheses
+     * closed. Meant to be shown while the user is still typing, so it is not
+     * safe to call while other threads are evaluating the expression.
+     *
+     * @return - the value, null if the expression has none yet.
+     */
+    Numeral preview() {
+        while (states.size() < express.size())
+            advance();
+        if (states.isEmpty())
+            return null;
+        return states.get(states.size() - 1).preview();
+    }
+
+    /**
+     * Consumes the next element into a new parser state.
+     */
+    private void advance() {
+        Parser parser = states.isEmpty() ? new Parser(express)
+                : states.get(states.size() - 1).copy();
+        try {
+            parser.advance();
+        } catch (CalculationError e) {
+            // The parser keeps the error, parse() reports it.
+        }
+        states.add(parser);
+    }
+
+    /**
+     * @return - a copy of the elements of the expression, in input order.
+     */
+    ArrayList<ExpressionElement> getElements() {
+        return new ArrayList<>(express);
     }
 
     String getText() {
@@ -68,150 +113,165 @@ class Expression {
         return builder.toString();
     }
 
-    Numeral calc() throws CalculationError {
-        //Check for empty expression
-        if (express.size() == 0) {
-            return new Numeral(0);
-        }
-
-        //Combine digits into Numerals
-        ArrayList<Digit> numBuilder = new ArrayList<>();
-        ListIterator<ExpressionElement> iter = express.listIterator();
-        while (iter.hasNext()) {
-            ExpressionElement el = iter.next();
-            if (el.getType() == ExpressionElement.type.DIGIT) {
-                numBuilder.add((Digit) el);
-                iter.remove();
+    /**
+     * Like {@link #getText()}, except that numbers entered as a whole are
+     * written out with their value rather than as a placeholder, so that two
+     * expressions with the same canonical text have the same value. Exact
+     * numbers are written as their rational value, since whole numbers past
+     * 2^53 that round to the same double still evaluate differently.
+     *
+     * @return - the canonical text of the expression.
+     */
+    String getCanonicalText() {
+        StringBuilder builder = new StringBuilder();
+        int length = express.size();
+        for (int i = 0; i < length; i++) {
+            ExpressionElement el = express.get(i);
+            if (el.getType() == ExpressionElement.type.NUMBER && !((Numeral) el).isSpecial()) {
+                Numeral numeral = (Numeral) el;
+                Rational rational = numeral.getRational();
+                builder.append('[');
+                if (rational != null) {
+                    builder.append(rational);
+                } else {
+                    builder.append(numeral.getValue());
+                }
+                builder.append(']');
             } else {
-                if (!numBuilder.isEmpty()) {
-                    try {
-                        iter.previous();
-                        iter.add(new Numeral(numBuilder));
-                        iter.next();
-                        numBuilder.clear();
-                    } catch (NumberException e) {
-                        throw new CalculationError(e.getMessage());
-                    }
-                } // else do nothing
+                builder.append(el.getSymbol());
             }
         }
-        if (!numBuilder.isEmpty()) {
-            try {
-                iter.add(new Numeral(numBuilder));
-                numBuilder.clear();
-            } catch (NumberException e) {
-                throw new CalculationError(e.getMessage());
-            }
+        return builder.toString();
+    }
+
+    /**
+     * Parses the expression into a syntax tree.
+     *
+     * @return - the root of the tree.
+     * @throws CalculationError - if the expression is malformed.
+     */
+    ExpressionNode parse() throws CalculationError {
+        int size = states.size();
+        if (size != 0 && size == express.size()) {
+            // Only the operators still pending need to be applied.
+            return states.get(size - 1).copy().finish();
         }
+        return Parser.parse(express);
+    }
 
-        ArrayList<ExpressionElement> calcQueue = new ArrayList<>();
-        ArrayList<ExpressionElement> opStack = new ArrayList<>();
-
-        // produce the calcQueue
-        ExpressionElement el;
-        while (!express.isEmpty()) {
-            el = express.remove(0);
-            ExpressionElement.type type = el.getType();
-            if (type == ExpressionElement.type.NUMBER) {
-                calcQueue.add(el);
-            } else if (type == ExpressionElement.type.FUNCTION) {
-                if (((Function) el).associativity() == Function.associativity.RIGHT) {
-                    opStack.add(el);
-                } else {
-                    calcQueue.add(el);
+    /**
+     * Compiles the expression into a program that can be run repeatedly.
+     * Constant parts are folded and identities removed first, see
+     * {@link Optimizer}.
+     *
+     * @return - the compiled expression.
+     * @throws CalculationError - if the expression is malformed.
+     */
+    CompiledExpression compile() throws CalculationError {
+        CompiledExpression program = compiled;
+        if (program == null) {
+            program = CompiledExpression.optimize(parse());
+            compiled = program;
+        }
+        return program;
+    }
+
+    /**
+     * Evaluates the expression in doubles, except that whole sums,
+     * differences, products and powers are worked out in longs while they
+     * fit, see {@link Optimizer}.
+     *
+     * @return - the value, exact, with {@link Numeral#getRational()}, only if
+     * it was worked out exactly.
+     * @throws CalculationError - if the expression is malformed or has variables.
+     */
+    Numeral calc() throws CalculationError {
+        CompiledExpression program = compile();
+        if (program.getVariables().length != 0) {
+            throw new CalculationError("No value for " + program.getVariables()[0] + ".");
+        }
+        return new Numeral(program.evaluate(), program.getExactValue());
+    }
+
+    /**
+     * Evaluates the expression in exact rational arithmetic, from the digits
+     * as entered, so that 1/3*3 is 1 and 0.4 is a third. Sums, differences,
+     * products, quotients, squares, whole powers and factorials stay exact.
+     * The first step that can not, a function or a fractional power or an
+     * irrational constant, carries on in doubles from there, and the result
+     * is then marked as not exact, see {@link Numeral#isExact()}. So is a
+     * result past the largest double, such as 171!, as it can only be shown
+     * as infinity.
+     *
+     * @return - the value, rounded to a double only at the end.
+     * @throws CalculationError - if the expression is malformed or has variables.
+     */
+    Numeral calcExact() throws CalculationError {
+        ArrayList<ExpressionNode> order = ExpressionNode.postOrder(parse());
+        // Operand stacks: the exact value, or null and the double.
+        Rational[] exact = new Rational[order.size()];
+        double[] values = new double[order.size()];
+        int top = 0;
+        for (ExpressionNode node : order) {
+            switch (node.getKind()) {
+                case CONSTANT: {
+                    ConstantNode constant = (ConstantNode) node;
+                    exact[top] = constant.getRational();
+                    values[top++] = constant.getValue();
+                    break;
                 }
-            } else if (type == ExpressionElement.type.OPERATOR) {
-                if (opStack.isEmpty()) {
-                    opStack.add(el);
-                } else {
-                    ExpressionElement top = opStack.get(opStack.size() - 1);
-                    while (top.getType() != ExpressionElement.type.PARENTHESES
-                            && (
-                            top.getType() == ExpressionElement.type.FUNCTION
-                                    || ((Operator) top).precedence() > ((Operator) el).precedence()
-                                    || ((Operator) top).precedence() == ((Operator) el).precedence()
-                                    && ((Operator) top).associativity() == Operator.associativity.LEFT)) {
-                        calcQueue.add(opStack.remove(opStack.size() - 1));
-                        if (opStack.isEmpty()) {
-                            break;
-                        } else {
-                            top = opStack.get(opStack.size() - 1);
-                        }
+                case VARIABLE:
+                    throw new CalculationError("No value for "
+                            + ((VariableNode) node).getName() + ".");
+                case OPERATOR: {
+                    Operator.operator op = ((OperatorNode) node).getOperator();
+                    top--;
+                    Rational a = exact[top - 1];
+                    Rational b = exact[top];
+                    Rational result = a != null && b != null ? Operator.apply(op, a, b) : null;
+                    if (result == null) {
+                        values[top - 1] = Operator.apply(op, doubleValue(a, values[top - 1]),
+                                doubleValue(b, values[top]));
                     }
-                    opStack.add(el);
+                    exact[top - 1] = result;
+                    break;
                 }
-            } else { // parentheses
-                if (((Paren) el).isOpen()) { // '('
-                    opStack.add(el);
-                } else {  // ')'
-                    if (opStack.isEmpty()) {
-                        throw new CalculationError("No '(' found.");
-                    }
-                    while (true) {
-                        ExpressionElement top = opStack.remove(opStack.size() - 1); // Peek at the top
-                        if (top.getType() == ExpressionElement.type.PARENTHESES) {
-                            break;
-                        } else {
-                            calcQueue.add(top);
-                        }
-                        if (opStack.isEmpty()) {
-                            throw new CalculationError("No '(' found.");
-                        }
+                case FUNCTION: {
+                    Function.function func = ((FunctionNode) node).getFunction();
+                    Rational a = exact[top - 1];
+                    Rational result = a != null ? Function.apply(func, a) : null;
+                    if (result == null) {
+                        values[top - 1] = Function.apply(func, doubleValue(a, values[top - 1]));
                     }
+                    exact[top - 1] = result;
+                    break;
                 }
             }
         }
-        // Clear the remaining operators in the opStack
-        while (!opStack.isEmpty()) {
-            calcQueue.add(opStack.remove(opStack.size() - 1));
+        if (exact[0] == null) {
+            return new Numeral(values[0], null);
         }
+        double value = exact[0].doubleValue();
+        return new Numeral(value, Double.isInfinite(value) ? null : exact[0]);
+    }
 
-        // Run the calculation through the calcQueue
-        ListIterator<ExpressionElement> calcIterator = calcQueue.listIterator();
-        int size = calcQueue.size();
-        while (calcIterator.hasNext()) {
-            try {
-                el = calcIterator.next();
-                ExpressionElement.type type = el.getType();
-                if (type == ExpressionElement.type.OPERATOR) {
-                    calcIterator.remove();
-                    Numeral b = (Numeral) calcIterator.previous();
-                    calcIterator.remove();
-                    Numeral a = (Numeral) calcIterator.previous();
-                    ((Operator) el).run(a, b);
-                    calcIterator.next();
-                    size -= 2;
-                } else if (type == ExpressionElement.type.FUNCTION) {
-                    calcIterator.remove();
-                    Numeral a = (Numeral) calcIterator.previous();
-                    ((Function) el).run(a);
-                    calcIterator.next();
-                    size -= 1;
-                }
-            } catch (NoSuchElementException e) {
-                throw new CalculationError("Missing a Numeral somewhere.");
-            }
-        }
-        // There should only be 1 OldSymbolCode remaining in the ListIterator and it should be
-        // a Numeral.
-        if (size != 1) {
-            throw new CalculationError(
-                    "Not all elements were handled properly. Likely an invalid input");
-        }
-        ExpressionElement ret = calcIterator.previous();
-        if (ret.getType() != ExpressionElement.type.NUMBER) {
-            throw new CalculationError(
-                    "Remaining OldSymbolCode was an operator. Likely an invalid input");
-        }
-        return (Numeral) ret;
+    private static double doubleValue(Rational exact, double value) {
+        return exact != null ? exact.doubleValue() : value;
     }
 }
 
 class CalculationError extends Exception {
     String error;
+    // Index of the element the error was found at, -1 if unknown.
+    int position;
 
     CalculationError(String s) {
+        this(s, -1);
+    }
+
+    CalculationError(String s, int position) {
         super(s);
         error = s;
+        this.position = position;
     }
 }
\ No newline at end of file
@@ -2,13 +2,15 @@ package com.jjrising.android.dozcalc;
 
 import android.support.annotation.NonNull;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Objects;
 
 class ExpressionElement {
 
-    private type tp;
+    private final type tp;
 
     ExpressionElement(type tp) {
         this.tp = tp;
@@ -22,16 +24,30 @@ class ExpressionElement {
         return "null";
     }
 
-    enum type {DIGIT, NUMBER, OPERATOR, PARENTHESES, FUNCTION}
+    enum type {DIGIT, NUMBER, OPERATOR, PARENTHESES, FUNCTION, VARIABLE}
 }
 
+/**
+ * A digit or the point of a number being entered. Digits hold no state beyond
+ * their value, so there is a single shared instance of each, see
+ * {@link #of(int)} and {@link #dot()}.
+ */
 class Digit extends ExpressionElement {
-    private digitType val;
-    private int num;
-    private value[] valueReference = new value[]{
+    private static final value[] VALUE_REFERENCE = new value[]{
             value.d0, value.d1, value.d2, value.d3, value.d4, value.d5,
             value.d6, value.d7, value.d8, value.d9, value.dX, value.dE
     };
+    private static final Digit DOT = new Digit(digitType.dot);
+    private static final Digit[] DIGITS = new Digit[VALUE_REFERENCE.length];
+
+    static {
+        for (int i = 0; i < DIGITS.length; i++) {
+            DIGITS[i] = new Digit(i);
+        }
+    }
+
+    private final digitType val;
+    private final int num;
 
     private Digit(digitType val) {
         super(type.DIGIT);
@@ -49,29 +65,48 @@ class Digit extends ExpressionElement {
         this.num = num;
     }
 
+    /**
+     * @param num - value of the digit, 0 to 11.
+     * @return - the shared instance of the digit.
+     */
+    static Digit of(int num) {
+        if (num < 0 || num >= DIGITS.length) {
+            throw new IllegalArgumentException("Not a dozenal digit: " + num);
+        }
+        return DIGITS[num];
+    }
+
+    /**
+     * @return - the shared instance of the point.
+     */
+    static Digit dot() {
+        return DOT;
+    }
+
     static Digit fromString(String s) {
         switch (s) {
             case ".":
-                return new Digit(digitType.dot);
+                return DOT;
             case "X":
-                return new Digit(10);
+                return DIGITS[10];
             case "E":
-                return new Digit(11);
+                return DIGITS[11];
             default:
-                return new Digit(Integer.valueOf(s));
+                return of(Integer.parseInt(s));
         }
     }
 
     static Digit fromTag(String tag) {
         switch (tag) {
             case "d/.":
-                return new Digit(digitType.dot);
+                return DOT;
             case "d/X":
-                return new Digit(10);
+                return DIGITS[10];
             case "d/E":
-                return new Digit(11);
+                return DIGITS[11];
             default:
-                return new Digit(Integer.valueOf(tag.substring(2)));
+                // "d/0" to "d/9".
+                return of(tag.charAt(2) - '0');
         }
     }
 
@@ -92,7 +127,7 @@ class Digit extends ExpressionElement {
         if (val == digitType.dot) {
             return Symbols.symMap.get(value.DOT);
         } else {
-            return Symbols.symMap.get(valueReference[num]);
+            return Symbols.symMap.get(VALUE_REFERENCE[num]);
         }
     }
 
@@ -108,16 +143,46 @@ class Digit extends ExpressionElement {
  * solutions.
  */
 class Numeral extends ExpressionElement {
-    private double value;
-    private boolean exact;
-    private boolean isSpecial;
-    private specials symCode;
+    // Longest text a numeral can be written as, see getChars(char[], int).
+    static final int MAX_CHARS = FloatingDozenal.BinaryToDozBuffer.MAX_CHARS;
+    // Most significant digits shown. Arithmetic leaves rounding errors in the
+    // last bits, which the longest digits that read back would show.
+    static final int SIGNIFICANT_DIGITS = 14;
+    // The constants are immutable like every numeral, so they are shared.
+    private static final Numeral PI = new Numeral(specials.PI);
+    private static final Numeral EULERS_NUM = new Numeral(specials.EULERS_NUM);
+
+    private final double value;
+    private final boolean exact;
+    private final boolean isSpecial;
+    private final specials symCode;
+    // The exact value where it is more than the double, null otherwise.
+    private final Rational rational;
 
     Numeral(double value) {
         super(type.NUMBER);
         this.value = value;
         this.exact = true;
-        isSpecial = false;
+        this.isSpecial = false;
+        this.symCode = null;
+        this.rational = null;
+    }
+
+    /**
+     * @param value    - the value, rounded to a double.
+     * @param rational - the exact value, null if it is not known.
+     */
+    Numeral(double value, Rational rational) {
+        super(type.NUMBER);
+        this.value = value;
+        this.exact = rational != null;
+        this.isSpecial = false;
+        this.symCode = null;
+        this.rational = rational;
+    }
+
+    Numeral(Rational rational) {
+        this(rational.doubleValue(), rational);
     }
 
     Numeral(ArrayList<Digit> builder) throws NumberException {
@@ -139,31 +204,21 @@ class Numeral extends ExpressionElement {
             }
             i++;
         }
-        iter = builder.iterator(); // reset the iterator;
         int size = builder.size();
-        value = 0.0;
-        int wholeNumberStopIndex = hasDot ? dotIndex : size;
-        for (i = 0; i < wholeNumberStopIndex; i++) {
-            Digit d = iter.next();
-            double addValue = d.getNum();
-            for (int j = 0; j < wholeNumberStopIndex - i - 1; j++) {
-                addValue *= 12;
-            }
-            value += addValue;
-        }
-        if (hasDot) {
-            iter.next(); // pass the dot.
-            for (i = 0; i < size - dotIndex - 1; i++) {
-                Digit d = iter.next();
-                double addValue = d.getNum();
-                for (int j = 0; j <= i; j++) {
-                    addValue /= 12;
-                }
-                value += addValue;
+        int[] digits = new int[size];
+        int nDigits = 0;
+        for (Digit d : builder) {
+            if (!d.isDot()) {
+                digits[nDigits++] = d.getNum();
             }
         }
+        int pointIndex = hasDot ? dotIndex : size;
+        this.value = new FloatingDozenal.DozToBinaryBuffer(digits, nDigits, pointIndex)
+                .doubleValue();
         this.exact = true;
         this.isSpecial = false;
+        this.symCode = null;
+        this.rational = Rational.fromDigits(digits, nDigits, pointIndex);
     }
 
     private Numeral(specials symCode) {
@@ -173,20 +228,22 @@ class Numeral extends ExpressionElement {
                 this.value = Math.E;
                 break;
             case PI:
+            default:
                 this.value = Math.PI;
                 break;
         }
         this.exact = false;
         this.isSpecial = true;
         this.symCode = symCode;
+        this.rational = null;
     }
 
     static Numeral fromTag(String tag) {
         switch (tag) {
             case "special/pi":
-                return new Numeral(specials.PI);
+                return PI;
             case "special/eulersNum":
-                return new Numeral(specials.EULERS_NUM);
+                return EULERS_NUM;
             default:
                 return new Numeral(0);
         }
@@ -195,9 +252,9 @@ class Numeral extends ExpressionElement {
     static Numeral fromString(String s) throws StringException {
         switch (s) {
             case "pi":
-                return new Numeral(specials.PI);
+                return PI;
             case "e":
-                return new Numeral(specials.EULERS_NUM);
+                return EULERS_NUM;
             default:
                 throw new StringException();
         }
@@ -216,8 +273,19 @@ class Numeral extends ExpressionElement {
         return value;
     }
 
-    void setValue(double value) {
-        this.value = value;
+    boolean isSpecial() {
+        return isSpecial;
+    }
+
+    /**
+     * @return - the exact value, that of the digits entered rather than of
+     * the double nearest to them, null if it is not known or not finite.
+     */
+    Rational getRational() {
+        if (rational != null || !exact || Double.isNaN(value) || Double.isInfinite(value)) {
+            return rational;
+        }
+        return Rational.valueOf(value);
     }
 
     /**
@@ -232,41 +300,90 @@ class Numeral extends ExpressionElement {
     @NonNull
     @Override
     public String toString() {
-        // Lets handle some basic cases
+        String text = specialText();
+        if (text != null)
+            return text;
+        return format().toJavaFormatString();
+        //return isExact() ? buf.toJavaFormatString() : "~" + buf.toJavaFormatString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()}. Once the thread has
+     * formatted a value before, nothing is allocated, whatever the magnitude:
+     * the digits are developed with 128 bit products into the thread's
+     * buffer, see {@link FloatingDozenal.BinaryToDozBuffer#dtoz(double, int)}.
+     *
+     * @param out - builder to append to.
+     * @return - the builder.
+     */
+    StringBuilder appendTo(StringBuilder out) {
+        String text = specialText();
+        if (text != null)
+            return out.append(text);
+        return format().appendTo(out);
+    }
+
+    /**
+     * Like {@link #appendTo(StringBuilder)}, for any destination.
+     *
+     * @param out - destination to append to.
+     * @return - the destination.
+     * @throws IOException - if the destination does.
+     */
+    Appendable appendTo(Appendable out) throws IOException {
+        String text = specialText();
+        if (text != null)
+            return out.append(text);
+        return format().appendTo(out);
+    }
+
+    /**
+     * Copies the same text as {@link #toString()} into an array.
+     *
+     * @param dst    - array to copy to, with room for {@link #MAX_CHARS}
+     *               characters from offset.
+     * @param offset - index of the first character in the array.
+     * @return - the number of characters written.
+     */
+    int getChars(char[] dst, int offset) {
+        String text = specialText();
+        if (text != null) {
+            text.getChars(0, text.length(), dst, offset);
+            return text.length();
+        }
+        return format().getChars(dst, offset);
+    }
+
+    /**
+     * @return - the text of infinities, NaN and zeros, null for any other value.
+     */
+    private String specialText() {
         long d = Double.doubleToLongBits(value);
         boolean isNegative = (d & DoubleConstants.SIGN_MASK) != 0;
         int exp = (int) ((d & DoubleConstants.EXPONENT_MASK) >> DoubleConstants.EXP_SHIFT);
         long mantissa = d & DoubleConstants.MANTISSA_MASK;
-
-        int numberOfSignificantBits; // Will be needed if not a trivial number
         if (exp == 2047) { // ALL 1s
             if (mantissa == 0)
                 return isNegative ? "-INF" : "INF";
             else
                 return "NaN";
-        } else if (exp == 0) {
-            if (mantissa == 0)
-                return isNegative ? "-0" : "0";
-            // Still a small number, but not zero
-            int leadingZeros = Long.numberOfLeadingZeros(mantissa);
-            int shift = leadingZeros - (63 - DoubleConstants.EXP_SHIFT);
-            mantissa <<= shift;
-            exp = 1 - shift;
-            numberOfSignificantBits = 64 - leadingZeros;
-        } else {
-            mantissa |= DoubleConstants.MANTISSA_HOB;
-            //numberOfSignificantBits = DoubleConstants.EXP_SHIFT + 1;
-            int leadingZeros = 11;
-            int tailZeros = Long.numberOfTrailingZeros(mantissa);
-            numberOfSignificantBits = 64 - leadingZeros - tailZeros;
-        }
-        exp -= DoubleConstants.EXP_BIAS;
-
-        FloatingDozenal.BinaryToDozBuffer buf = new FloatingDozenal.BinaryToDozBuffer();
-        buf.setSign(isNegative);
-        exact = buf.doubleToDoz(exp, mantissa, numberOfSignificantBits);
-        return buf.toJavaFormatString();
-        //return isExact() ? buf.toJavaFormatString() : "~" + buf.toJavaFormatString();
+        } else if (exp == 0 && mantissa == 0) {
+            return isNegative ? "-0" : "0";
+        }
+        return null;
+    }
+
+    /**
+     * Develops the digits of a finite, non-zero value into the buffer of the
+     * calling thread, at most {@link #SIGNIFICANT_DIGITS} of them unless it
+     * is an exact whole number, whose digits are all written without an
+     * exponent.
+     */
+    private FloatingDozenal.BinaryToDozBuffer format() {
+        if (rational != null && rational.isLong()) {
+            return FloatingDozenal.getBinaryToDozBuffer().ltoz(rational.longValue());
+        }
+        return FloatingDozenal.getBinaryToDozBuffer().dtoz(value, SIGNIFICANT_DIGITS);
     }
 
     enum specials implements SymbolCode {EULERS_NUM, PI}
@@ -280,11 +397,22 @@ class Numeral extends ExpressionElement {
  * Class for all the operators that can be used in an expression.
  */
 class Operator extends ExpressionElement {
+    private static final Operator[] INSTANCES = new Operator[operator.values().length];
 
-    private operator value;
-    private associativity associate;
-    private int precedence;
+    static {
+        for (operator op : operator.values()) {
+            INSTANCES[op.ordinal()] = new Operator(op);
+        }
+    }
+
+    private final operator value;
+    private final associativity associate;
+    private final int precedence;
 
+    /**
+     * Prefer {@link #of(operator)}, operators hold no state beyond their
+     * symbol.
+     */
     Operator(operator symCode) {
         super(type.OPERATOR);
         this.value = symCode;
@@ -302,32 +430,60 @@ class Operator extends ExpressionElement {
                 associate = associativity.LEFT;
                 break;
             case DIVIDE:
+            case MOD:
+            case GCD:
+            case LCM:
                 precedence = 3;
                 associate = associativity.LEFT;
                 break;
-            case EXPONENT:
+            case COMBINATIONS:
+            case PERMUTATIONS:
+                // Above products, so that 2*5C2 counts pairs twice, below powers.
                 precedence = 4;
+                associate = associativity.LEFT;
+                break;
+            case EXPONENT:
+                precedence = 5;
                 associate = associativity.RIGHT;
                 break;
+            default:
+                throw new IllegalArgumentException("Unknown operator " + symCode);
         }
     }
 
+    /**
+     * @return - the shared instance of the operator.
+     */
+    static Operator of(operator symCode) {
+        return INSTANCES[symCode.ordinal()];
+    }
+
     static Operator fromTag(String tag) {
-        return new Operator((operator) Objects.requireNonNull(Symbols.tagMap.get(tag)));
+        return of((operator) Objects.requireNonNull(Symbols.tagMap.get(tag)));
     }
 
     static Operator fromString(String s) throws StringException {
         switch (s) {
             case "+":
-                return new Operator(operator.ADD);
+                return of(operator.ADD);
             case "-":
-                return new Operator(operator.SUBTRACT);
+                return of(operator.SUBTRACT);
             case "*":
-                return new Operator(operator.MULTIPLY);
+                return of(operator.MULTIPLY);
             case "/":
-                return new Operator(operator.DIVIDE);
+                return of(operator.DIVIDE);
             case "^":
-                return new Operator(operator.EXPONENT);
+                return of(operator.EXPONENT);
+            case "C":
+                return of(operator.COMBINATIONS);
+            case "P":
+                return of(operator.PERMUTATIONS);
+            case "mod":
+                return of(operator.MOD);
+            case "gcd":
+                return of(operator.GCD);
+            case "lcm":
+                return of(operator.LCM);
             default:
                 throw new StringException();
         }
@@ -338,31 +494,180 @@ class Operator extends ExpressionElement {
         return Symbols.symMap.get(value);
     }
 
+    operator getOperator() {
+        return value;
+    }
+
     enum operator implements SymbolCode {
-        ADD, SUBTRACT, MULTIPLY, DIVIDE, EXPONENT
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, EXPONENT, COMBINATIONS, PERMUTATIONS, MOD, GCD, LCM
     }
 
     associativity associativity() {
         return associate;
     }
 
-    void run(Numeral a, Numeral b) {
-        switch (value) {
+    Numeral run(Numeral a, Numeral b) {
+        return new Numeral(apply(value, a.getValue(), b.getValue()));
+    }
+
+    /**
+     * Overflow is tested for as {@link Math#addExact(long, long)} and
+     * {@link Math#multiplyExact(long, long)} test for it, but without their
+     * exception, which costs far more than the arithmetic.
+     *
+     * @return - the exact result, null if it overflows a long or the operator
+     * does not take whole numbers to a whole number.
+     */
+    static Rational applyLong(operator op, long a, long b) {
+        long r;
+        switch (op) {
             case ADD:
-                a.setValue(a.getValue() + b.getValue());
-                break;
+                r = a + b;
+                // Overflow gives the sum a sign that neither operand has.
+                return ((a ^ r) & (b ^ r)) < 0 ? null : Rational.valueOf(r);
             case SUBTRACT:
-                a.setValue(a.getValue() - b.getValue());
-                break;
+                r = a - b;
+                return ((a ^ b) & (a ^ r)) < 0 ? null : Rational.valueOf(r);
             case MULTIPLY:
-                a.setValue(a.getValue() * b.getValue());
-                break;
+                return Rational.productFits(a, b) ? Rational.valueOf(a * b) : null;
+            case EXPONENT:
+                return b < 0 ? null : pow(a, b);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The fold {@link Optimizer} makes of two constants.
+     *
+     * @param a - the exact left operand, null if it is not known.
+     * @param b - the exact right operand, null if it is not known.
+     * @return - {@link #applyLong(operator, long, long)} if both are whole
+     * numbers in longs, null otherwise.
+     */
+    static Rational applyLong(operator op, Rational a, Rational b) {
+        return a != null && a.isLong() && b != null && b.isLong()
+                ? applyLong(op, a.longValue(), b.longValue()) : null;
+    }
+
+    /**
+     * Exponentiation by squaring, one product for each bit of n and one
+     * more for each bit that is set.
+     *
+     * @param n - not negative.
+     * @return - a^n, null if it overflows a long.
+     */
+    private static Rational pow(long a, long n) {
+        if (a == 0 || a == 1 || n == 0) {
+            return Rational.valueOf(n == 0 ? 1 : a);
+        }
+        if (a == -1) {
+            return Rational.valueOf((n & 1) == 0 ? 1 : -1);
+        }
+        long result = 1;
+        while (true) {
+            if ((n & 1) != 0) {
+                if (!Rational.productFits(result, a)) {
+                    return null;
+                }
+                result *= a;
+            }
+            n >>= 1;
+            if (n == 0) {
+                return Rational.valueOf(result);
+            }
+            // Squaring past the last bit could overflow where the power does not.
+            if (!Rational.productFits(a, a)) {
+                return null;
+            }
+            a *= a;
+        }
+    }
+
+    static double apply(operator op, double a, double b) {
+        switch (op) {
+            case ADD:
+                return a + b;
+            case SUBTRACT:
+                return a - b;
+            case MULTIPLY:
+                return a * b;
             case DIVIDE:
-                a.setValue(a.getValue() / b.getValue());
-                break;
+                return a / b;
             case EXPONENT:
-                a.setValue(Math.pow(a.getValue(), b.getValue()));
-                break;
+                return Math.pow(a, b);
+            case COMBINATIONS:
+                return Factorials.choose(a, b);
+            case PERMUTATIONS:
+                return Factorials.permutations(a, b);
+            case MOD:
+                return NumberTheory.mod(a, b);
+            case GCD:
+                return NumberTheory.gcd(a, b);
+            case LCM:
+                return NumberTheory.lcm(a, b);
+            default:
+                return a;
+        }
+    }
+
+    /**
+     * Exact arithmetic, for {@link Expression#calcExact()}.
+     *
+     * @return - the exact result, null if it has none or the power is too big
+     * to be worth holding exactly.
+     */
+    static Rational apply(operator op, Rational a, Rational b) {
+        switch (op) {
+            case ADD:
+                return a.add(b);
+            case SUBTRACT:
+                return a.subtract(b);
+            case MULTIPLY:
+                return a.multiply(b);
+            case DIVIDE:
+                return b.signum() == 0 ? null : a.divide(b);
+            case EXPONENT:
+                if (!b.isLong() || a.signum() == 0 && b.signum() < 0) {
+                    return null;
+                }
+                // 0, 1 and -1 stay as small for any power.
+                long n = b.longValue();
+                if (a.bitLength() > 1 && Math.abs(n) > Rational.MAX_POW_BITS / a.bitLength()) {
+                    return null;
+                }
+                return a.pow(n);
+            case COMBINATIONS:
+            case PERMUTATIONS:
+                if (!a.isLong() || !b.isLong() || a.signum() < 0 || b.signum() < 0) {
+                    return null;
+                }
+                BigInteger count = op == operator.COMBINATIONS
+                        ? Factorials.exactChoose(a.longValue(), b.longValue())
+                        : Factorials.exactPermutations(a.longValue(), b.longValue());
+                return count != null ? Rational.valueOf(count) : null;
+            case MOD:
+            case GCD:
+            case LCM:
+                // Whole numbers only, the doubles give the rest.
+                if (!a.isLong() || !b.isLong()) {
+                    return null;
+                }
+                long x = a.longValue();
+                long y = b.longValue();
+                if (op == operator.MOD) {
+                    return y == 0 ? null : Rational.valueOf(Math.floorMod(x, y));
+                }
+                long gcd = Rational.gcd(Math.abs(x), Math.abs(y));
+                if (op == operator.GCD) {
+                    return Rational.valueOf(gcd);
+                }
+                if (gcd == 0) {
+                    return Rational.ZERO;
+                }
+                return Rational.valueOf(Math.abs(x) / gcd).multiply(Rational.valueOf(Math.abs(y)));
+            default:
+                return null;
         }
     }
 
@@ -373,11 +678,66 @@ class Operator extends ExpressionElement {
     enum associativity {LEFT, RIGHT}
 }
 
+/**
+ * A named value that is only bound when the expression is evaluated, see
+ * {@link CompiledExpression#evaluate(double[][], double[])}.
+ */
+class Variable extends ExpressionElement {
+    // Variables named by a single lower case letter, the only ones text can hold.
+    private static final Variable[] LETTERS = new Variable[26];
+
+    static {
+        for (int i = 0; i < LETTERS.length; i++) {
+            LETTERS[i] = new Variable(String.valueOf((char) ('a' + i)));
+        }
+    }
+
+    private final String name;
+
+    Variable(String name) {
+        super(type.VARIABLE);
+        this.name = name;
+    }
+
+    /**
+     * @param letter - a lower case letter.
+     * @return - the shared variable of that name.
+     */
+    static Variable of(char letter) {
+        if (letter < 'a' || letter > 'z') {
+            throw new IllegalArgumentException("Not a lower case letter: " + letter);
+        }
+        return LETTERS[letter - 'a'];
+    }
+
+    static Variable fromString(String s) {
+        if (s.length() == 1 && s.charAt(0) >= 'a' && s.charAt(0) <= 'z') {
+            return of(s.charAt(0));
+        }
+        return new Variable(s);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    String getSymbol() {
+        return name;
+    }
+}
+
+/**
+ * A parenthesis. Parentheses hold no state beyond their direction, so there is
+ * a single shared instance of each, {@link OpenParen#INSTANCE} and
+ * {@link CloseParen#INSTANCE}.
+ */
 class Paren extends ExpressionElement {
-    direction dir;
+    private final direction dir;
 
-    Paren() {
+    Paren(direction dir) {
         super(type.PARENTHESES);
+        this.dir = dir;
     }
 
     boolean isOpen() {
@@ -388,9 +748,13 @@ class Paren extends ExpressionElement {
 }
 
 class OpenParen extends Paren {
+    static final OpenParen INSTANCE = new OpenParen();
+
+    /**
+     * Prefer {@link #INSTANCE}.
+     */
     OpenParen() {
-        super();
-        this.dir = direction.OPEN;
+        super(direction.OPEN);
     }
 
     @Override
@@ -400,9 +764,13 @@ class OpenParen extends Paren {
 }
 
 class CloseParen extends Paren {
+    static final CloseParen INSTANCE = new CloseParen();
+
+    /**
+     * Prefer {@link #INSTANCE}.
+     */
     CloseParen() {
-        super();
-        this.dir = direction.CLOSE;
+        super(direction.CLOSE);
     }
 
     @Override
@@ -414,10 +782,18 @@ class CloseParen extends Paren {
 class Function extends ExpressionElement {
 
     // 1.0 / Math.log(12)
-    private final double INVERSE_LN_10 = Double.longBitsToDouble(0x3fd9c1681970c88fL);
+    private static final double INVERSE_LN_10 = Double.longBitsToDouble(0x3fd9c1681970c88fL);
 
-    private function func;
-    private associativity associate;
+    private static final Function[] INSTANCES = new Function[function.values().length];
+
+    static {
+        for (function func : function.values()) {
+            INSTANCES[func.ordinal()] = new Function(func);
+        }
+    }
+
+    private final function func;
+    private final associativity associate;
 
     private Function(function func) {
         super(type.FUNCTION);
@@ -434,31 +810,46 @@ class Function extends ExpressionElement {
             case LOGX:
             case LOGZ:
             case LOG10:
+            case IS_PRIME:
+            case FACTOR:
                 associate = associativity.RIGHT;
                 break;
             case FACTORIAL:
             case SQUARE:
                 associate = associativity.LEFT;
                 break;
+            default:
+                throw new IllegalArgumentException("Unknown function " + func);
         }
     }
 
+    /**
+     * @return - the shared instance of the function.
+     */
+    static Function of(function func) {
+        return INSTANCES[func.ordinal()];
+    }
+
     static Function fromTag(String tag) {
-        return new Function((function) Objects.requireNonNull(Symbols.tagMap.get(tag)));
+        return of((function) Objects.requireNonNull(Symbols.tagMap.get(tag)));
     }
 
     static Function fromString(String s) throws StringException {
         switch (s) {
             case "!":
-                return new Function(function.FACTORIAL);
+                return of(function.FACTORIAL);
             case "sqrt":
-                return new Function(function.SQRT);
+                return of(function.SQRT);
             case "sin":
-                return new Function(function.SIN);
+                return of(function.SIN);
             case "cos":
-                return new Function(function.COS);
+                return of(function.COS);
             case "tan":
-                return new Function(function.TAN);
+                return of(function.TAN);
+            case "isprime":
+                return of(function.IS_PRIME);
+            case "factor":
+                return of(function.FACTOR);
             default:
                 throw new StringException();
         }
@@ -469,63 +860,80 @@ class Function extends ExpressionElement {
         return Symbols.symMap.get(func);
     }
 
+    function getFunction() {
+        return func;
+    }
+
     enum function implements SymbolCode {
         SQRT, FACTORIAL, SIN, COS, TAN, ARCSIN, ARCCOS, ARCTAN, SQUARE,
-        LN, LOGX, LOG10, LOGZ
+        LN, LOGX, LOG10, LOGZ, IS_PRIME, FACTOR
     }
 
     associativity associativity() {
         return associate;
     }
 
-    void run(Numeral a) {
+    Numeral run(Numeral a) {
+        return new Numeral(apply(func, a.getValue()));
+    }
+
+    static double apply(function func, double a) {
         switch (func) {
             case SQRT:
-                a.setValue(Math.sqrt(a.getValue()));
-                break;
+                return Math.sqrt(a);
             case FACTORIAL:
-                double value = a.getValue();
-                if (Double.isInfinite(value) || value != Math.floor(value)) {
-                    a.setValue(Double.NaN);
-                } else if (value == 0.0 || value == 1.0) {
-                    a.setValue(1.0);
-                } else {
-                    int ret = 1;
-                    for (int i = 2; i <= value; i++) {
-                        ret *= i;
-                    }
-                    a.setValue((double) ret);
-                }
-                break;
+                return Factorials.factorial(a);
             case SIN:
-                a.setValue(Math.sin(a.getValue()));
-                break;
+                return Math.sin(a);
             case COS:
-                a.setValue(Math.cos(a.getValue()));
-                break;
+                return Math.cos(a);
             case TAN:
-                a.setValue(Math.tan(a.getValue()));
-                break;
+                return Math.tan(a);
             case ARCSIN:
-                a.setValue(Math.asin(a.getValue()));
-                break;
+                return Math.asin(a);
             case ARCCOS:
-                a.setValue(Math.acos(a.getValue()));
-                break;
+                return Math.acos(a);
             case ARCTAN:
-                a.setValue(Math.atan(a.getValue()));
-                break;
+                return Math.atan(a);
             case SQUARE:
-                a.setValue(a.getValue() * a.getValue());
-                break;
+                return a * a;
             case LN:
-                a.setValue(Math.log(a.getValue()));
-                break;
+                return Math.log(a);
             case LOG10:
-                a.setValue(Math.log10(a.getValue()));
-                break;
+                return Math.log10(a);
             case LOGX:
-                a.setValue(Math.log(a.getValue()) * INVERSE_LN_10);
+                return Math.log(a) * INVERSE_LN_10;
+            case IS_PRIME:
+                return NumberTheory.isPrime(a);
+            case FACTOR:
+                return NumberTheory.smallestFactor(a);
+            default:
+                return a;
+        }
+    }
+
+    /**
+     * Exact arithmetic, for {@link Expression#calcExact()}.
+     *
+     * @return - the exact result, null if it has none.
+     */
+    static Rational apply(function func, Rational a) {
+        switch (func) {
+            case SQUARE:
+                return a.multiply(a);
+            case FACTORIAL:
+                if (a.isLong() && a.longValue() >= 0 && a.longValue() <= Factorials.MAX_EXACT) {
+                    return Rational.valueOf(Factorials.exact((int) a.longValue()));
+                }
+                return null;
+            case IS_PRIME:
+                return a.isLong() ? Rational.valueOf(NumberTheory.isPrime(a.longValue()) ? 1 : 0)
+                        : null;
+            case FACTOR:
+                return a.isLong() && Math.abs(a.longValue()) >= 2
+                        ? Rational.valueOf(NumberTheory.factor(Math.abs(a.longValue()))[0]) : null;
+            default:
+                return null;
         }
     }
 
@@ -539,7 +947,15 @@ class NumberException extends Exception {
 }
 
 class StringException extends Exception {
+    // Index of the character the error was found at, -1 if unknown.
+    int position;
+
     StringException() {
-        super("Invalid string input.");
+        this("Invalid string input.", -1);
+    }
+
+    StringException(String s, int position) {
+        super(s);
+        this.position = position;
     }
 }
\ No newline at end of file
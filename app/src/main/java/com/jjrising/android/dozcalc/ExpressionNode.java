@@ -0,0 +1,146 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * A node of the syntax tree produced by {@link Parser}.
+ * <p>
+ * Every node remembers the span of elements it was parsed from, {@code start}
+ * inclusive and {@code end} exclusive, as indices into the expression.
+ */
+abstract class ExpressionNode {
+
+    private final kind kd;
+    private final int start;
+    private final int end;
+
+    ExpressionNode(kind kd, int start, int end) {
+        this.kd = kd;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Lists the nodes of a tree children first, in evaluation order. The tree is
+     * walked with an explicit stack so that very deep trees can not overflow the
+     * call stack.
+     *
+     * @param root - the root of the tree.
+     * @return - every node of the tree in post-order.
+     */
+    static ArrayList<ExpressionNode> postOrder(ExpressionNode root) {
+        ArrayList<ExpressionNode> order = new ArrayList<>();
+        ArrayList<ExpressionNode> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            ExpressionNode node = stack.remove(stack.size() - 1);
+            order.add(node);
+            if (node.kd == kind.OPERATOR) {
+                stack.add(((OperatorNode) node).getLeft());
+                stack.add(((OperatorNode) node).getRight());
+            } else if (node.kd == kind.FUNCTION) {
+                stack.add(((FunctionNode) node).getOperand());
+            }
+        }
+        Collections.reverse(order);
+        return order;
+    }
+
+    kind getKind() {
+        return kd;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    enum kind {CONSTANT, VARIABLE, OPERATOR, FUNCTION}
+}
+
+class ConstantNode extends ExpressionNode {
+    private final double value;
+    private final Rational rational;
+
+    ConstantNode(double value, int start, int end) {
+        this(value, null, start, end);
+    }
+
+    /**
+     * @param rational - the exact value, null if it is not known.
+     */
+    ConstantNode(double value, Rational rational, int start, int end) {
+        super(kind.CONSTANT, start, end);
+        this.value = value;
+        this.rational = rational;
+    }
+
+    double getValue() {
+        return value;
+    }
+
+    Rational getRational() {
+        return rational;
+    }
+}
+
+class VariableNode extends ExpressionNode {
+    private final String name;
+
+    VariableNode(String name, int start, int end) {
+        super(kind.VARIABLE, start, end);
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+}
+
+class OperatorNode extends ExpressionNode {
+    private final Operator.operator op;
+    private final ExpressionNode left;
+    private final ExpressionNode right;
+
+    OperatorNode(Operator.operator op, ExpressionNode left, ExpressionNode right) {
+        super(kind.OPERATOR, left.getStart(), right.getEnd());
+        this.op = op;
+        this.left = left;
+        this.right = right;
+    }
+
+    Operator.operator getOperator() {
+        return op;
+    }
+
+    ExpressionNode getLeft() {
+        return left;
+    }
+
+    ExpressionNode getRight() {
+        return right;
+    }
+}
+
+class FunctionNode extends ExpressionNode {
+    private final Function.function func;
+    private final ExpressionNode operand;
+
+    FunctionNode(Function.function func, ExpressionNode operand, int start, int end) {
+        super(kind.FUNCTION, start, end);
+        this.func = func;
+        this.operand = operand;
+    }
+
+    Function.function getFunction() {
+        return func;
+    }
+
+    ExpressionNode getOperand() {
+        return operand;
+    }
+}
@@ -0,0 +1,401 @@
+package com.jjrising.android.dozcalc;
+
+import java.math.BigInteger;
+
+/**
+ * Factorials, and the gamma function for the arguments that are not whole.
+ * <p>
+ * Whole arguments read the correctly rounded double from a table, as every
+ * factorial past 170 overflows. Others use the Lanczos approximation with
+ * g = 7 and nine terms, good to about 15 significant decimal digits, and its
+ * reflection below one half. Exact factorials are built by the prime swing
+ * method of P. Luschny, n! = (n/2)!^2 swing(n), with the prime factors of the
+ * swing multiplied together by binary splitting. Nothing loops over the
+ * argument itself, so all of it takes bounded time.
+ * <p>
+ * Combinations and permutations are counted with the multiplicative formulas,
+ * in longs while they fit. nCr is built up as C(n - r + i, i) for i up to r,
+ * each step cancelling the gcd of the count so far with i, so that it only
+ * overflows when the result does. Past a long they are quotients of the
+ * factorial table, or products in doubles that overflow within about a
+ * thousand steps, or products of the r factors in BigIntegers. The
+ * factorial of n is never formed.
+ */
+final class Factorials {
+    // Largest n with n! a finite double.
+    static final int MAX_DOUBLE = 170;
+    // Largest n whose factorial is worked out exactly, about 43000 bits.
+    static final int MAX_EXACT = 1 << 12;
+    // Bound on the bits of the exact counts of combinations and permutations.
+    static final int MAX_EXACT_BITS = 1 << 16;
+    // Counts up to this are done in longs first.
+    private static final double MAX_LONG_COUNT = 1L << 62;
+    // Counts below this are whole numbers that fit in a long.
+    private static final double LONG_RANGE = 0x1p63;
+
+    private static final long[] LONG_FACTORIALS = new long[21];
+    private static final double LANCZOS_G = 7;
+    private static final double[] LANCZOS = {
+            0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+            771.32342877765313, -176.61502916214059, 12.507343278686905,
+            -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+    };
+    private static final double SQRT_TWO_PI = Math.sqrt(2 * Math.PI);
+
+    static {
+        LONG_FACTORIALS[0] = 1;
+        for (int i = 1; i < LONG_FACTORIALS.length; i++) {
+            LONG_FACTORIALS[i] = i * LONG_FACTORIALS[i - 1];
+        }
+    }
+
+    private Factorials() {
+    }
+
+    /**
+     * The table is only built the first time a factorial past 20 is asked for.
+     */
+    private static final class Table {
+        static final double[] DOUBLES = new double[MAX_DOUBLE + 1];
+
+        static {
+            BigInteger f = BigInteger.ONE;
+            for (int i = 0; i <= MAX_DOUBLE; i++) {
+                if (i > 1) {
+                    f = f.multiply(BigInteger.valueOf(i));
+                }
+                DOUBLES[i] = Rational.valueOf(f).doubleValue();
+            }
+        }
+    }
+
+    /**
+     * @param a - any double.
+     * @return - a!, which is gamma(a + 1) for a that are not whole. NaN at the
+     * negative integers, where it has poles.
+     */
+    static double factorial(double a) {
+        if (a != Math.floor(a)) {
+            return Double.isNaN(a) ? a : gamma(a + 1);
+        } else if (a < 0) {
+            return Double.NaN;
+        } else if (a < LONG_FACTORIALS.length) {
+            return LONG_FACTORIALS[(int) a];
+        } else if (a <= MAX_DOUBLE) {
+            return Table.DOUBLES[(int) a];
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param x - any double.
+     * @return - the gamma function at x.
+     */
+    static double gamma(double x) {
+        if (x == Math.floor(x)) {
+            return x > 0 ? factorial(x - 1) : Double.NaN;
+        } else if (x < 0.5) {
+            // Reflection, gamma(x) gamma(1 - x) = pi / sin(pi x).
+            return Math.PI / (sinPi(x) * gamma(1 - x));
+        } else if (x > MAX_DOUBLE + 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        x -= 1;
+        double sum = LANCZOS[0];
+        for (int i = 1; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (x + i);
+        }
+        double t = x + LANCZOS_G + 0.5;
+        // t^(x + 1/2) in two halves, as all of it overflows before gamma does.
+        double half = Math.pow(t, (x + 0.5) / 2);
+        return SQRT_TWO_PI * sum * half * Math.exp(-t) * half;
+    }
+
+    /**
+     * @return - sin(pi x), taking x modulo 2 first so that large x keep their
+     * accuracy.
+     */
+    private static double sinPi(double x) {
+        // Exact, both terms being multiples of the unit in the last place of x.
+        double r = x - 2 * Math.floor(x / 2);
+        double sign = 1;
+        if (r > 1) {
+            r -= 1;
+            sign = -1;
+        }
+        return sign * Math.sin(Math.PI * Math.min(r, 1 - r));
+    }
+
+    /**
+     * @param n - at least zero.
+     * @return - n!, exactly.
+     * @throws ArithmeticException - if n is negative.
+     */
+    static BigInteger exact(int n) {
+        if (n < 0) {
+            throw new ArithmeticException("Factorial of a negative number: " + n);
+        } else if (n < LONG_FACTORIALS.length) {
+            return BigInteger.valueOf(LONG_FACTORIALS[n]);
+        }
+        return exact(n, primes(n));
+    }
+
+    private static BigInteger exact(int n, boolean[] composite) {
+        if (n < LONG_FACTORIALS.length) {
+            return BigInteger.valueOf(LONG_FACTORIALS[n]);
+        }
+        BigInteger half = exact(n / 2, composite);
+        return half.multiply(half).multiply(swing(n, composite));
+    }
+
+    /**
+     * The swing n! / (n/2)!^2. A prime p has exponent the number of odd
+     * floor(n / p^k) in it, which is at most one once p^2 > n.
+     */
+    private static BigInteger swing(int n, boolean[] composite) {
+        long[] factors = new long[n / 2 + 1];
+        int count = 0;
+        long factor = 1;
+        int root = (int) Math.sqrt(n);
+        for (int p = 2; p <= n; p++) {
+            if (composite[p]) {
+                continue;
+            }
+            long power = 1;
+            if (p > root) {
+                if (((n / p) & 1) != 0) {
+                    power = p;
+                }
+            } else {
+                for (int q = n / p; q > 0; q /= p) {
+                    if ((q & 1) != 0) {
+                        power *= p;
+                    }
+                }
+            }
+            // Pack factors into longs while they fit, to multiply fewer.
+            if (power != 1) {
+                if (factor > Long.MAX_VALUE / power) {
+                    factors[count++] = factor;
+                    factor = 1;
+                }
+                factor *= power;
+            }
+        }
+        factors[count++] = factor;
+        return product(factors, 0, count);
+    }
+
+    /**
+     * Binary splitting, so that the two halves of each product are about the
+     * same size.
+     */
+    private static BigInteger product(long[] factors, int from, int to) {
+        if (to - from == 1) {
+            return BigInteger.valueOf(factors[from]);
+        }
+        int mid = (from + to) >>> 1;
+        return product(factors, from, mid).multiply(product(factors, mid, to));
+    }
+
+    /**
+     * @param n - the size of the set, a whole number at least zero.
+     * @param k - how many are chosen, a whole number at least zero.
+     * @return - nCr, the number of ways to choose k of n things, zero if k is
+     * more than n. NaN if either is not a whole number at least zero.
+     */
+    static double choose(double n, double k) {
+        if (!isCount(n) || !isCount(k)) {
+            return Double.NaN;
+        } else if (k > n) {
+            return 0;
+        }
+        k = Math.min(k, n - k);
+        if (n < MAX_LONG_COUNT) {
+            long c = chooseLong((long) n, (long) k);
+            if (c >= 0) {
+                return c;
+            }
+        }
+        // With k at most n / 2, nCr >= (n / k)^k >= 2^k.
+        if (k > Double.MAX_EXPONENT || k * log2(n / k) > Double.MAX_EXPONENT + 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Exactly, then rounded once. The bounds above keep the products to
+        // about 10000 bits.
+        BigInteger c = n < LONG_RANGE ? exactChoose((long) n, (long) k)
+                : fallingFactorial(n, (int) k).divide(exact((int) k));
+        return Rational.valueOf(c).doubleValue();
+    }
+
+    /**
+     * @param n - the size of the set, a whole number at least zero.
+     * @param k - how many are arranged, a whole number at least zero.
+     * @return - nPr, the number of ordered arrangements of k of n things, zero
+     * if k is more than n. NaN if either is not a whole number at least zero.
+     */
+    static double permutations(double n, double k) {
+        if (!isCount(n) || !isCount(k)) {
+            return Double.NaN;
+        } else if (k > n) {
+            return 0;
+        }
+        if (n < MAX_LONG_COUNT) {
+            long p = permutationsLong((long) n, (long) k);
+            if (p >= 0) {
+                return p;
+            }
+        }
+        // nPr >= k! and nPr >= (n - k + 1)^k.
+        if (k > MAX_DOUBLE || k * log2(n - k + 1) > Double.MAX_EXPONENT + 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        BigInteger p = n < LONG_RANGE ? exactPermutations((long) n, (long) k)
+                : fallingFactorial(n, (int) k);
+        return Rational.valueOf(p).doubleValue();
+    }
+
+    /**
+     * @param n - at least zero.
+     * @param k - at least zero.
+     * @return - nCr exactly, null if it might have more than
+     * {@link #MAX_EXACT_BITS} bits.
+     */
+    static BigInteger exactChoose(long n, long k) {
+        if (k > n) {
+            return BigInteger.ZERO;
+        }
+        k = Math.min(k, n - k);
+        long c = chooseLong(n, k);
+        if (c >= 0) {
+            return BigInteger.valueOf(c);
+        } else if (tooBig(n, k)) {
+            return null;
+        }
+        // n (n - 1) ... (n - k + 1) / k!, with k! the smaller of the two.
+        return rangeProduct(n - k + 1, n).divide(exact((int) k));
+    }
+
+    /**
+     * @param n - at least zero.
+     * @param k - at least zero.
+     * @return - nPr exactly, null if it might have more than
+     * {@link #MAX_EXACT_BITS} bits.
+     */
+    static BigInteger exactPermutations(long n, long k) {
+        if (k > n) {
+            return BigInteger.ZERO;
+        }
+        long p = permutationsLong(n, k);
+        if (p >= 0) {
+            return BigInteger.valueOf(p);
+        } else if (tooBig(n, k)) {
+            return null;
+        }
+        return rangeProduct(n - k + 1, n);
+    }
+
+    /**
+     * @param n - a whole number past a long.
+     * @param k - how many factors, few enough for the product to be small.
+     * @return - n (n - 1) ... (n - k + 1).
+     */
+    private static BigInteger fallingFactorial(double n, int k) {
+        BigInteger big = Rational.valueOf(n).getNumerator();
+        BigInteger p = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            p = p.multiply(big.subtract(BigInteger.valueOf(i)));
+        }
+        return p;
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    private static boolean isCount(double x) {
+        return x >= 0 && x == Math.floor(x) && !Double.isInfinite(x);
+    }
+
+    /**
+     * The count so far c is C(n - k + i - 1, i - 1), and c (n - k + i) / i is
+     * the next one. With g = gcd(c, i), i / g divides n - k + i, so dividing
+     * first leaves only the product to check. The counts at least double each
+     * step, so this overflows within 63 of them.
+     *
+     * @param k - at most n - k.
+     * @return - nCr, or -1 if it does not fit in a long.
+     */
+    private static long chooseLong(long n, long k) {
+        long c = 1;
+        for (long i = 1; i <= k; i++) {
+            long g = Rational.gcd(c, i);
+            long factor = (n - k + i) / (i / g);
+            c /= g;
+            if (!Rational.productFits(c, factor)) {
+                return -1;
+            }
+            c *= factor;
+        }
+        return c;
+    }
+
+    /**
+     * @return - nPr, or -1 if it does not fit in a long. Every factor but the
+     * last is at least 2, so this too overflows within 63 of them.
+     */
+    private static long permutationsLong(long n, long k) {
+        long p = 1;
+        for (long i = 0; i < k; i++) {
+            if (!Rational.productFits(p, n - i)) {
+                return -1;
+            }
+            p *= n - i;
+        }
+        return p;
+    }
+
+    /**
+     * @return - whether nPr, which nCr is no bigger than, might need more than
+     * {@link #MAX_EXACT_BITS} bits.
+     */
+    private static boolean tooBig(long n, long k) {
+        return k > MAX_EXACT_BITS / (64 - Long.numberOfLeadingZeros(n));
+    }
+
+    /**
+     * @return - from (from + 1) ... to, packed into longs and multiplied by
+     * binary splitting.
+     */
+    private static BigInteger rangeProduct(long from, long to) {
+        long[] factors = new long[(int) (to - from + 1)];
+        int count = 0;
+        long factor = 1;
+        for (long i = from; i <= to; i++) {
+            if (!Rational.productFits(factor, i)) {
+                factors[count++] = factor;
+                factor = 1;
+            }
+            factor *= i;
+        }
+        factors[count++] = factor;
+        return product(factors, 0, count);
+    }
+
+    /**
+     * Sieve of Eratosthenes.
+     *
+     * @return - for each number up to n, whether it is composite.
+     */
+    private static boolean[] primes(int n) {
+        boolean[] composite = new boolean[n + 1];
+        for (int i = 2; (long) i * i <= n; i++) {
+            if (!composite[i]) {
+                for (int j = i * i; j <= n; j += i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        return composite;
+    }
+}
@@ -37,475 +37,437 @@
  */
 package com.jjrising.android.dozcalc;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 class FloatingDozenal {
     private static final int EXP_SHIFT = DoubleConstants.EXP_SHIFT;
     private static final long HIGH_ORDER_BIT = DoubleConstants.MANTISSA_HOB;
-    private static final long EXP_ONE = 0x3FF0000000000000L;
-    private static final int MAX_SMALL_EXP = 62;
-    private static final int MIN_SMALL_EXP = -21; // -(63/3)
     private static final long MANTISSA_MASK = DoubleConstants.MANTISSA_MASK;
-    private static final long EXP_MASK = DoubleConstants.EXPONENT_MASK;
     private static final int EXP_BIAS = DoubleConstants.EXP_BIAS;
-    private static final long SIGN_MASK = DoubleConstants.SIGN_MASK;
 
     interface BinaryToDozConverter {
 
     }
 
+    // Formatting reuses one buffer per thread rather than allocating one per value.
+    private static final ThreadLocal<BinaryToDozBuffer> threadLocalBinaryToDozBuffer =
+            new ThreadLocal<BinaryToDozBuffer>() {
+                @Override
+                protected BinaryToDozBuffer initialValue() {
+                    return new BinaryToDozBuffer();
+                }
+            };
+
+    /**
+     * @return - the formatting buffer of the calling thread. It is only valid
+     * until the thread formats the next value.
+     */
+    static BinaryToDozBuffer getBinaryToDozBuffer() {
+        return threadLocalBinaryToDozBuffer.get();
+    }
+
     static class BinaryToDozBuffer implements BinaryToDozConverter {
-        // Approximately ceil( log2( long6pow[i]))
-        private static final int[] N_3_BITS = {
-                0,
-                2,
-                4,
-                5,
-                7,
-                8,
-                10,
-                12,
-                13,
-                15,
-                16,
-                18,
-                20,
-                21,
-                23,
-                24,
-                26,
-                27,
-                29,
-                31,
-                32,
-                34,
-                35,
-                37,
-                39,
-                40,
-                42,
-                43,
-                45,
-                46,
-                48,
-                50,
-                51,
-                53,
-                54,
-                56,
-                58,
-                59,
-                61,
-                62
-        };
-
-        //TODO: How were these calculated?
-        private static int[] insignificantDigitsNumber = {
-                0, 0, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 3,
-                4, 4, 4, 5, 5, 5, 6, 6, 6, 6, 7, 7, 7,
-                8, 8, 8, 9, 9, 9, 9, 10, 10, 10, 11, 11, 11,
-                12, 12, 12, 12, 13, 13, 13, 14, 14, 14,
-                15, 15, 15, 15, 16, 16, 16, 17, 17, 17,
-                18, 18, 18, 19
-        };
+        // Most significant digits any double needs to read back.
+        static final int MAX_DIGITS = 17;
+        // Binary exponent of the subnormals and the smallest normals.
+        private static final int Q_MIN = 1 - EXP_BIAS - EXP_SHIFT;
+        private static final long MASK_63 = Long.MAX_VALUE;
+
+        // The digits of the numbers below 144, in pairs.
+        private static final char[] DIGIT_PAIRS = new char[2 * 144];
+        // 12^6, the numbers putChunk writes.
+        private static final long CHUNK = 2_985_984;
+
+        static {
+            for (int i = 0; i < 144; i++) {
+                DIGIT_PAIRS[2 * i] = Symbols.getCharacter(i / 12);
+                DIGIT_PAIRS[2 * i + 1] = Symbols.getCharacter(i % 12);
+            }
+        }
+
+        // Longest text a value can be written as: the sign, "0.00", and 26 digits.
+        static final int MAX_CHARS = 32;
+
         private final char[] digits;
-        private final char[] buffer = new char[26];
+        private final char[] buffer = new char[MAX_CHARS];
         private boolean isNegative;
         private int dozExponent;
         private int firstDigitIndex;
         private int nDigits;
+        // Whether every digit is written out, with no exponent, as for longs.
+        private boolean inFull;
 
         BinaryToDozBuffer() {
             this.digits = new char[26];
         }
 
-        private static int insignificantDigitsForPow2(int p2) {
-            if (p2 > 1 && p2 < insignificantDigitsNumber.length) {
-                //return insignificantDigitsNumber[p2];
-            }
-            return 0; // Meaning everything is significant? (Question)
-        }
-
         String toJavaFormatString() {
             int len = getChars(buffer);
             return new String(buffer, 0, len);
         }
 
-        void setSign(boolean isNegative) {
-            this.isNegative = isNegative;
+        /**
+         * @param out - builder the text of the value is appended to.
+         * @return - the builder.
+         */
+        StringBuilder appendTo(StringBuilder out) {
+            int len = getChars(buffer);
+            return out.append(buffer, 0, len);
         }
 
         /**
-         * @param dozExponent         - expected exponent in dozenal
-         * @param lValue              - long value
-         * @param insignificantDigits - number of insignificant digits
+         * @param out - destination the text of the value is appended to.
+         * @return - the destination.
+         * @throws IOException - if the destination does.
          */
-        private void developLongDigits(int dozExponent, long lValue, int insignificantDigits) {
-            if (insignificantDigits != 0) {
-                // insignificantDigits is the number of binary digits we are going to ignore.
-                // Discard non-significant low-order bits, while rounding,
-                // up to insignificant value.
-                long pow12 = FDBigInteger.LONG_3_POW[insignificantDigits]
-                        << (insignificantDigits << 1); // 12^i == 3^i * 2^(i+1);
-                long residue = lValue % pow12;
-                lValue /= pow12;
-                dozExponent += insignificantDigits;
-                if (residue >= (pow12 >> 1)) {
-                    // round up based on the low-order bits we're discarding
-                    lValue++;
+        Appendable appendTo(Appendable out) throws IOException {
+            int len = getChars(buffer);
+            if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(buffer, 0, len);
+            } else if (out instanceof Writer) {
+                ((Writer) out).write(buffer, 0, len);
+            } else {
+                for (int i = 0; i < len; i++) {
+                    out.append(buffer[i]);
                 }
             }
-            int nDigit = digits.length - 1; // Pointer for where the next digit goes in the array
-            int c; // Place holder value for the calculation of the current digit
-            if (lValue <= Integer.MAX_VALUE) {
-                // even easier sub-case!
-                // can do int arithmetic rather than long!
-                int iValue = (int) lValue;
-                c = iValue % 12;
-                iValue /= 12;
-                while (c == 0) { // Ignoring the trailing zeros from the solution.
-                    dozExponent++;
-                    c = iValue % 12;
-                    iValue /= 12;
-                }
-                while (iValue != 0) {
-                    digits[nDigit--] = Symbols.getCharacter(c);
-                    dozExponent++;
-                    c = iValue % 12;
-                    iValue /= 12;
+            return out;
+        }
+
+        /**
+         * @param dst    - array the text of the value is copied to. It needs
+         *               room for {@link #MAX_CHARS} characters from offset.
+         * @param offset - index of the first character in the array.
+         * @return - the number of characters written.
+         */
+        int getChars(char[] dst, int offset) {
+            int len = getChars(buffer);
+            System.arraycopy(buffer, 0, dst, offset, len);
+            return len;
+        }
+
+        /**
+         * Develops the shortest digits that read back as the value, the ones
+         * nearest to it if there are several.
+         * <p>
+         * This is Schubfach (R. Giulietti, "The Schubfach way to render
+         * doubles") with twelve as the radix. The value and the ends of its
+         * rounding interval are scaled by a power of twelve with 128 bit
+         * products against {@link MathUtils}' table, so that the digits are
+         * the integers in the scaled interval, found without any
+         * {@link FDBigInteger} work. The products are rounded to odd, keeping
+         * enough of the fraction that every comparison with the integers comes
+         * out as it would exactly; the margins were checked for every binary
+         * exponent against the largest error of the table.
+         *
+         * @param d - a finite value other than zero.
+         * @return - this buffer.
+         */
+        BinaryToDozBuffer dtoz(double d) {
+            return dtoz(d, MAX_DIGITS);
+        }
+
+        /**
+         * Develops the shortest digits that read back as the value, as
+         * {@link #dtoz(double)} does, unless there are more than maxDigits of
+         * them. The value is then rounded half even to maxDigits instead.
+         * Integers below 2^53 are exact, and are always developed in full.
+         *
+         * @param d         - a finite value other than zero.
+         * @param maxDigits - most significant digits, between 1 and
+         *                  {@link #MAX_DIGITS}.
+         * @return - this buffer.
+         */
+        BinaryToDozBuffer dtoz(double d, int maxDigits) {
+            long bits = Double.doubleToRawLongBits(d);
+            isNegative = bits < 0;
+            inFull = false;
+            int bq = (int) (bits >>> EXP_SHIFT) & 0x7FF;
+            long c = bits & MANTISSA_MASK;
+            if (bq == 0) {
+                // Subnormal, the exponent is that of the smallest normals.
+                developShortestDigits(Q_MIN, c, maxDigits);
+                return this;
+            }
+            int q = bq - EXP_BIAS - EXP_SHIFT;
+            c |= HIGH_ORDER_BIT;
+            if (-EXP_SHIFT <= q && q <= 0) {
+                // An integer whose ulp is at most a half has no shorter digits.
+                long f = c >> -q;
+                if (f << -q == c) {
+                    developInteger(f);
+                    return this;
                 }
-                digits[nDigit] = Symbols.getCharacter(c);
+            }
+            developShortestDigits(q, c, maxDigits);
+            return this;
+        }
+
+        /**
+         * Develops every digit of a whole number, all of which a long holds
+         * exactly, where a double would round them from 2^53 on. They are
+         * written out in full, with no exponent, however many there are.
+         *
+         * @param value - any value other than zero.
+         * @return - this buffer.
+         */
+        BinaryToDozBuffer ltoz(long value) {
+            isNegative = value < 0;
+            inFull = true;
+            developInteger(isNegative ? -value : value);
+            return this;
+        }
+
+        /**
+         * Writes the digits six at a time with
+         * {@link #putChunk(int, char[], int)}, in place of a division for
+         * each, then leaves out the leading and trailing zeros.
+         *
+         * @param f - the magnitude, unsigned so that Long.MIN_VALUE has one.
+         */
+        private void developInteger(long f) {
+            int at = digits.length - 6;
+            // Halving first brings a magnitude of 2^63 or more within a long.
+            long q = (f >>> 1) / (CHUNK >> 1);
+            putChunk((int) (f - q * CHUNK), digits, at);
+            while (q != 0) {
+                f = q;
+                q = f / CHUNK;
+                at -= 6;
+                putChunk((int) (f - q * CHUNK), digits, at);
+            }
+            char zero = DIGIT_PAIRS[0];
+            while (digits[at] == zero) {
+                at++;
+            }
+            int end = digits.length;
+            while (digits[end - 1] == zero) {
+                end--;
+            }
+            this.firstDigitIndex = at;
+            this.nDigits = end - at;
+            this.dozExponent = digits.length - at;
+        }
+
+        /**
+         * Develops the shortest digits of c 2^q, from its rounding interval.
+         *
+         * @param q         - binary exponent, at least {@link #Q_MIN}.
+         * @param c         - significand, below 2^53, and at least 2^52 unless
+         *                  q is {@link #Q_MIN}.
+         * @param maxDigits - most significant digits, rounding to them if the
+         *                  shortest are more.
+         */
+        private void developShortestDigits(int q, long c, int maxDigits) {
+            // Scaled by 4, the interval runs from cbl to cbr around cb. It is
+            // closed when c is even, as ties read back to the even significand.
+            int out = (int) c & 1;
+            long cb = c << 2;
+            long cbr = cb + 2;
+            long cbl;
+            int k;
+            if (c != HIGH_ORDER_BIT || q == Q_MIN) {
+                cbl = cb - 2;
+                k = MathUtils.flog12pow2(q);
             } else {
-                // same algorithm as above (same bugs, too )
-                // but using long arithmetic.
-                c = (int) (lValue % 12L);
-                lValue /= 12L;
-                while (c == 0) { // Ignoring the trailing zeros from the solution.
-                    dozExponent++;
-                    c = (int) (lValue % 12L);
-                    lValue /= 12L;
-                }
-                while (lValue != 0L) {
-                    digits[nDigit--] = Symbols.getCharacter(c);
-                    dozExponent++;
-                    c = (int) (lValue % 12L);
-                    lValue /= 12;
-                }
-                digits[nDigit] = Symbols.getCharacter(c);
+                // Below a power of two the gap to the next double down is halved.
+                cbl = cb - 1;
+                k = MathUtils.flog12threeQuartersPow2(q);
             }
-            this.dozExponent = dozExponent + 1;
-            // Variable is being re-purposed as a counter of non fractional numbers...
-            this.firstDigitIndex = nDigit;
-            this.nDigits = this.digits.length - nDigit;
-        }
-
-        Boolean doubleToDoz(int binExp, long mantissa, int numOfSignificantBits) {
-            final int tailZeros = Long.numberOfTrailingZeros(mantissa);
-            final int numOfMantissaBits = DoubleConstants.EXP_SHIFT + 1 - tailZeros;
-
-            boolean exactDecimalConversion;
-
-            // The number of bits in the mantissa that represent fractional digitType. (>0 but <1)
-            int fractionalBits = Math.max(0, numOfMantissaBits - binExp - 1);
-
-            // Can it be represented in a long?
-            if (binExp <= MAX_SMALL_EXP && binExp >= MIN_SMALL_EXP) {
-                // If it is a whole number:
-                if (fractionalBits == 0) {
-                    int insignificant;
-                    if (binExp > numOfSignificantBits) {
-                        insignificant = insignificantDigitsForPow2(binExp - numOfSignificantBits - 1);
-                    } else {
-                        insignificant = 0;
-                    }
-                    if (binExp >= EXP_SHIFT) {
-                        mantissa <<= (binExp - EXP_SHIFT);
-                    } else {
-                        mantissa >>>= (EXP_SHIFT - binExp);
-                    }
-                    developLongDigits(0, mantissa, insignificant);
-                    return true;
+            // vb, vbl and vbr are cb, cbl and cbr times 2^q 12^-k, rounded to
+            // odd. The interval is then between 1 and 12 units long, so holds
+            // at most one multiple of 12 and at least one integer.
+            int h = q + MathUtils.flog2pow12(-k) + 2;
+            long g1 = MathUtils.g1(k);
+            long g0 = MathUtils.g0(k);
+            long cp = cb << h;
+            // g cp = pt 2^127 + pm 2^64 + pl, with pm below 2^63. The ends differ
+            // from it by g (cb - cbl) 2^h and g (cbr - cb) 2^h, which take no
+            // further products.
+            long x0 = g0 * cp;
+            long y0 = g1 * cp;
+            long pl = x0 + (y0 << 63);
+            long pm = (y0 >>> 1) + MathUtils.multiplyHigh(g0, cp) + (unsignedLess(pl, x0) ? 1 : 0);
+            long pt = MathUtils.multiplyHigh(g1, cp) + (pm >>> 63);
+            pm &= MASK_63;
+            long vb = rop(pt, pm, pl, cp);
+            long vbl = ropBelow(pt, pm, pl, g1, g0, cb - cbl == 1 ? h : h + 1, cbl << h);
+            long vbr = ropAbove(pt, pm, pl, g1, g0, h + 1, cbr << h);
+
+            long s = vb >> 2;
+            long f;
+            long sp12 = 12 * (s / 12);
+            long tp12 = sp12 + 12;
+            long t = s + 1;
+            // One digit fewer, if a multiple of 12 is in the interval.
+            boolean upin = s >= 12 && vbl + out <= sp12 << 2;
+            boolean wpin = s >= 12 && (tp12 << 2) + out <= vbr;
+            if (upin != wpin) {
+                f = upin ? sp12 : tp12;
+            } else {
+                // Otherwise the nearer of the integers either side, the even one on a tie.
+                boolean uin = vbl + out <= s << 2;
+                boolean win = (t << 2) + out <= vbr;
+                if (uin != win) {
+                    f = uin ? s : t;
+                } else {
+                    long cmp = vb - (s + t << 1);
+                    f = cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t;
                 }
-                // So its not a whole number, time to do some hard work.
             }
-            // We need to calculate the large positive integers B,S, and dozExp
-            // such that:
-            //      d = (B / S) * 12^dozExp
-            //      1 <= B / S < 12
-            // To do this:
-            //      dozExp = floor( log12(d) )
-            //      B = d * 2^numOfFractionalBits * 12^max(0, -dozExp)
-            //          = d * 2^numOfFractionalBits * 2^max(0, -dozExp) * 6^max(0, -dozExp)
-            //          = d * 2^(numberOfFractionalBits + max(0, -dozExp)) * 6^max(0, -dozExp)
-            //      S = 12^max(0, dozExp) * 2^numberOfFractionalBits
-            //          = 2^(numberOfFractionalBits + max(0, dozExp)) * 6^max(0, dozExp)
-
-            int dozExp = estimateDozExp(mantissa, binExp);
-            int B2, B3;
-            int S2, S3;
-            int M2, M3;
-
-            B3 = Math.max(0, -dozExp);
-            B2 = 2 * B3 + fractionalBits + binExp;
-
-            S3 = Math.max(0, dozExp);
-            S2 = 2 * S3 + fractionalBits;
-
-            M3 = B3;
-            M2 = B2 - numOfSignificantBits;
-            //M2 = B2;
-
-            //
-
-            mantissa >>>= tailZeros;
-            B2 -= numOfMantissaBits - 1;
-            int common2Factor = Math.min(B2, S2);
-            B2 -= common2Factor;
-            S2 -= common2Factor;
-            M2 -= common2Factor;
-
-            //
-
-            if (numOfMantissaBits == 1) {
-                M2 -= 1;
+            int e = k;
+            int zeros = trailingZeros(f);
+            if (zeros != 0) {
+                f /= pow12(zeros);
+                e += zeros;
             }
-
-            if (M2 < 0) {
-                B2 -= M2;
-                S2 -= M2;
-                M2 = 0;
+            if (f >= pow12(maxDigits)) {
+                // Too many digits, so round s and the fraction vb keeps of the
+                // scaled value instead. vb & 3 is 0 with no fraction, 2 with a
+                // half and otherwise odd.
+                int n = maxDigits + 1;
+                while (s >= pow12(n)) {
+                    n++;
+                }
+                long p = pow12(n - maxDigits);
+                f = s / p;
+                long r = s - f * p;
+                e = k + n - maxDigits;
+                long half = p >> 1;
+                if (r > half || r == half && ((vb & 3) != 0 || (f & 1) != 0)) {
+                    f++;
+                }
+                developDigits(f, e);
+                return;
             }
+            writeDigits(f, e);
+        }
 
-            //
-
-            int nDigit = 0;
-            boolean low, high;
-            long lowDigitDifference;
-            int q;
-
-            int BBits = numOfMantissaBits + B2 + ((B3 < N_3_BITS.length) ? N_3_BITS[B3] : B3 * 3);
-
-            int twelveSBits = S2 + 1 + ((S3 + 1 < N_3_BITS.length) ? N_3_BITS[S3 + 1] : (S3 + 1) * 3);
-            if (BBits < 64 && twelveSBits < 64) {
-                if (BBits < 32 && twelveSBits < 32) {
-                    // Can use ints
-                    int b = ((int) mantissa * FDBigInteger.SMALL_3_POW[B3]) << B2;
-                    int s = FDBigInteger.SMALL_3_POW[S3] << S2;
-                    int m = FDBigInteger.SMALL_3_POW[M3] << M2;
-                    int twelves = s * 12;
-
-                    //
-
-                    q = b / s;
-                    b = 12 * (b % s);
-                    m *= 12;
-                    low = b < m;
-                    high = (b + m) > twelves;
-                    if (q == 0 && !high) {
-                        dozExp--;
-                    } else {
-                        digits[nDigit++] = Symbols.getCharacter(q);
-                    }
+        /**
+         * @param n - exponent, between 0 and {@link #MAX_DIGITS}.
+         * @return - 12^n.
+         */
+        private static long pow12(int n) {
+            return FDBigInteger.LONG_3_POW[n] << (n << 1);
+        }
 
-                    //
+        /**
+         * Rounds p 2^-127 to odd, for p = pt 2^127 + pm 2^64 + pl the product of
+         * cp and some g that approximates a power of twelve from above by less
+         * than one unit.
+         * <p>
+         * The error of g adds less than cp to p, so the result is odd only if
+         * the fraction exceeds that. Checking all 127 bits of it, rather than
+         * the top 63, matters: there are values whose scaled fraction is below
+         * 2^-63.
+         */
+        private static long rop(long pt, long pm, long pl, long cp) {
+            return pm != 0 || unsignedLess(cp, pl) ? pt | 1 : pt;
+        }
 
-                    if (dozExp < -3 || dozExp > 8) {
-                        high = low = false;
-                    }
-                    while (!low && !high) {
-                        q = b / s;
-                        b = 12 * (b % s);
-                        m *= 12;
-                        if (m > 0L) {
-                            low = (b < m);
-                            high = (b + m > twelves);
-                        } else {
-                            // hack -- m might overflow!
-                            // in this case, it is certainly > b,
-                            // which won't
-                            // and b+m > tens, too, since that has overflowed
-                            // either!
-                            low = true;
-                            high = true;
-                        }
-                        digits[nDigit++] = Symbols.getCharacter(q);
-                    }
-                    lowDigitDifference = (b << 1) - twelves;
-                    exactDecimalConversion = (b == 0);
-                } else {
-                    // Can use longs
-                    long b = (mantissa * FDBigInteger.LONG_3_POW[B3]) << B2;
-                    long s = FDBigInteger.LONG_3_POW[S3] << S2;
-                    long m = FDBigInteger.LONG_3_POW[M3] << M2;
-                    long twelves = s * 12L;
-
-                    //
-
-                    q = (int) (b / s);
-                    b = 12L * (b % s);
-                    m *= 12L;
-                    low = b < m;
-                    high = (b + m) > twelves;
-                    if (q == 0 && !high) {
-                        dozExp--;
-                    } else {
-                        digits[nDigit++] = Symbols.getCharacter(q);
-                    }
+        /**
+         * Rounds (p + g 2^n) 2^-127 to odd, for p as {@link #rop} takes it,
+         * g = g1 2^63 + g0 and cp the multiplier of the sum.
+         */
+        private static long ropAbove(long pt, long pm, long pl, long g1, long g0, int n,
+                                     long cp) {
+            long dl = g0 << n;
+            long dm = (g1 << n - 1 | g0 >>> 64 - n) & MASK_63;
+            long l = pl + dl;
+            long m = pm + dm + (unsignedLess(l, dl) ? 1 : 0);
+            return rop(pt + (g1 >>> 64 - n) + (m >>> 63), m & MASK_63, l, cp);
+        }
 
-                    //
+        /**
+         * Rounds (p - g 2^n) 2^-127 to odd, as {@link #ropAbove} does the sum.
+         */
+        private static long ropBelow(long pt, long pm, long pl, long g1, long g0, int n,
+                                     long cp) {
+            long dl = g0 << n;
+            long dm = (g1 << n - 1 | g0 >>> 64 - n) & MASK_63;
+            long l = pl - dl;
+            long m = pm - dm - (unsignedLess(pl, dl) ? 1 : 0);
+            return rop(pt - (g1 >>> 64 - n) + (m >> 63), m & MASK_63, l, cp);
+        }
 
-                    if (dozExp < -3 || dozExp > 8) {
-                        high = low = false;
-                    }
-                    while (!low && !high) {
-                        q = (int) (b / s);
-                        b = 12L * (b % s);
-                        m *= 12L;
-                        if (m > 0L) {
-                            low = (b < m);
-                            high = (b + m > twelves);
-                        } else {
-                            // hack -- m might overflow!
-                            // in this case, it is certainly > b,
-                            // which won't
-                            // and b+m > tens, too, since that has overflowed
-                            // either!
-                            low = true;
-                            high = true;
-                        }
-                        digits[nDigit++] = Symbols.getCharacter(q);
-                    }
-                    lowDigitDifference = (b << 1) - twelves;
-                    exactDecimalConversion = (b == 0);
-                }
-            } else {
-                FDBigInteger SVal = FDBigInteger.valueOfPow32(S3, S2);
-                int shiftBias = SVal.getNormalizationBias();
-                SVal = SVal.leftShift(shiftBias);
+        private static boolean unsignedLess(long a, long b) {
+            return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE);
+        }
 
-                FDBigInteger BVal = FDBigInteger.valueOfMulPow32(mantissa, B3, B2 + shiftBias);
-                FDBigInteger MVal = FDBigInteger.valueOfPow32(M3 + 1, M2 + shiftBias + 1);
-                FDBigInteger twelveSVal = FDBigInteger.valueOfPow32(S3 + 1, S2 + shiftBias + 1); //SVal.mult( 12 );
+        /**
+         * @param f - digits of the value, as an integer above zero.
+         * @param e - power of twelve f is scaled by.
+         */
+        private void developDigits(long f, int e) {
+            int zeros = trailingZeros(f);
+            if (zeros != 0) {
+                f /= pow12(zeros);
+                e += zeros;
+            }
+            writeDigits(f, e);
+        }
 
-                q = BVal.quoRemIteration(SVal);
-                low = (BVal.cmp(MVal) < 0);
-                high = twelveSVal.addAndCmp(BVal, MVal) <= 0;
+        /**
+         * @param f - digits of the value, as an integer above zero without
+         *          trailing zeros.
+         * @param e - power of twelve f is scaled by.
+         */
+        private void writeDigits(long f, int e) {
+            int i = digits.length;
+            do {
+                digits[--i] = Symbols.getCharacter((int) (f % 12));
+                f /= 12;
+            } while (f != 0);
+            this.firstDigitIndex = i;
+            this.nDigits = digits.length - i;
+            this.dozExponent = nDigits + e;
+        }
 
-                if ((q == 0) && !high) {
-                    // oops. Usually ignore leading zero.
-                    dozExp--;
-                } else {
-                    digits[nDigit++] = Symbols.getCharacter(q);
-                }
-                //
-                // HACK! Java spec sez that we always have at least
-                // one digit after the . in either F- or E-form output.
-                // Thus we will need more than one digit if we're using
-                // E-form
-                //
-                if (dozExp < -3 || dozExp >= 8) {
-                    high = low = false;
-                }
-                while (!low && !high) {
-                    q = BVal.quoRemIteration(SVal);
-                    MVal = MVal.multBy12(); //MVal = MVal.mult( 10 );
-                    low = (BVal.cmp(MVal) < 0);
-                    high = twelveSVal.addAndCmp(BVal, MVal) <= 0;
-                    digits[nDigit++] = Symbols.getCharacter(q);
+        /**
+         * @param f - an integer above zero.
+         * @return - the number of zeros f ends with in dozenal, found eight,
+         * four, two and one at a time.
+         */
+        private static int trailingZeros(long f) {
+            int zeros = 0;
+            if (f % 144 == 0) {
+                while (f % 429_981_696 == 0) {
+                    f /= 429_981_696;
+                    zeros += 8;
                 }
-                if (high && low) {
-                    BVal = BVal.leftShift(1);
-                    lowDigitDifference = BVal.cmp(twelveSVal);
-                } else {
-                    lowDigitDifference = 0L; // this here only for flow analysis!
+                if (f % 20_736 == 0) {
+                    f /= 20_736;
+                    zeros += 4;
                 }
-                exactDecimalConversion = (BVal.cmp(FDBigInteger.ZERO) == 0);
-            }
-            this.dozExponent = dozExp + 1;
-            this.firstDigitIndex = 0;
-            this.nDigits = nDigit;
-
-            if (high) {
-                if (low) {
-                    if (lowDigitDifference == 0L) {
-                        // it's a tie!
-                        // choose based on which digits we like.
-                        if ((digits[firstDigitIndex + nDigits - 1] & 1) != 0) {
-                            roundup();
-                        }
-                    } else if (lowDigitDifference > 0) {
-                        roundup();
-                    }
-                } else {
-                    roundup();
+                if (f % 144 == 0) {
+                    f /= 144;
+                    zeros += 2;
                 }
             }
-            return exactDecimalConversion;
-        }
-
-        private void roundup() {
-            int i = (firstDigitIndex + nDigits - 1);
-            int q = digits[i];
-            if (q == Symbols.getCharacter(11)) {
-                while (q == Symbols.getCharacter(11) && i > firstDigitIndex) {
-                    digits[i] = Symbols.getCharacter(0);
-                    q = digits[--i];
-                }
-                if (q == Symbols.getCharacter(11)) {
-                    // carryout! High-order 1, rest 0s, larger exp.
-                    dozExponent += 1;
-                    digits[firstDigitIndex] = Symbols.getCharacter(1);
-                    return;
-                }
-                // else fall through.
+            if (f % 12 == 0) {
+                zeros++;
             }
-            digits[i] = Symbols.getCharacter(q - 47); // 0 is 48 in ascii so its really q+1
+            return zeros;
         }
 
         /**
-         * So the java source code in FloatingDecimal.java explains the estimation
-         * method using a formula and then changes the numbers in the actual code
-         * without any explanation. 1/1.5 = 0.666, not 0.289529654.
-         *
-         * <Note> Found where they got that number from. It's not included in the
-         * comments but it comes from "How to Print Floating-Point Numbers Accurate"
-         * by Steel and White (1990). The actual formula used is:
-         * log10(d2) = log10(1.5) + (d2 - 1.5)/(1.5 * log10(1.5))
-         * </Note>
-         * <p>
-         * I am going to estimate the exponent by taking the function:
-         * y = log12(x)
-         * and draw a linear line passing through the points at the x digitType
-         * 1.5(1.3 in base 12) and 2.1(1.9 in base 12). (25% and 75% across 1.2 and
-         * 2.4). It should be a much better approximation than what Steel and White
-         * were using.
-         * <p>
-         * Scale the mantissa bits such that 1.2 <= d2 <= 2.4.
-         * Then estimate that:
-         * log12(d2) ~=~ 0.2256773151*d2 - 0.1753448096
-         * and so we can estimate:
-         * log12(d) ~=~ log12(d2) + binExp * log12(2)
-         *
-         * @param mantissa - double float mantissa
-         * @param binExp   - binary exponent
-         * @return - the floor of d (represents the doz exponent)
+         * @param chunk - six digits, as a number below 12^6.
+         * @param dst   - array to write them to.
+         * @param at    - where the first of them goes.
          */
-        private int estimateDozExp(long mantissa, int binExp) {
-            double d2 = Double.longBitsToDouble(EXP_ONE | (mantissa & MANTISSA_MASK));
-            // turns the mantissa into a double with the exponent of one.
-            double d = 0.2256773151 * d2 - 0.1753448096 + (double) binExp * 0.2789429457;
-            long dBits = Double.doubleToRawLongBits(d);
-            int exponent = (int) ((dBits & EXP_MASK) >> EXP_SHIFT) - EXP_BIAS;
-            boolean isNegative = (dBits & SIGN_MASK) != 0;
-            if (exponent >= 0 && exponent < 52) {
-                long mask = MANTISSA_MASK >> exponent;
-                int r = (int) (((dBits & MANTISSA_MASK) | HIGH_ORDER_BIT) >> (EXP_SHIFT - exponent));
-                return isNegative ? (((mask & dBits) == 0L) ? -r : -r - 1) : r;
-            } else if (exponent < 0) {
-                return (((dBits & ~SIGN_MASK) == 0) ? 0 : (isNegative ? -1 : 0));
-            } else { //exponent >= 52
-                return (int) d;
-            }
+        static void putChunk(int chunk, char[] dst, int at) {
+            int pair = 2 * (chunk / (144 * 144));
+            dst[at] = DIGIT_PAIRS[pair];
+            dst[at + 1] = DIGIT_PAIRS[pair + 1];
+            pair = 2 * (chunk / 144 % 144);
+            dst[at + 2] = DIGIT_PAIRS[pair];
+            dst[at + 3] = DIGIT_PAIRS[pair + 1];
+            pair = 2 * (chunk % 144);
+            dst[at + 4] = DIGIT_PAIRS[pair];
+            dst[at + 5] = DIGIT_PAIRS[pair + 1];
         }
 
         private int getChars(char[] result) {
@@ -514,7 +476,7 @@ class FloatingDozenal {
                 result[0] = '-';
                 i = 1;
             }
-            if (dozExponent > 0 && dozExponent < 9) {
+            if (inFull || dozExponent > 0 && dozExponent < 9) {
                 if (dozExponent == nDigits) {
                     System.arraycopy(digits, firstDigitIndex, result, i, dozExponent);
                     i += dozExponent;
@@ -574,6 +536,185 @@ class FloatingDozenal {
             return i;
         }
     }
+
+    /**
+     * Converts a dozenal numeral to the nearest double, rounding half to even
+     * the way {@link Double#parseDouble(String)} does for decimal numerals.
+     * <p>
+     * Short numerals whose significand and power of twelve are both exact as
+     * doubles are converted with a single rounding operation. Everything else
+     * starts from an estimate that is corrected one ulp at a time, comparing
+     * the numeral against the candidate and its neighbours exactly with
+     * {@link FDBigInteger}s.
+     */
+    static class DozToBinaryBuffer {
+        // Digits beyond this many can only decide ties. The halfway point
+        // between two doubles never needs more than 282 significant digits.
+        private static final int MAX_NDIGITS = 320;
+        // Dozenal exponents beyond these are infinity and zero whatever the digits.
+        private static final int MAX_DOZ_EXP = 286;
+        private static final int MIN_DOZ_EXP = -299;
+        // Numerals of at most this many digits fit in a long.
+        private static final int MAX_LONG_DIGITS = 17;
+        private static final long MAX_EXACT_LONG = 1L << 53;
+        private static final int MIN_BIN_EXP = 1 - EXP_BIAS - EXP_SHIFT;
+        // Powers of twelve that are exact as doubles, 12^33 = 3^33 * 2^66 being the last.
+        private static final double[] SMALL_12_POW = new double[34];
+
+        static {
+            SMALL_12_POW[0] = 1.0;
+            for (int i = 1; i < SMALL_12_POW.length; i++) {
+                SMALL_12_POW[i] = SMALL_12_POW[i - 1] * 12;
+            }
+        }
+
+        private final int[] digits;
+        private final int nDigits;
+        private final int pointIndex;
+
+        /**
+         * @param digits     - digit values, 0 to 11, most significant first.
+         * @param nDigits    - number of digits to use.
+         * @param pointIndex - number of digits before the point.
+         */
+        DozToBinaryBuffer(int[] digits, int nDigits, int pointIndex) {
+            this.digits = digits;
+            this.nDigits = nDigits;
+            this.pointIndex = pointIndex;
+        }
+
+        /**
+         * @return - the double nearest to the numeral.
+         */
+        double doubleValue() {
+            int first = 0;
+            while (first < nDigits && digits[first] == 0) {
+                first++;
+            }
+            int last = nDigits;
+            while (last > first && digits[last - 1] == 0) {
+                last--;
+            }
+            if (first == last) {
+                return 0.0;
+            }
+            // The value is 0.ddd * 12^dozExp with no leading or trailing zeros.
+            int dozExp = pointIndex - first;
+            if (dozExp > MAX_DOZ_EXP) {
+                return Double.POSITIVE_INFINITY;
+            } else if (dozExp < MIN_DOZ_EXP) {
+                return 0.0;
+            }
+            int[] significand = digits;
+            int nSignificant = last - first;
+            if (nSignificant > MAX_NDIGITS) {
+                // Keep a sticky 1 in place of the rest, which is not all zeros.
+                significand = Arrays.copyOfRange(digits, first, first + MAX_NDIGITS + 1);
+                significand[MAX_NDIGITS] = 1;
+                first = 0;
+                nSignificant = MAX_NDIGITS + 1;
+            }
+            // From here on the value is M * 12^exp for the integer M of the digits.
+            int exp = dozExp - nSignificant;
+            int kDigits = Math.min(nSignificant, MAX_LONG_DIGITS);
+            long lValue = 0;
+            for (int i = first; i < first + kDigits; i++) {
+                lValue = 12 * lValue + significand[i];
+            }
+            if (kDigits == nSignificant && lValue < MAX_EXACT_LONG) {
+                if (exp == 0) {
+                    return (double) lValue;
+                } else if (exp > 0 && exp < SMALL_12_POW.length) {
+                    return lValue * SMALL_12_POW[exp];
+                } else if (exp < 0 && -exp < SMALL_12_POW.length) {
+                    return lValue / SMALL_12_POW[-exp];
+                }
+            }
+            double dValue = scaleByPow12(lValue, exp + nSignificant - kDigits);
+            FDBigInteger bigD = new FDBigInteger(lValue, significand, first + kDigits,
+                    first + nSignificant);
+            return correct(dValue, bigD, exp);
+        }
+
+        /**
+         * @return - an estimate, within a few ulps, of value * 12^exp, kept
+         * between the smallest and largest positive doubles.
+         */
+        private static double scaleByPow12(long value, int exp) {
+            double dValue = (double) value;
+            int step = SMALL_12_POW.length - 1;
+            // Scale towards 1 first so that no intermediate overflows early.
+            while (exp > 0) {
+                int e = Math.min(exp, step);
+                dValue *= SMALL_12_POW[e];
+                exp -= e;
+            }
+            while (exp < 0) {
+                int e = Math.min(-exp, step);
+                dValue /= SMALL_12_POW[e];
+                exp += e;
+            }
+            if (dValue == Double.POSITIVE_INFINITY) {
+                return Double.MAX_VALUE;
+            } else if (dValue == 0.0) {
+                return Double.MIN_VALUE;
+            }
+            return dValue;
+        }
+
+        /**
+         * Moves an estimate one ulp at a time until it is the nearest double to
+         * bigD * 12^exp. Both sides are scaled by a common 3^t3 * 2^t2 so that
+         * the numeral, the estimate and half an ulp of it are all integers.
+         *
+         * @param dValue - estimate, a positive finite double.
+         * @param bigD   - the digits of the numeral as an integer.
+         * @param exp    - the power of twelve it is multiplied by.
+         */
+        private static double correct(double dValue, FDBigInteger bigD, int exp) {
+            bigD.makeImmutable();
+            int t3 = Math.max(0, -exp);
+            while (true) {
+                long bits = Double.doubleToRawLongBits(dValue);
+                int binExp = (int) (bits >>> EXP_SHIFT);
+                long bigBbits = bits & MANTISSA_MASK;
+                if (binExp > 0) {
+                    bigBbits |= HIGH_ORDER_BIT;
+                } else {
+                    binExp++; // subnormal
+                }
+                binExp -= EXP_BIAS + EXP_SHIFT;
+                // dValue = bigBbits * 2^binExp. Two bits to spare for a quarter ulp.
+                int low2 = Math.min(2 * exp, binExp - 2);
+                FDBigInteger scaledD = bigD.multByPow32(exp + t3, 2 * exp - low2);
+                FDBigInteger scaledB = FDBigInteger.valueOfMulPow32(bigBbits, t3, binExp - low2);
+                int cmp = scaledB.cmp(scaledD);
+                if (cmp == 0) {
+                    return dValue;
+                }
+                FDBigInteger diff = cmp > 0 ? scaledB.subtract(scaledD) : scaledD.subtract(scaledB);
+                // Below a power of two the next double down is only half an ulp away.
+                boolean narrow = cmp > 0 && bigBbits == HIGH_ORDER_BIT && binExp > MIN_BIN_EXP;
+                FDBigInteger half = FDBigInteger.valueOfPow32(t3,
+                        binExp - low2 - (narrow ? 2 : 1));
+                int halfCmp = diff.cmp(half);
+                if (halfCmp < 0 || (halfCmp == 0 && (bigBbits & 1) == 0)) {
+                    return dValue;
+                }
+                if (cmp > 0) {
+                    if (dValue == Double.MIN_VALUE) {
+                        return 0.0;
+                    }
+                    dValue = Math.nextDown(dValue);
+                } else {
+                    if (dValue == Double.MAX_VALUE) {
+                        return Double.POSITIVE_INFINITY;
+                    }
+                    dValue = Math.nextUp(dValue);
+                }
+            }
+        }
+    }
 }
 
 /**
@@ -668,34 +809,21 @@ class FDBigInteger {
     static final FDBigInteger ZERO = new FDBigInteger(new int[0], 0);
     // Maximum size of cache of powers of 3 as FDBigIntegers.
     private static final int MAX_THREE_POW = 340;
-    // Cache of big powers of 5 as FDBigIntegers.
-    private static final FDBigInteger[] POW_3_CACHE;
+    // Powers of 3 are cached in chunks of this many, each built when first needed.
+    private static final int THREE_POW_CHUNK = 20;
+    // Cache of big powers of 3 as FDBigIntegers, by chunk.
+    private static final AtomicReferenceArray<FDBigInteger[]> POW_3_CACHE =
+            new AtomicReferenceArray<>(MAX_THREE_POW / THREE_POW_CHUNK);
     // Constant for casting an int to a long via bitwise AND.
     private final static long LONG_MASK = 0xffffffffL;
+    // Words in both factors from which multiplication splits them, Karatsuba's way.
+    private static final int KARATSUBA_THRESHOLD = 40;
 
     // Ensure ZERO is immutable.
     static {
         ZERO.makeImmutable();
     }
 
-    // Initialize FDBigInteger cache of powers of 3.
-    static {
-        POW_3_CACHE = new FDBigInteger[MAX_THREE_POW];
-        int i = 0;
-        while (i < SMALL_3_POW.length) {
-            FDBigInteger pow3 = new FDBigInteger(new int[]{SMALL_3_POW[i]}, 0);
-            pow3.makeImmutable();
-            POW_3_CACHE[i] = pow3;
-            i++;
-        }
-        FDBigInteger prev = POW_3_CACHE[i - 1];
-        while (i < MAX_THREE_POW) {
-            POW_3_CACHE[i] = prev = prev.mult(3);
-            prev.makeImmutable();
-            i++;
-        }
-    }
-
 
     private int[] data;  // value: data[0] is least significant
     private int offset;  // number of least significant zero padding ints
@@ -721,6 +849,45 @@ class FDBigInteger {
         trimLeadingZeros();
     }
 
+    /**
+     * Constructs an <code>FDBigInteger</code> from a starting value and a
+     * dozenal digit sequence.
+     *
+     * @param lValue  The starting value, the digits before <code>kDigits</code>.
+     * @param digits  The dozenal digits, 0 to 11.
+     * @param kDigits The initial index into <code>digits</code>.
+     * @param nDigits The final index into <code>digits</code>.
+     */
+    FDBigInteger(long lValue, int[] digits, int kDigits, int nDigits) {
+        int n = Math.max((nDigits - kDigits + 7) / 8 + 2, 2); // estimate size needed.
+        data = new int[n];      // allocate enough space
+        data[0] = (int) lValue;    // starting value
+        data[1] = (int) (lValue >>> 32);
+        offset = 0;
+        nWords = 2;
+        int i = kDigits;
+        int limit = nDigits - 8;       // slurp digits 8 at a time, 12^8 fits an int.
+        int v;
+        while (i < limit) {
+            int ilim = i + 8;
+            v = digits[i++];
+            while (i < ilim) {
+                v = 12 * v + digits[i++];
+            }
+            multAddMe(429981696, v); // 12^8
+        }
+        int factor = 1;
+        v = 0;
+        while (i < nDigits) {
+            v = 12 * v + digits[i++];
+            factor *= 12;
+        }
+        if (factor != 1) {
+            multAddMe(factor, v);
+        }
+        trimLeadingZeros();
+    }
+
     /**
      * Returns an <code>FDBigInteger</code> with the numerical value
      * <code>3<sup>p3</sup> * 2<sup>p2</sup></code>.
@@ -856,15 +1023,157 @@ class FDBigInteger {
      * @param dst   The product array.
      */
     private static void mult(int[] s1, int s1Len, int[] s2, int s2Len, int[] dst) {
-        for (int i = 0; i < s1Len; i++) {
-            long v = s1[i] & LONG_MASK;
-            long p = 0L;
-            for (int j = 0; j < s2Len; j++) {
-                p += (dst[i + j] & LONG_MASK) + v * (s2[j] & LONG_MASK);
-                dst[i + j] = (int) p;
-                p >>>= 32;
+        if (s1Len >= s2Len) {
+            mult(s1, 0, s1Len, s2, 0, s2Len, dst, 0);
+        } else {
+            mult(s2, 0, s2Len, s1, 0, s1Len, dst, 0);
+        }
+    }
+
+    /**
+     * Multiplies two ranges of int arrays into a third, which is overwritten.
+     * Factors of at least <code>KARATSUBA_THRESHOLD</code> words each are
+     * split in halves, <code>x = x1 B + x0</code> and
+     * <code>y = y1 B + y0</code>, and multiplied with three products instead
+     * of four:
+     * <pre>
+     * x y = x1 y1 B<sup>2</sup> + ((x0 + x1)(y0 + y1) - x0 y0 - x1 y1) B + x0 y0
+     * </pre>
+     * When <code>y</code> is no longer than a half of <code>x</code>, the
+     * halves of <code>x</code> are multiplied by it separately instead.
+     *
+     * @param x    The longer factor.
+     * @param xOff The index of its least significant word.
+     * @param xLen Its number of words, at least <code>yLen</code>.
+     * @param y    The shorter factor.
+     * @param yOff The index of its least significant word.
+     * @param yLen Its number of words.
+     * @param z    The product array, with room for <code>xLen + yLen</code>
+     *             words from <code>zOff</code>.
+     * @param zOff The index the least significant word of the product goes to.
+     */
+    private static void mult(int[] x, int xOff, int xLen, int[] y, int yOff, int yLen,
+                             int[] z, int zOff) {
+        if (yLen < KARATSUBA_THRESHOLD) {
+            Arrays.fill(z, zOff, zOff + yLen, 0);
+            for (int i = 0; i < xLen; i++) {
+                long v = x[xOff + i] & LONG_MASK;
+                long p = 0L;
+                for (int j = 0; j < yLen; j++) {
+                    p += (z[zOff + i + j] & LONG_MASK) + v * (y[yOff + j] & LONG_MASK);
+                    z[zOff + i + j] = (int) p;
+                    p >>>= 32;
+                }
+                z[zOff + i + yLen] = (int) p;
+            }
+            return;
+        }
+        int half = (xLen + 1) >> 1;
+        int x1Len = xLen - half;
+        if (yLen <= half) {
+            // x0 y, then x1 y added B higher.
+            mult(x, xOff, half, y, yOff, yLen, z, zOff);
+            Arrays.fill(z, zOff + half + yLen, zOff + xLen + yLen, 0);
+            int[] t = new int[x1Len + yLen];
+            if (x1Len >= yLen) {
+                mult(x, xOff + half, x1Len, y, yOff, yLen, t, 0);
+            } else {
+                mult(y, yOff, yLen, x, xOff + half, x1Len, t, 0);
             }
-            dst[i + s2Len] = (int) p;
+            addTo(z, zOff + half, zOff + xLen + yLen, t, t.length);
+            return;
+        }
+        int y1Len = yLen - half;
+        // x0 y0 goes in the low words of z, x1 y1 in the high ones.
+        mult(x, xOff, half, y, yOff, half, z, zOff);
+        if (x1Len >= y1Len) {
+            mult(x, xOff + half, x1Len, y, yOff + half, y1Len, z, zOff + 2 * half);
+        } else {
+            mult(y, yOff + half, y1Len, x, xOff + half, x1Len, z, zOff + 2 * half);
+        }
+        int[] sx = new int[half + 1];
+        int[] sy = new int[half + 1];
+        addHalves(x, xOff, half, x1Len, sx);
+        addHalves(y, yOff, half, y1Len, sy);
+        int[] m = new int[2 * half + 2];
+        mult(sx, 0, half + 1, sy, 0, half + 1, m, 0);
+        // The middle term, less the two products already in z.
+        subtractFrom(m, z, zOff, 2 * half);
+        subtractFrom(m, z, zOff + 2 * half, x1Len + y1Len);
+        int mLen = m.length;
+        while (mLen > 0 && m[mLen - 1] == 0) {
+            mLen--;
+        }
+        addTo(z, zOff + half, zOff + xLen + yLen, m, mLen);
+    }
+
+    /**
+     * Adds the low and the high part of a range, <code>a0 + a1</code>.
+     *
+     * @param a     The array holding the range.
+     * @param off   The index of its least significant word.
+     * @param half  The number of words of the low part.
+     * @param a1Len The number of words of the high part, at most
+     *              <code>half</code>.
+     * @param sum   The sum array, of <code>half + 1</code> words.
+     */
+    private static void addHalves(int[] a, int off, int half, int a1Len, int[] sum) {
+        long carry = 0L;
+        for (int i = 0; i < half; i++) {
+            carry += (a[off + i] & LONG_MASK)
+                    + (i < a1Len ? a[off + half + i] & LONG_MASK : 0L);
+            sum[i] = (int) carry;
+            carry >>>= 32;
+        }
+        sum[half] = (int) carry;
+    }
+
+    /**
+     * Adds an array into a range of another, carrying up to the end of the
+     * range, which must hold the sum.
+     *
+     * @param z    The array added to.
+     * @param from The index the least significant word of the addend goes to.
+     * @param to   The end of the range.
+     * @param a    The addend.
+     * @param aLen The number of words of the addend to use.
+     */
+    private static void addTo(int[] z, int from, int to, int[] a, int aLen) {
+        long carry = 0L;
+        int i = 0;
+        for (; i < aLen; i++) {
+            carry += (z[from + i] & LONG_MASK) + (a[i] & LONG_MASK);
+            z[from + i] = (int) carry;
+            carry >>>= 32;
+        }
+        for (int j = from + i; carry != 0L && j < to; j++) {
+            carry += z[j] & LONG_MASK;
+            z[j] = (int) carry;
+            carry >>>= 32;
+        }
+    }
+
+    /**
+     * Subtracts a range of another array from an array, which must not become
+     * negative.
+     *
+     * @param m    The array subtracted from.
+     * @param a    The array holding the subtrahend.
+     * @param off  The index of its least significant word.
+     * @param len  Its number of words, at most those of <code>m</code>.
+     */
+    private static void subtractFrom(int[] m, int[] a, int off, int len) {
+        long borrow = 0L;
+        int i = 0;
+        for (; i < len; i++) {
+            borrow += (m[i] & LONG_MASK) - (a[off + i] & LONG_MASK);
+            m[i] = (int) borrow;
+            borrow >>= 32; // signed shift.
+        }
+        for (; borrow != 0L; i++) {
+            borrow += m[i] & LONG_MASK;
+            m[i] = (int) borrow;
+            borrow >>= 32;
         }
     }
 
@@ -887,25 +1196,6 @@ class FDBigInteger {
         return 0;
     }
 
-    /**
-     * Multiplies by 10 a big integer represented as an array. The final carry
-     * is returned.
-     *
-     * @param src    The array representation of the big integer.
-     * @param srcLen The number of elements of <code>src</code> to use.
-     * @param dst    The product array.
-     * @return The final carry of the multiplication.
-     */
-    private static int multAndCarryBy12(int[] src, int srcLen, int[] dst) {
-        long carry = 0;
-        for (int i = 0; i < srcLen; i++) {
-            long product = (src[i] & LONG_MASK) * 10L + carry;
-            dst[i] = (int) product;
-            carry = product >>> 32;
-        }
-        return (int) carry;
-    }
-
     /**
      * Multiplies by a constant value a big integer represented as an array.
      * The constant factor is an <code>int</code>.
@@ -963,7 +1253,12 @@ class FDBigInteger {
      */
     private static FDBigInteger big3pow(int p) {
         if (p < MAX_THREE_POW) {
-            return POW_3_CACHE[p];
+            int chunk = p / THREE_POW_CHUNK;
+            FDBigInteger[] pows = POW_3_CACHE.get(chunk);
+            if (pows == null) {
+                pows = fillPow3Chunk(chunk);
+            }
+            return pows[p - chunk * THREE_POW_CHUNK];
         }
         // construct the value.
         // recursively.
@@ -982,6 +1277,34 @@ class FDBigInteger {
         }
     }
 
+    /**
+     * Builds a chunk of the cache of powers of 3, and the chunks below it that
+     * are missing. Threads that race to build the same chunk build equal
+     * values, and all of them use the one stored first.
+     *
+     * @param chunk The index of the chunk.
+     * @return The chunk, <code>3<sup>chunk * THREE_POW_CHUNK</sup></code> first.
+     */
+    private static FDBigInteger[] fillPow3Chunk(int chunk) {
+        FDBigInteger[] pows = new FDBigInteger[THREE_POW_CHUNK];
+        if (chunk == 0) {
+            for (int i = 0; i < THREE_POW_CHUNK; i++) {
+                pows[i] = new FDBigInteger(new int[]{SMALL_3_POW[i]}, 0);
+                pows[i].makeImmutable();
+            }
+        } else {
+            FDBigInteger prev = big3pow(chunk * THREE_POW_CHUNK - 1);
+            for (int i = 0; i < THREE_POW_CHUNK; i++) {
+                pows[i] = prev = prev.mult(3);
+                prev.makeImmutable();
+            }
+        }
+        if (!POW_3_CACHE.compareAndSet(chunk, null, pows)) {
+            return POW_3_CACHE.get(chunk);
+        }
+        return pows;
+    }
+
     /**
      * Removes all leading zeros from this <code>FDBigInteger</code> adjusting
      * the offset and number of non-zero leading words accordingly.
@@ -1000,23 +1323,6 @@ class FDBigInteger {
         }
     }
 
-    /**
-     * Retrieves the normalization bias of the <code>FDBigInteger</code>. The
-     * normalization bias is a left shift such that after it the highest word
-     * of the value will have the 4 highest bits equal to zero:
-     * <code>(highestWord & 0xf0000000) == 0</code>, but the next bit should be 1
-     * <code>(highestWord & 0x08000000) != 0</code>.
-     *
-     * @return The normalization bias.
-     */
-    int getNormalizationBias() {
-        if (nWords == 0) {
-            throw new IllegalArgumentException("Zero value cannot be normalized");
-        }
-        int zeros = Integer.numberOfLeadingZeros(data[nWords - 1]);
-        return (zeros < 4) ? 28 + zeros : zeros - 4;
-    }
-
     /**
      * Shifts this <code>FDBigInteger</code> to the left. The shift is performed
      * in-place unless the <code>FDBigInteger</code> is immutable in which case
@@ -1096,118 +1402,6 @@ class FDBigInteger {
         return nWords + offset;
     }
 
-    /**
-     * Computes
-     * <pre>
-     * q = (int)( this / S )
-     * this = 10 * ( this mod S )
-     * Return q.
-     * </pre>
-     * This is the iteration step of digit development for output.
-     * We assume that S has been normalized, as above, and that
-     * "this" has been left-shifted accordingly.
-     * Also assumed, of course, is that the result, q, can be expressed
-     * as an integer, 0 <= q < 10.
-     *
-     * @param S - The divisor of this <code>FDBigInteger</code>.
-     * @return <code>q = (int)(this / S)</code>.
-     */
-    int quoRemIteration(FDBigInteger S) throws IllegalArgumentException {
-        // ensure that this and S have the same number of
-        // digits. If S is properly normalized and q < 12 then
-        // this must be so.
-        int thSize = this.size();
-        int sSize = S.size();
-        if (thSize < sSize) {
-            // this value is significantly less than S, result of division is zero.
-            // just mult this by 12.
-            int p = multAndCarryBy12(this.data, this.nWords, this.data);
-            if (p != 0) {
-                this.data[nWords++] = p;
-            } else {
-                trimLeadingZeros();
-            }
-            return 0;
-        } else if (thSize > sSize) {
-            throw new IllegalArgumentException("disparate digitType");
-        }
-        // estimate q the obvious way. We will usually be
-        // right. If not, then we're only off by a little and
-        // will re-add.
-        long q = (this.data[this.nWords - 1] & LONG_MASK) / (S.data[S.nWords - 1] & LONG_MASK);
-        long diff = multDiffMe(q, S);
-        if (diff != 0L) {
-            //@ assert q != 0;
-            //@ assert this.offset == \old(Math.min(this.offset, S.offset));
-            //@ assert this.offset <= S.offset;
-
-            // q is too big.
-            // add S back in until this turns +. This should
-            // not be very many times!
-            long sum = 0L;
-            int tStart = S.offset - this.offset;
-            //@ assert tStart >= 0;
-            int[] sd = S.data;
-            int[] td = this.data;
-            while (sum == 0L) {
-                for (int sIndex = 0, tIndex = tStart; tIndex < this.nWords; sIndex++, tIndex++) {
-                    sum += (td[tIndex] & LONG_MASK) + (sd[sIndex] & LONG_MASK);
-                    td[tIndex] = (int) sum;
-                    sum >>>= 32; // Signed or unsigned, answer is 0 or 1
-                }
-                //
-                // Originally the following line read
-                // "if ( sum !=0 && sum != -1 )"
-                // but that would be wrong, because of the
-                // treatment of the two digitType as entirely unsigned,
-                // it would be impossible for a carry-out to be interpreted
-                // as -1 -- it would have to be a single-bit carry-out, or +1.
-                //
-                q -= 1;
-            }
-        }
-        // finally, we can multiply this by 12.
-        // it cannot overflow, right, as the high-order word has
-        // at least 4 high-order zeros!
-        multAndCarryBy12(this.data, this.nWords, this.data);
-        trimLeadingZeros();
-        return (int) q;
-    }
-
-    /**
-     * Multiplies this <code>FDBigInteger</code> by 12. The operation will be
-     * performed in place unless the <code>FDBigInteger</code> is immutable in
-     * which case a new <code>FDBigInteger</code> will be returned.
-     *
-     * @return The <code>FDBigInteger</code> multiplied by 12.
-     */
-    FDBigInteger multBy12() {
-        if (nWords == 0) {
-            return this;
-        }
-        if (isImmutable) {
-            int[] res = new int[nWords + 1];
-            res[nWords] = multAndCarryBy12(data, nWords, res);
-            return new FDBigInteger(res, offset);
-        } else {
-            int p = multAndCarryBy12(this.data, this.nWords, this.data);
-            if (p != 0) {
-                if (nWords == data.length) {
-                    if (data[0] == 0) {
-                        System.arraycopy(data, 1, data, 0, --nWords);
-                        offset++;
-                    } else {
-                        data = Arrays.copyOf(data, data.length + 1);
-                    }
-                }
-                data[nWords++] = p;
-            } else {
-                trimLeadingZeros();
-            }
-            return this;
-        }
-    }
-
     /**
      * Compares the parameter with this <code>FDBigInteger</code>. Returns an
      * integer accordingly as:
@@ -1247,90 +1441,10 @@ class FDBigInteger {
         return 0;
     }
 
-    /**
-     * Compares this <code>FDBigInteger</code> with <code>x + y</code>. Returns a
-     * value according to the comparison as:
-     * <pre>
-     * -1: this <  x + y
-     *  0: this == x + y
-     *  1: this >  x + y
-     * </pre>
-     *
-     * @param x The first addend of the sum to compare.
-     * @param y The second addend of the sum to compare.
-     * @return -1, 0, or 1 according to the result of the comparison.
-     */
-    int addAndCmp(FDBigInteger x, FDBigInteger y) {
-        FDBigInteger big;
-        FDBigInteger small;
-        int xSize = x.size();
-        int ySize = y.size();
-        int bSize;
-        int sSize;
-        if (xSize >= ySize) {
-            big = x;
-            small = y;
-            bSize = xSize;
-            sSize = ySize;
-        } else {
-            big = y;
-            small = x;
-            bSize = ySize;
-            sSize = xSize;
-        }
-        int thSize = this.size();
-        if (bSize == 0) {
-            return thSize == 0 ? 0 : 1;
-        }
-        if (sSize == 0) {
-            return this.cmp(big);
-        }
-        if (bSize > thSize) {
-            return -1;
-        }
-        if (bSize + 1 < thSize) {
-            return 1;
-        }
-        long top = (big.data[big.nWords - 1] & LONG_MASK);
-        if (sSize == bSize) {
-            top += (small.data[small.nWords - 1] & LONG_MASK);
-        }
-        if ((top >>> 32) == 0) {
-            if (((top + 1) >>> 32) == 0) {
-                // good case - no carry extension
-                if (bSize < thSize) {
-                    return 1;
-                }
-                // here sum.nWords == this.nWords
-                long v = (this.data[this.nWords - 1] & LONG_MASK);
-                if (v < top) {
-                    return -1;
-                }
-                if (v > top + 1) {
-                    return 1;
-                }
-            }
-        } else { // (top>>>32)!=0 guaranteed carry extension
-            if (bSize + 1 > thSize) {
-                return -1;
-            }
-            // here sum.nWords == this.nWords
-            top >>>= 32;
-            long v = (this.data[this.nWords - 1] & LONG_MASK);
-            if (v < top) {
-                return -1;
-            }
-            if (v > top + 1) {
-                return 1;
-            }
-        }
-        return this.cmp(big.add(small));
-    }
-
     /**
      * Makes this <code>FDBigInteger</code> immutable.
      */
-    private void makeImmutable() {
+    void makeImmutable() {
         this.isImmutable = true;
     }
 
@@ -1374,90 +1488,76 @@ class FDBigInteger {
     }
 
     /**
-     * Adds another <code>FDBigInteger</code> to this <code>FDBigInteger</code>.
+     * Multiplies this <code>FDBigInteger</code> by
+     * <code>3<sup>p3</sup> * 2<sup>p2</sup></code>. This
+     * <code>FDBigInteger</code> is left unchanged.
+     *
+     * @param p3 The exponent of the power-of-three factor.
+     * @param p2 The exponent of the power-of-two factor.
+     * @return A new <code>FDBigInteger</code> holding the product.
+     */
+    FDBigInteger multByPow32(int p3, int p2) {
+        if (this.nWords == 0) {
+            return this;
+        }
+        FDBigInteger res;
+        if (p3 == 0) {
+            res = new FDBigInteger(Arrays.copyOf(data, nWords), offset);
+        } else if (p3 < SMALL_3_POW.length) {
+            res = mult(SMALL_3_POW[p3]);
+        } else {
+            res = mult(big3pow(p3));
+        }
+        return res.leftShift(p2);
+    }
+
+    /**
+     * Subtracts another <code>FDBigInteger</code> from this one, which must
+     * not be smaller. Neither is changed.
      *
-     * @param other The <code>FDBigInteger</code> to add.
-     * @return The sum of the <code>FDBigInteger</code>s.
+     * @param other The <code>FDBigInteger</code> to subtract.
+     * @return A new <code>FDBigInteger</code> holding the difference.
      */
-    private FDBigInteger add(FDBigInteger other) {
-        FDBigInteger big, small;
-        int bigLen, smallLen;
+    FDBigInteger subtract(FDBigInteger other) {
         int tSize = this.size();
         int oSize = other.size();
-        if (tSize >= oSize) {
-            big = this;
-            bigLen = tSize;
-            small = other;
-            smallLen = oSize;
-        } else {
-            big = other;
-            bigLen = oSize;
-            small = this;
-            smallLen = tSize;
+        int[] r = new int[tSize];
+        long borrow = 0L;
+        for (int i = 0; i < tSize; i++) {
+            borrow += (i < this.offset ? 0L : (this.data[i - this.offset] & LONG_MASK))
+                    - ((i < other.offset || i >= oSize) ? 0L
+                    : (other.data[i - other.offset] & LONG_MASK));
+            r[i] = (int) borrow;
+            borrow >>= 32; // signed shift.
         }
-        int[] r = new int[bigLen + 1];
-        int i = 0;
-        long carry = 0L;
-        for (; i < smallLen; i++) {
-            carry += (i < big.offset ? 0L : (big.data[i - big.offset] & LONG_MASK))
-                    + ((i < small.offset ? 0L : (small.data[i - small.offset] & LONG_MASK)));
-            r[i] = (int) carry;
-            carry >>= 32; // signed shift.
-        }
-        for (; i < bigLen; i++) {
-            carry += (i < big.offset ? 0L : (big.data[i - big.offset] & LONG_MASK));
-            r[i] = (int) carry;
-            carry >>= 32; // signed shift.
-        }
-        r[bigLen] = (int) carry;
+        assert borrow == 0L : borrow; // this >= other
         return new FDBigInteger(r, 0);
     }
 
-    // slow path
-
     /**
-     * Multiplies the parameters and subtracts them from this
-     * <code>FDBigInteger</code>.
+     * Multiplies this <code>FDBigInteger</code> by an int and adds another int
+     * in place. Only used while constructing from digits, so there is always
+     * room for the carry.
      *
-     * @param q The integer parameter.
-     * @param S The <code>FDBigInteger</code> parameter.
-     * @return <code>this - q*S</code>.
+     * @param iv     The factor.
+     * @param addend The value to add.
      */
-    private long multDiffMe(long q, FDBigInteger S) {
-        long diff = 0L;
-        if (q != 0) {
-            int deltaSize = S.offset - this.offset;
-            if (deltaSize >= 0) {
-                int[] sd = S.data;
-                int[] td = this.data;
-                for (int sIndex = 0, tIndex = deltaSize; sIndex < S.nWords; sIndex++, tIndex++) {
-                    diff += (td[tIndex] & LONG_MASK) - q * (sd[sIndex] & LONG_MASK);
-                    td[tIndex] = (int) diff;
-                    diff >>= 32; // N.B. SIGNED shift.
-                }
-            } else {
-                deltaSize = -deltaSize;
-                int[] rd = new int[nWords + deltaSize];
-                int sIndex = 0;
-                int rIndex = 0;
-                int[] sd = S.data;
-                for (; rIndex < deltaSize && sIndex < S.nWords; sIndex++, rIndex++) {
-                    diff -= q * (sd[sIndex] & LONG_MASK);
-                    rd[rIndex] = (int) diff;
-                    diff >>= 32; // N.B. SIGNED shift.
-                }
-                int tIndex = 0;
-                int[] td = this.data;
-                for (; sIndex < S.nWords; sIndex++, tIndex++, rIndex++) {
-                    diff += (td[tIndex] & LONG_MASK) - q * (sd[sIndex] & LONG_MASK);
-                    rd[rIndex] = (int) diff;
-                    diff >>= 32; // N.B. SIGNED shift.
-                }
-                this.nWords += deltaSize;
-                this.offset -= deltaSize;
-                this.data = rd;
-            }
+    private void multAddMe(int iv, int addend) {
+        long v = iv & LONG_MASK;
+        // unroll 0th iteration, doing addition.
+        long p = v * (data[0] & LONG_MASK) + (addend & LONG_MASK);
+        data[0] = (int) p;
+        p >>>= 32;
+        for (int i = 1; i < nWords; i++) {
+            p += v * (data[i] & LONG_MASK);
+            data[i] = (int) p;
+            p >>>= 32;
+        }
+        if (p != 0L) {
+            data[nWords++] = (int) p;
         }
-        return diff;
     }
+
+    // slow path
+
 }
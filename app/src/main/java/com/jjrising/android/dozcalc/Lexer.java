@@ -0,0 +1,214 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Splits the text of an expression into {@link ExpressionElement}s in a single
+ * pass over the characters.
+ * <p>
+ * Numbers are read straight into a {@link Numeral}, without a {@link Digit}
+ * per character, using {@link FloatingDozenal.DozToBinaryBuffer} so that they
+ * are rounded exactly like numbers entered digit by digit. The dozenal digits
+ * ten and eleven may be written {@code X} and {@code E} or with the glyphs the
+ * results are shown with. Whitespace between elements is skipped.
+ * <p>
+ * The names understood are the functions {@code sqrt}, {@code sin},
+ * {@code cos}, {@code tan} and {@code !}, the operators {@code C} and
+ * {@code P} for nCr and nPr, the number theory operators {@code mod},
+ * {@code gcd} and {@code lcm} and functions {@code isprime} and
+ * {@code factor}, the constants {@code pi} and {@code e}, and single lower
+ * case letters that do not start one of those names, which are variables.
+ */
+class Lexer {
+    private static final String[] OPERATOR_WORDS = {"mod", "gcd", "lcm"};
+    private static final String[] FUNCTION_WORDS = {"isprime", "factor"};
+
+    private final CharSequence text;
+    private final int length;
+    private int position = 0;
+    // Digit values of the number being read, reused for every number.
+    private int[] digits = new int[16];
+
+    private Lexer(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    /**
+     * @param text - the expression, for example {@code "2*sqrt(X.6)+pi"}.
+     * @return - its elements, in input order.
+     * @throws StringException - if the text is not made of elements. The
+     *                         exception holds the index of the offending
+     *                         character.
+     */
+    static ArrayList<ExpressionElement> tokenize(CharSequence text) throws StringException {
+        return new Lexer(text).tokenize();
+    }
+
+    private ArrayList<ExpressionElement> tokenize() throws StringException {
+        ArrayList<ExpressionElement> elements = new ArrayList<>();
+        while (position < length) {
+            char ch = text.charAt(position);
+            if (digitValue(ch) >= 0 || ch == '.') {
+                elements.add(number());
+                continue;
+            }
+            int start = position++;
+            switch (ch) {
+                case '+':
+                    elements.add(Operator.of(Operator.operator.ADD));
+                    break;
+                case '-':
+                    elements.add(Operator.of(Operator.operator.SUBTRACT));
+                    break;
+                case '*':
+                    elements.add(Operator.of(Operator.operator.MULTIPLY));
+                    break;
+                case '/':
+                    elements.add(Operator.of(Operator.operator.DIVIDE));
+                    break;
+                case '^':
+                    elements.add(Operator.of(Operator.operator.EXPONENT));
+                    break;
+                case 'C':
+                    elements.add(Operator.of(Operator.operator.COMBINATIONS));
+                    break;
+                case 'P':
+                    elements.add(Operator.of(Operator.operator.PERMUTATIONS));
+                    break;
+                case '(':
+                    elements.add(OpenParen.INSTANCE);
+                    break;
+                case ')':
+                    elements.add(CloseParen.INSTANCE);
+                    break;
+                case '!':
+                    elements.add(Function.of(Function.function.FACTORIAL));
+                    break;
+                case 's':
+                    elements.add(Function.fromString(name(start, "sqrt", "sin")));
+                    break;
+                case 'c':
+                    elements.add(Function.fromString(name(start, "cos")));
+                    break;
+                case 't':
+                    elements.add(Function.fromString(name(start, "tan")));
+                    break;
+                case 'p':
+                    elements.add(Numeral.fromString(name(start, "pi")));
+                    break;
+                case 'e':
+                    elements.add(Numeral.fromString("e"));
+                    break;
+                default:
+                    if (ch >= 'a' && ch <= 'z') {
+                        elements.add(wordOrVariable(start));
+                    } else if (!Character.isWhitespace(ch)) {
+                        throw new StringException("Unexpected '" + ch + "' at position "
+                                + start + ".", start);
+                    }
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Reads a number, digits with at most one point, starting at the current
+     * position.
+     */
+    private Numeral number() throws StringException {
+        int nDigits = 0;
+        int pointIndex = -1;
+        while (position < length) {
+            char ch = text.charAt(position);
+            int digit = digitValue(ch);
+            if (digit >= 0) {
+                if (nDigits == digits.length) {
+                    digits = Arrays.copyOf(digits, 2 * nDigits);
+                }
+                digits[nDigits++] = digit;
+            } else if (ch == '.') {
+                if (pointIndex >= 0) {
+                    throw new StringException("Illegal number format (Too many dots) at position "
+                            + position + ".", position);
+                }
+                pointIndex = nDigits;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (pointIndex < 0) {
+            pointIndex = nDigits;
+        }
+        return new Numeral(new FloatingDozenal.DozToBinaryBuffer(digits, nDigits, pointIndex)
+                .doubleValue(), Rational.fromDigits(digits, nDigits, pointIndex));
+    }
+
+    /**
+     * Matches one of the names starting with the character at {@code start}
+     * and moves past it.
+     *
+     * @return - the name matched.
+     * @throws StringException - if none of them is there.
+     */
+    private String name(int start, String... names) throws StringException {
+        for (String name : names) {
+            int end = start + name.length();
+            if (end <= length && matches(start, name)) {
+                position = end;
+                return name;
+            }
+        }
+        throw new StringException("Unknown name at position " + start + ".", start);
+    }
+
+    /**
+     * Reads one of the names of the number theory operators and functions,
+     * or failing that the single letter at {@code start} as a variable.
+     */
+    private ExpressionElement wordOrVariable(int start) throws StringException {
+        for (String word : OPERATOR_WORDS) {
+            if (matchesWord(start, word)) {
+                position = start + word.length();
+                return Operator.fromString(word);
+            }
+        }
+        for (String word : FUNCTION_WORDS) {
+            if (matchesWord(start, word)) {
+                position = start + word.length();
+                return Function.fromString(word);
+            }
+        }
+        return Variable.of(text.charAt(start));
+    }
+
+    private boolean matchesWord(int start, String word) {
+        return start + word.length() <= length && text.charAt(start) == word.charAt(0)
+                && matches(start, word);
+    }
+
+    private boolean matches(int start, String name) {
+        for (int i = 1; i < name.length(); i++) {
+            if (text.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return - the value of a dozenal digit, -1 if the character is not one.
+     */
+    static int digitValue(char ch) {
+        if (ch >= '0' && ch <= '9') {
+            return ch - '0';
+        } else if (ch == 'X' || ch == Symbols.getCharacter(10)) {
+            return 10;
+        } else if (ch == 'E' || ch == Symbols.getCharacter(11)) {
+            return 11;
+        }
+        return -1;
+    }
+}
@@ -11,6 +11,7 @@ public class MainActivity extends AppCompatActivity {
 
     private TextView mInputText, mResultText;
     private Expression mExpression;
+    private final ResultCache mResults = new ResultCache(64);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -29,28 +30,29 @@ public class MainActivity extends AppCompatActivity {
         if (input.equals("back")) {
             mExpression.back();
         } else {
-            if (input.matches("^d/.*"))
+            if (input.startsWith("d/"))
                 mExpression.add(Digit.fromTag(input));
-            else if (input.matches("^o/.*"))
+            else if (input.startsWith("o/"))
                 mExpression.add(Operator.fromTag(input));
-            else if (input.matches("^f/.*"))
+            else if (input.startsWith("f/"))
                 mExpression.add(Function.fromTag(input));
-            else if (input.matches("^special/.*"))
+            else if (input.startsWith("special/"))
                 mExpression.add(Numeral.fromTag(input));
-            else if (input.matches("^p/.*"))
-                if (input.matches("^p/\\("))
-                    mExpression.add(new OpenParen());
-                else if (input.matches("^p/\\)"))
-                    mExpression.add(new CloseParen());
+            else if (input.equals("p/("))
+                mExpression.add(OpenParen.INSTANCE);
+            else if (input.equals("p/)"))
+                mExpression.add(CloseParen.INSTANCE);
         }
         mInputText.setText(Html.fromHtml(mExpression.getText(),
                 Html.FROM_HTML_MODE_COMPACT));
+        Numeral preview = mExpression.preview();
+        mResultText.setText(preview == null ? "" : preview.toString());
     }
 
     public void runCalculation(View view) {
         String resultText;
         try {
-            resultText = mExpression.calc().toString();
+            resultText = mResults.calc(mExpression).getText();
         } catch (CalculationError e) {
             resultText = e.error;
         }
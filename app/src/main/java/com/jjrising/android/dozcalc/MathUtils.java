@@ -0,0 +1,654 @@
+package com.jjrising.android.dozcalc;
+
+/**
+ * Logarithms and 126 bit approximations of powers of twelve, for the
+ * shortest digit formatting of {@link FloatingDozenal.BinaryToDozBuffer}.
+ * <p>
+ * The layout follows the tables of Schubfach (R. Giulietti, "The Schubfach
+ * way to render doubles"), with twelve in place of ten. The logarithms are
+ * fixed point approximations that have been checked exactly over the ranges
+ * given, and the power table was generated with exact rational arithmetic.
+ */
+final class MathUtils {
+    // Range of k for which g1(k) and g0(k) are tabulated.
+    static final int K_MIN = -300;
+    static final int K_MAX = 270;
+
+    private MathUtils() {
+    }
+
+    /**
+     * @param q - exponent, in the range [-1100, 1100].
+     * @return - floor(log12(2^q)).
+     */
+    static int flog12pow2(int q) {
+        return (int) (q * 613_402_024_409L >> 41);
+    }
+
+    /**
+     * @param q - exponent, in the range [-1100, 1100].
+     * @return - floor(log12(3/4 2^q)).
+     */
+    static int flog12threeQuartersPow2(int q) {
+        return (int) (q * 613_402_024_409L - 254_584_842_084L >> 41);
+    }
+
+    /**
+     * @param k - exponent, in the range [-400, 400].
+     * @return - floor(log2(12^k)).
+     */
+    static int flog2pow12(int k) {
+        return (int) (k * 985_426_988_570L >> 38);
+    }
+
+    /**
+     * Let 12^-k = b 2^r for the unique integer r and real b with
+     * 2^125 <= b < 2^126, and let g = floor(b) + 1, so that
+     * (g - 1) 2^r <= 12^-k < g 2^r. Then g = g1 2^63 + g0 with 0 <= g0 < 2^63.
+     *
+     * @param k - exponent, in the range [K_MIN, K_MAX].
+     * @return - g1, the high 63 bits of g.
+     */
+    static long g1(int k) {
+        return g[k - K_MIN << 1];
+    }
+
+    /**
+     * @param k - exponent, in the range [K_MIN, K_MAX].
+     * @return - g0, the low 63 bits of g, as defined for {@link #g1(int)}.
+     */
+    static long g0(int k) {
+        return g[k - K_MIN << 1 | 1];
+    }
+
+    /**
+     * The high half of the 128 bit product of two signed longs, as
+     * Math.multiplyHigh computes on newer platforms than the app targets.
+     *
+     * @return - floor(x y 2^-64).
+     */
+    static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x0 = x & 0xFFFF_FFFFL;
+        long y1 = y >> 32;
+        long y0 = y & 0xFFFF_FFFFL;
+        long t = x1 * y0 + (x0 * y0 >>> 32);
+        long u = x0 * y1 + (t & 0xFFFF_FFFFL);
+        return x1 * y1 + (t >> 32) + (u >> 32);
+    }
+
+    // g1 and g0 for k from K_MIN to K_MAX, in pairs.
+    private static final long[] g = {
+            0x59CE_7FFA_42D2_EDFAL, 0x35AA_B80C_2E46_FEC4L, // -300
+            0x77BD_FFF8_5919_3D4DL, 0x7238_F565_9309_53B0L, // -299
+            0x4FD3_FFFA_E610_D389L, 0x217B_4E43_B75B_8D20L, // -298
+            0x6A6F_FFF9_32C1_1A0CL, 0x2CA4_685A_49CF_66D5L, // -297
+            0x46F5_5550_CC80_BC08L, 0x1DC2_F03C_3134_EF39L, // -296
+            0x5E9C_71C1_10AB_A560L, 0x27AE_95A5_96F1_3EF7L, // -295
+            0x7E25_ED01_6B8F_872BL, 0x0A3E_1CDC_C941_A949L, // -294
+            0x5419_48AB_9D0A_5A1CL, 0x5C29_6893_30D6_70DBL, // -293
+            0x7021_B63A_26B8_7826L, 0x258C_8B6E_EBC8_967AL, // -292
+            0x4AC1_2426_C47A_FAC4L, 0x1908_5CF4_9D30_6451L, // -291
+            0x63AC_3033_B0A3_F905L, 0x4C0B_269B_7C40_85C1L, // -290
+            0x4272_CACD_206D_50AEL, 0x32B2_19BC_FD80_592CL, // -289
+            0x5899_0E66_D5E7_163DL, 0x6E42_CCFB_FCAB_2190L, // -288
+            0x7621_6889_1D34_1DA7L, 0x6859_114F_FB8E_D76AL, // -287
+            0x4EC0_F05B_68CD_691AL, 0x4590_B635_525F_3A47L, // -286
+            0x6901_4079_E111_E178L, 0x5CC0_F2F1_C329_A309L, // -285
+            0x4600_D5A6_960B_EBA5L, 0x6880_A1F6_821B_C206L, // -284
+            0x5D56_7233_72BA_8F87L, 0x60AB_829E_02CF_AD5DL, // -283
+            0x7C73_42EF_43A3_6A0AL, 0x2B8F_58D2_AE6A_3C7CL, // -282
+            0x52F7_81F4_D7C2_46B1L, 0x47B4_E5E1_C99C_2853L, // -281
+            0x6E9F_57F1_1FAD_B397L, 0x34F1_3282_6225_8B19L, // -280
+            0x49BF_8FF6_151E_77BAL, 0x234B_7701_96C3_B211L, // -279
+            0x6254_BFF2_C6D3_4A4DL, 0x59B9_F402_1E5A_42C1L, // -278
+            0x418D_D54C_848C_DC33L, 0x667B_F801_6991_81D6L, // -277
+            0x5767_C710_B0BB_D045L, 0x08A5_4AAC_8CC2_0273L, // -276
+            0x748A_5EC0_EBA5_15B1L, 0x3631_B8E6_1102_ADEEL, // -275
+            0x4DB1_9480_9D18_B920L, 0x7976_7B44_0B57_1E9FL, // -274
+            0x6797_70AB_7C20_F6D6L, 0x4C9D_F9B0_0F1E_D37FL, // -273
+            0x450F_A072_52C0_A48FL, 0x0869_5120_0A14_8CFFL, // -272
+            0x5C14_D5ED_C3AB_8614L, 0x0B37_16D5_62C6_1154L, // -271
+            0x7AC6_7292_5A3A_081AL, 0x6449_73C7_2E5D_6C70L, // -270
+            0x51D9_A1B6_E6D1_5ABCL, 0x42DB_A284_C993_9DA0L, // -269
+            0x6D22_2CF3_DE6C_78FBL, 0x2E7A_2E06_621A_2780L, // -268
+            0x48C1_734D_3EF2_FB52L, 0x1EFC_1EAE_EC11_6FABL, // -267
+            0x6101_EF11_A943_F9C2L, 0x7EA5_7E3E_9017_3F8EL, // -266
+            0x40AB_F4B6_70D7_FBD7L, 0x29C3_A97F_0ABA_2A5FL, // -265
+            0x563A_9B9D_EBCA_A51FL, 0x0D04_E1FE_B8F8_387FL, // -264
+            0x72F8_CF7D_3A63_86D4L, 0x115B_D7FE_4BF5_A0A9L, // -263
+            0x4CA5_DFA8_D197_AF38L, 0x0B92_8FFE_DD4E_6B1BL, // -262
+            0x6632_7F8B_C21F_944AL, 0x64C3_6AA9_2713_3979L, // -261
+            0x4421_AA5D_2C15_0D87L, 0x1882_471B_6F62_2651L, // -260
+            0x5AD7_8DD1_901C_1209L, 0x4B58_5ECF_3F2D_886CL, // -259
+            0x791F_67C2_157A_C2B7L, 0x39CB_2914_543C_B5E5L, // -258
+            0x50BF_9A81_63A7_2C7AL, 0x2687_70B8_3828_7944L, // -257
+            0x6BAA_2357_2F89_90A3L, 0x08B4_964A_F58B_4C5AL, // -256
+            0x47C6_C23A_1FB1_0B17L, 0x3078_6431_F907_883CL, // -255
+            0x5FB3_ADA2_D4EC_0EC9L, 0x6B4B_3042_A15F_6050L, // -254
+            0x7F9A_3CD9_1BE5_690DL, 0x0F0E_EB03_81D4_806AL, // -253
+            0x5511_7DE6_1298_F0B3L, 0x34B4_9CAD_0138_559CL, // -252
+            0x716C_A7DD_6E21_40EFL, 0x1B9B_7B91_56F5_C77BL, // -251
+            0x4B9D_C53E_496B_809FL, 0x3D12_5260_E4A3_DA52L, // -250
+            0x64D2_5C53_0C8F_5629L, 0x7C18_6DD6_862F_CDC3L, // -249
+            0x4336_E837_5DB4_E41BL, 0x7D65_9E8F_041F_DE82L, // -248
+            0x599E_8AF4_7CF1_3025L, 0x2732_28BE_B02A_7E03L, // -247
+            0x777E_0E9B_5141_9587L, 0x0998_3653_958D_FD59L, // -246
+            0x4FA9_5F12_362B_B904L, 0x5BBA_CEE2_63B3_FE3BL, // -245
+            0x6A37_296D_9D8F_A15BL, 0x4FA3_BE83_2F9A_A84FL, // -244
+            0x46CF_70F3_BE5F_C0E7L, 0x5FC2_7F02_1FBC_7035L, // -243
+            0x5E69_EBEF_A87F_ABDFL, 0x5503_5402_D4FB_4046L, // -242
+            0x7DE2_8FEA_35FF_8FD4L, 0x7159_C559_1BF9_AB08L, // -241
+            0x53EC_5FF1_7955_0A8DL, 0x763B_D8E6_12A6_7206L, // -240
+            0x6FE5_D541_F71C_0E12L, 0x484F_CBDD_6E33_42B2L, // -239
+            0x4A99_38D6_A4BD_5EB7L, 0x058A_87E8_F422_2C77L, // -238
+            0x6376_F673_8651_D39EL, 0x5CB8_B536_9AD8_3B49L, // -237
+            0x424F_4EF7_AEE1_37BFL, 0x1325_CE24_673A_D231L, // -236
+            0x5869_BE9F_93D6_F4FEL, 0x6EDD_12DB_344E_6D96L, // -235
+            0x75E2_537F_6FC9_46A9L, 0x13D1_6E79_9B13_3CC8L, // -234
+            0x4E96_E254_F530_D9C6L, 0x0D36_49A6_6762_2885L, // -233
+            0x68C9_2DC6_9C41_225DL, 0x3C48_6233_3482_E0B2L, // -232
+            0x45DB_73D9_BD80_C193L, 0x52DA_EC22_2301_EB21L, // -231
+            0x5D24_9A77_A756_576FL, 0x43CE_902D_8402_8ED7L, // -230
+            0x7C30_CDF4_DF1D_C9EAL, 0x0513_6AE7_5AAE_13C9L, // -229
+            0x52CB_33F8_94BE_869CL, 0x0362_4744_E71E_B7DCL, // -228
+            0x6E64_454B_70FE_08D0L, 0x0483_09B1_3428_F525L, // -227
+            0x4998_2E32_4B54_05E0L, 0x0302_0676_22C5_F8C3L, // -226
+            0x6220_3D98_6470_07D5L, 0x2EAD_5DF2_D907_F65AL, // -225
+            0x416A_D3BA_EDA0_0538L, 0x7473_93F7_3B5A_A43CL, // -224
+            0x5739_1A4E_922A_B1A1L, 0x1B44_C549_A478_DAFAL, // -223
+            0x744C_2313_6D8E_422CL, 0x245B_B1B7_85F6_794EL, // -222
+            0x4D88_1762_4909_8172L, 0x6D92_767A_594E_FB89L, // -221
+            0x6760_1F2D_B6B7_5743L, 0x676D_F34D_CC69_4F61L, // -220
+            0x44EA_BF73_CF24_E4D7L, 0x6F9E_A233_DD9B_8A41L, // -219
+            0x5BE3_A9EF_BEDB_DBCAL, 0x3F7E_2D9A_7CCF_6301L, // -218
+            0x7A84_E294_FE7A_7A63L, 0x29FD_9223_5114_8402L, // -217
+            0x51AD_EC63_5451_A6ECL, 0x7153_B6C2_360D_AD57L, // -216
+            0x6CE7_E5D9_C5C2_33E6L, 0x41C4_F3AD_9D67_91C9L, // -215
+            0x489A_993B_D92C_2299L, 0x5683_4D1E_68EF_B686L, // -214
+            0x60CE_21A5_2190_2E22L, 0x1E04_66D3_3694_F35DL, // -213
+            0x4089_6BC3_6BB5_7416L, 0x6958_448C_CF0D_F794L, // -212
+            0x560C_8FAF_3A47_4573L, 0x61CB_0611_1412_9F6FL, // -211
+            0x72BB_6A3E_F85F_0745L, 0x0264_0816_C56E_29E9L, // -210
+            0x4C7C_F17F_503F_5A2EL, 0x0198_0564_839E_C69CL, // -209
+            0x65FB_ECA9_C054_783DL, 0x2CCA_B1DB_5A29_08D0L, // -208
+            0x43FD_4871_2AE2_FAD3L, 0x4887_213C_E6C6_05E0L, // -207
+            0x5AA7_0B41_8E83_F91AL, 0x0B5E_D6FB_DE5D_5D2AL, // -206
+            0x78DE_B9AC_BE05_4C22L, 0x647E_73FA_7DD1_D18EL, // -205
+            0x5094_7BC8_7EAE_32C1L, 0x6DA9_A2A6_FE8B_E109L, // -204
+            0x6B70_A50B_5392_EE57L, 0x678C_D8DE_A8BA_8161L, // -203
+            0x47A0_6E07_8D0C_9EE5L, 0x1A5D_E5E9_C5D1_AB96L, // -202
+            0x5F80_92B4_BC10_D3DCL, 0x2327_DD37_B26C_E4C8L, // -201
+            0x7F56_18F0_FAC1_1A7BL, 0x0435_26F4_EDE6_8660L, // -200
+            0x54E4_10A0_A72B_66FCL, 0x5823_6F4D_F3EF_0440L, // -199
+            0x7130_162B_898F_33FBL, 0x4AD9_E9BD_453E_B056L, // -198
+            0x4B75_641D_065F_77FDL, 0x073B_F128_D8D4_758FL, // -197
+            0x649C_857C_087F_4AA6L, 0x5EFA_96E1_211B_4769L, // -196
+            0x4313_03A8_05AA_31C4L, 0x3F51_B9EB_6B67_84F1L, // -195
+            0x596E_AF8A_B238_425BL, 0x29C2_4D39_E48A_0696L, // -194
+            0x773E_3F63_984B_0324L, 0x37AD_BC4D_30B8_08C8L, // -193
+            0x4F7E_D4ED_1032_0218L, 0x251E_7D88_CB25_5B30L, // -192
+            0x69FE_713C_1598_02CBL, 0x06D3_520B_B987_2440L, // -191
+            0x46A9_A0D2_B910_01DCL, 0x59E2_36B2_7BAF_6D80L, // -190
+            0x5E37_8118_F6C0_027BL, 0x4D2D_9E43_4F94_9200L, // -189
+            0x7D9F_56CB_F3AA_ADFAL, 0x1192_2859_BF70_C2ABL, // -188
+            0x53BF_8F32_A271_C951L, 0x3661_703B_D4F5_D71DL, // -187
+            0x6FAA_1443_8342_61C1L, 0x732C_95A5_1BF2_7426L, // -186
+            0x4A71_62D7_ACD6_EBD6L, 0x4CC8_63C3_67F6_F819L, // -185
+            0x6341_D91F_911E_8FC8L, 0x6660_8504_8A9E_A022L, // -184
+            0x422B_E615_0B69_B530L, 0x4440_58AD_B1BF_156CL, // -183
+            0x583A_881C_0F37_9C40L, 0x5B00_763C_ECFE_C73AL, // -182
+            0x75A3_6025_699F_7B00L, 0x7955_F2FB_E6A9_09A3L, // -181
+            0x4E6C_EAC3_9BBF_A755L, 0x7B8E_A1FD_4470_B118L, // -180
+            0x6891_3904_CFAA_3472L, 0x4F68_D7FC_5B40_EC1FL, // -179
+            0x45B6_2603_351C_22F7L, 0x0A45_E552_E780_9D6AL, // -178
+            0x5CF2_DD59_9C25_83F4L, 0x0DB2_8719_34AB_7C8EL, // -177
+            0x7BEE_7C77_7ADC_AFF0L, 0x1243_5ECC_4639_FB67L, // -176
+            0x529E_FDA4_FC93_1FF5L, 0x36D7_9488_2ED1_5245L, // -175
+            0x6E29_5231_50C4_2A9CL, 0x491F_70B5_93C1_C307L, // -174
+            0x4970_E176_35D8_1C68L, 0x30BF_A079_0D2B_D75AL, // -173
+            0x61EB_D748_47CA_D08BL, 0x1654_D5F6_BC3A_7478L, // -172
+            0x4147_E4DA_DA87_35B2L, 0x0EE3_394F_2826_F850L, // -171
+            0x570A_8679_235E_F242L, 0x692E_F714_3589_4B15L, // -170
+            0x740E_08A1_847E_9859L, 0x0C3E_9EC5_9CB7_0EC7L, // -169
+            0x4D5E_B06B_ADA9_BAE6L, 0x0829_BF2E_687A_09DAL, // -168
+            0x6728_EB3A_3CE2_4E88L, 0x0AE2_543D_E0A2_B7CDL, // -167
+            0x44C5_F226_D341_89B0L, 0x0741_8D7E_95C1_CFDEL, // -166
+            0x5BB2_9833_C457_6240L, 0x09AC_BCA8_C7AD_1528L, // -165
+            0x7A43_759A_5B1F_2DAAL, 0x623B_A636_5F91_718BL, // -164
+            0x5182_4E66_E76A_1E71L, 0x6C27_C424_3FB6_4BB2L, // -163
+            0x6CAD_BDDE_89E2_D342L, 0x3ADF_B030_54F3_0F98L, // -162
+            0x4873_D3E9_B141_E22CL, 0x273F_CACA_E34C_B510L, // -161
+            0x609A_6FE2_41AD_2D90L, 0x3455_0E63_D9BB_9C15L, // -160
+            0x4066_F541_811E_1E60L, 0x22E3_5EED_3BD2_680EL, // -159
+            0x55DE_9C57_56D2_D32BL, 0x03D9_D3E6_FA6D_E013L, // -158
+            0x727E_25C9_C919_198EL, 0x5A77_C533_F892_8019L, // -157
+            0x4C54_1931_30BB_665FL, 0x11A5_2E22_A5B7_0011L, // -156
+            0x65C5_76EC_40F9_DDD4L, 0x1786_E82E_3249_556CL, // -155
+            0x43D8_F9F2_D5FB_E938L, 0x0FAF_4574_2186_38F3L, // -154
+            0x5A76_A299_1D4F_E1A0L, 0x14E9_B1F0_2CB2_F699L, // -153
+            0x789E_2E21_7C6A_822AL, 0x7137_97EA_E643_F376L, // -152
+            0x5069_7416_52F1_AC1CL, 0x4B7A_6547_442D_4CFAL, // -151
+            0x6B37_4573_1942_3AD0L, 0x64A3_31B4_5AE7_114DL, // -150
+            0x477A_2E4C_BB81_7C8BL, 0x186C_CBCD_91EF_60DEL, // -149
+            0x5F4D_9310_FA01_FB64L, 0x2091_0FBC_C294_8128L, // -148
+            0x7F12_196B_F802_A485L, 0x5616_BFA6_58C6_018AL, // -147
+            0x54B6_BB9D_5001_C303L, 0x640F_2A6E_E5D9_565CL, // -146
+            0x70F3_A4D1_C002_595AL, 0x3014_3893_DD21_C87BL, // -145
+            0x4B4D_188B_D556_E63CL, 0x200D_7B0D_3E16_85A7L, // -144
+            0x6466_CB65_1C73_DDA5L, 0x5567_4EBC_52C8_B234L, // -143
+            0x42EF_3243_684D_3E6EL, 0x38EF_89D2_E1DB_2178L, // -142
+            0x593E_EDAF_35BC_533DL, 0x7694_B7C3_D7CE_D74BL, // -141
+            0x76FE_923E_F250_6EFDL, 0x1E1B_9FAF_CA69_1F0EL, // -140
+            0x4F54_617F_4C35_9F53L, 0x3EBD_151F_DC46_14B4L, // -139
+            0x69C5_D754_659C_D46FL, 0x28FC_1C2A_7B08_1B9BL, // -138
+            0x4683_E4E2_EE68_8D9FL, 0x45FD_681C_5205_67BDL, // -137
+            0x5E05_312E_9336_122AL, 0x07FC_8AD0_6D5C_8A51L, // -136
+            0x7D5C_4193_6EF2_C2E2L, 0x5FFB_63C0_91D0_B86CL, // -135
+            0x5392_D662_49F7_2C97L, 0x1552_4280_6135_D048L, // -134
+            0x6F6E_732D_B7F4_3B74L, 0x1C6D_AE00_819D_15B5L, // -133
+            0x4A49_A21E_7AA2_D24DL, 0x3D9E_7400_5668_B924L, // -132
+            0x630C_D828_A383_C311L, 0x7CD3_4555_C88B_A185L, // -131
+            0x4208_901B_17AD_2CB6L, 0x5337_838E_85B2_6BAEL, // -130
+            0x580B_6ACE_CA3C_3B9EL, 0x199F_5A13_5CED_E4E8L, // -129
+            0x7564_8E69_0DA5_A4D2L, 0x777F_22C4_7BE7_DBE0L, // -128
+            0x4E43_099B_5E6E_6DE1L, 0x7A54_C1D8_529A_9295L, // -127
+            0x6859_6224_7DE8_9282L, 0x4DC6_57CB_18CE_18C7L, // -126
+            0x4590_EC18_53F0_61ACL, 0x33D9_8FDC_BB34_1085L, // -125
+            0x5CC1_3ACB_1A95_D790L, 0x4522_1526_4EF0_1606L, // -124
+            0x7BAC_4E64_2372_74C0L, 0x5C2D_7188_6940_1D5DL, // -123
+            0x5272_DEED_6CF6_F880L, 0x3D73_A105_9B80_1394L, // -122
+            0x6DEE_7E91_E69E_A0ABL, 0x2744_D6B2_24AA_C4C5L, // -121
+            0x4949_A9B6_99BF_15C7L, 0x44D8_8F21_6DC7_2DD9L, // -120
+            0x61B7_8CF3_77A9_725FL, 0x3120_BED7_3D09_9276L, // -119
+            0x4125_08A2_4FC6_4C3FL, 0x4B6B_29E4_D35B_B6FAL, // -118
+            0x56DC_0B83_1508_65AAL, 0x0F39_8D31_19CF_9EA2L, // -117
+            0x73D0_0F59_7160_878DL, 0x3EF7_66EC_226A_28D8L, // -116
+            0x4D35_5F90_F640_5A5EL, 0x29FA_449D_6C46_C5E5L, // -115
+            0x66F1_D4C1_4855_CDD3L, 0x0D4D_B0D1_E5B3_B287L, // -114
+            0x44A1_3880_DAE3_DE8CL, 0x5E33_CB36_9922_7705L, // -113
+            0x5B81_A0AB_CE85_28BBL, 0x52EF_B99E_2183_495CL, // -112
+            0x7A02_2B8F_BE06_E0FAL, 0x193F_A228_2CAF_0C7AL, // -111
+            0x5156_C7B5_2959_EB51L, 0x3B7F_C170_1DCA_0851L, // -110
+            0x6C73_B4F1_8C77_E46CL, 0x4F55_01EA_D262_B5C2L, // -109
+            0x484D_234B_B2FA_9848L, 0x34E3_569C_8C41_CE81L, // -108
+            0x6066_D9BA_43F8_CB0BL, 0x1BD9_C8D0_BB02_68ACL, // -107
+            0x4044_9126_D7FB_3207L, 0x3D3B_DB35_D201_9B1EL, // -106
+            0x55B0_C189_1FF9_9809L, 0x7C4F_CEF2_6D57_797DL, // -105
+            0x7241_020C_2AA2_200DL, 0x25BF_BE98_91C9_F751L, // -104
+            0x4C2B_56B2_C716_C008L, 0x6E7F_D465_B686_A4E1L, // -103
+            0x658F_1E43_B41E_5561L, 0x1355_1B32_48B3_8681L, // -102
+            0x43B4_BED7_CD69_8E40L, 0x6238_BCCC_3077_AF01L, // -101
+            0x5A46_53CA_6737_6856L, 0x2DA0_FBBA_EB4A_3EABL, // -100
+            0x785D_C50D_DEF4_8B1DL, 0x6781_4FA3_E462_FE3AL, //  -99
+            0x503E_835E_94A3_0769L, 0x1A56_3517_ED97_5427L, //  -98
+            0x6AFE_047E_1B84_09E1L, 0x4DC8_46CA_921F_1ADEL, //  -97
+            0x4754_02FE_BD02_B141L, 0x0930_2F31_B6BF_673FL, //  -96
+            0x5F1A_AEA8_FC03_9701L, 0x36EA_E997_9E54_89A9L, //  -95
+            0x7ECE_3E36_A55A_1EACL, 0x4939_3774_D31B_6236L, //  -94
+            0x5489_7ECF_18E6_BF1DL, 0x5B7B_7A4D_E212_417AL, //  -93
+            0x70B7_53BE_CBDE_5427L, 0x4F4F_4DBD_2D6D_ACA2L, //  -92
+            0x4B24_E27F_3294_381AL, 0x34DF_8928_C8F3_C86CL, //  -91
+            0x6431_2DFE_EE1A_F578L, 0x467F_618B_B69A_6090L, //  -90
+            0x42CB_73FF_4967_4E50L, 0x2EFF_965D_2466_EB0BL, //  -89
+            0x590F_4554_61DF_1315L, 0x6954_C87C_3089_3964L, //  -88
+            0x76BF_071B_2D29_6EC7L, 0x61C6_60A5_960C_4C85L, //  -87
+            0x4F2A_04BC_C8C6_49DAL, 0x412E_EB19_0EB2_DDAEL, //  -86
+            0x698D_5BA6_6108_6278L, 0x56E9_3976_BE43_D23DL, //  -85
+            0x465E_3D19_9605_96FBL, 0x0F46_264F_2982_8C29L, //  -84
+            0x5DD2_FC22_1D5C_C94EL, 0x69B2_DDBE_E203_658CL, //  -83
+            0x7D19_502D_7C7B_B713L, 0x6243_D253_D804_8765L, //  -82
+            0x5366_3573_A852_7A0DL, 0x16D7_E18D_3AAD_AF99L, //  -81
+            0x6F32_F1EF_8B18_A2BCL, 0x1E75_2CBC_4E3C_EA21L, //  -80
+            0x4A21_F69F_B210_6C7DL, 0x3EF8_C87D_897D_F16CL, //  -79
+            0x62D7_F37F_9815_E5FCL, 0x53F6_60A7_61FD_41E5L, //  -78
+            0x41E5_4CFF_BAB9_43FDL, 0x62A4_406F_96A8_D699L, //  -77
+            0x57DC_66AA_4E4C_5AA7L, 0x58DB_0094_C8E1_1E21L, //  -76
+            0x7525_DE38_6865_CE34L, 0x7679_561B_B681_7D81L, //  -75
+            0x4E19_3ED0_4599_3423L, 0x2450_E412_79AB_A901L, //  -74
+            0x6821_A915_B221_9AD9L, 0x5B16_856D_F78F_8C01L, //  -73
+            0x456B_C60E_76C1_11E6L, 0x3CB9_AE49_4FB5_0801L, //  -72
+            0x5C8F_B2BD_F3AC_17DDL, 0x7BA2_3DB7_14F1_6001L, //  -71
+            0x7B6A_43A7_EF90_1FD2L, 0x4F82_FCF4_1BEC_8001L, //  -70
+            0x5246_D7C5_4A60_1537L, 0x0A57_534D_67F3_0001L, //  -69
+            0x6DB3_CA5C_632A_C6F4L, 0x0DC9_C467_3544_0001L, //  -68
+            0x4922_86E8_421C_84A2L, 0x5E86_82EF_78D8_0001L, //  -67
+            0x6183_5E8B_02D0_B0D8L, 0x7E08_AE94_A120_0001L, //  -66
+            0x4102_3F07_5735_CB3BL, 0x295B_1F0D_C0C0_0001L, //  -65
+            0x56AD_A95F_1EF2_644FL, 0x0C79_7EBD_0100_0001L, //  -64
+            0x7392_3729_7E98_85BEL, 0x65F7_53A6_AC00_0001L, //  -63
+            0x4D0C_24C6_5465_AE7FL, 0x194F_8D19_C800_0001L, //  -62
+            0x66BA_DBB3_1B32_3DFEL, 0x7714_BC22_6000_0001L, //  -61
+            0x447C_9277_6776_D3FFL, 0x24B8_7D6C_4000_0001L, //  -60
+            0x5B50_C349_DF49_1AA9L, 0x5BA0_A73B_0000_0001L, //  -59
+            0x79C1_0462_7F0C_238CL, 0x7A2B_89A4_0000_0001L, //  -58
+            0x512B_5841_AA08_17B3L, 0x26C7_B118_0000_0001L, //  -57
+            0x6C39_CB02_380A_CA44L, 0x33B4_EC20_0000_0001L, //  -56
+            0x4826_8756_D007_3182L, 0x77CD_F2C0_0000_0001L, //  -55
+            0x6033_5F1E_6AB4_4203L, 0x7512_9900_0000_0001L, //  -54
+            0x4022_3F69_9C78_2C02L, 0x4E0C_6600_0000_0001L, //  -53
+            0x5582_FF37_7B4A_E558L, 0x6810_8800_0000_0001L, //  -52
+            0x7203_FEF4_A463_DC76L, 0x356B_6000_0000_0001L, //  -51
+            0x4C02_A9F8_6D97_E84EL, 0x78F2_4000_0000_0001L, //  -50
+            0x6558_E2A0_921F_E069L, 0x2143_0000_0000_0001L, //  -49
+            0x4390_9715_B6BF_EAF0L, 0x6B82_0000_0000_0001L, //  -48
+            0x5A16_1EC7_9E55_3941L, 0x0F58_0000_0000_0001L, //  -47
+            0x781D_7E5F_7DC6_F701L, 0x3F20_0000_0000_0001L, //  -46
+            0x5013_A994_FE84_A4ABL, 0x54C0_0000_0000_0001L, //  -45
+            0x6AC4_E21B_FE06_30E4L, 0x7100_0000_0000_0001L, //  -44
+            0x472D_EC12_A959_75EDL, 0x7600_0000_0000_0001L, //  -43
+            0x5EE7_E56E_3721_F292L, 0x4800_0000_0000_0001L, //  -42
+            0x7E8A_873D_9ED7_EE18L, 0x6000_0000_0000_0001L, //  -41
+            0x545C_5A29_148F_F410L, 0x4000_0000_0000_0001L, //  -40
+            0x707B_22E1_70BF_F016L, 0x0000_0000_0000_0001L, //  -39
+            0x4AFC_C1EB_A07F_F564L, 0x0000_0000_0000_0001L, //  -38
+            0x63FB_AD3A_2B55_4730L, 0x0000_0000_0000_0001L, //  -37
+            0x42A7_C8D1_7238_DA20L, 0x0000_0000_0000_0001L, //  -36
+            0x58DF_B66C_984B_CD80L, 0x0000_0000_0000_0001L, //  -35
+            0x767F_9DE6_2065_1200L, 0x0000_0000_0000_0001L, //  -34
+            0x4EFF_BE99_6AEE_0C00L, 0x0000_0000_0000_0001L, //  -33
+            0x6954_FE21_E3E8_1000L, 0x0000_0000_0000_0001L, //  -32
+            0x4638_A96B_ED45_6000L, 0x0000_0000_0000_0001L, //  -31
+            0x5DA0_E1E5_3C5C_8000L, 0x0000_0000_0000_0001L, //  -30
+            0x7CD6_8286_FB26_0000L, 0x0000_0000_0000_0001L, //  -29
+            0x5339_AC59_FCC4_0000L, 0x0000_0000_0000_0001L, //  -28
+            0x6EF7_9077_FBB0_0000L, 0x0000_0000_0000_0001L, //  -27
+            0x49FA_604F_FD20_0000L, 0x0000_0000_0000_0001L, //  -26
+            0x62A3_2B15_5180_0000L, 0x0000_0000_0000_0001L, //  -25
+            0x41C2_1CB8_E100_0000L, 0x0000_0000_0000_0001L, //  -24
+            0x57AD_7BA1_2C00_0000L, 0x0000_0000_0000_0001L, //  -23
+            0x74E7_4F81_9000_0000L, 0x0000_0000_0000_0001L, //  -22
+            0x4DEF_8A56_6000_0000L, 0x0000_0000_0000_0001L, //  -21
+            0x67EA_0DC8_8000_0000L, 0x0000_0000_0000_0001L, //  -20
+            0x4546_B3DB_0000_0000L, 0x0000_0000_0000_0001L, //  -19
+            0x5C5E_4524_0000_0000L, 0x0000_0000_0000_0001L, //  -18
+            0x7B28_5C30_0000_0000L, 0x0000_0000_0000_0001L, //  -17
+            0x521A_E820_0000_0000L, 0x0000_0000_0000_0001L, //  -16
+            0x6D79_3580_0000_0000L, 0x0000_0000_0000_0001L, //  -15
+            0x48FB_7900_0000_0000L, 0x0000_0000_0000_0001L, //  -14
+            0x614F_4C00_0000_0000L, 0x0000_0000_0000_0001L, //  -13
+            0x40DF_8800_0000_0000L, 0x0000_0000_0000_0001L, //  -12
+            0x567F_6000_0000_0000L, 0x0000_0000_0000_0001L, //  -11
+            0x7354_8000_0000_0000L, 0x0000_0000_0000_0001L, //  -10
+            0x4CE3_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -9
+            0x6684_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -8
+            0x4458_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -7
+            0x5B20_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -6
+            0x7980_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -5
+            0x5100_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -4
+            0x6C00_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -3
+            0x4800_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -2
+            0x6000_0000_0000_0000L, 0x0000_0000_0000_0001L, //   -1
+            0x4000_0000_0000_0000L, 0x0000_0000_0000_0001L, //    0
+            0x5555_5555_5555_5555L, 0x2AAA_AAAA_AAAA_AAABL, //    1
+            0x71C7_1C71_C71C_71C7L, 0x0E38_E38E_38E3_8E39L, //    2
+            0x4BDA_12F6_84BD_A12FL, 0x3425_ED09_7B42_5ED1L, //    3
+            0x6522_C3F3_5BA7_8194L, 0x4587_E6B7_4F03_2917L, //    4
+            0x436C_82A2_3D1A_5663L, 0x03AF_EF24_DF57_70BAL, //    5
+            0x59E6_0382_FC23_1DD9L, 0x2F95_3EDB_D474_964DL, //    6
+            0x77DD_5A03_FAD9_7D21L, 0x6A1C_53CF_C5F0_C867L, //    7
+            0x4FE8_E6AD_51E6_536BL, 0x7168_37DF_D94B_3045L, //    8
+            0x6A8B_DE3C_6D33_19E5L, 0x1735_9FD5_21B9_95B1L, //    9
+            0x4707_E97D_9E22_1143L, 0x3A23_BFE3_6BD1_0E76L, //   10
+            0x5EB5_3752_282D_6C59L, 0x782F_AA84_8FC1_689DL, //   11
+            0x7E46_F46D_8AE7_3B22L, 0x4AEA_38B0_BFAC_8B7CL, //   12
+            0x542F_4D9E_5C9A_276CL, 0x31F1_7B20_7FC8_5CFDL, //   13
+            0x703F_1228_7B78_3490L, 0x4297_4ED5_FFB5_D152L, //   14
+            0x4AD4_B6C5_A7A5_7860L, 0x2C64_DF39_5523_E0E1L, //   15
+            0x63C6_4907_8A31_F5D5L, 0x65DB_D44C_7185_2BD7L, //   16
+            0x4284_30AF_B176_A3E3L, 0x6E92_8D88_4BAE_1D3AL, //   17
+            0x58B0_40EA_41F3_852FL, 0x68C3_6760_64E8_26F8L, //   18
+            0x7640_568D_AD44_B195L, 0x0BAF_3480_868A_DEA0L, //   19
+            0x4ED5_8F09_1E2D_CBB8L, 0x5D1F_7855_AF07_3F15L, //   20
+            0x691C_BEB6_D2E7_BA4BL, 0x517F_4B1C_E95E_FEC7L, //   21
+            0x4613_29CF_3745_26DDL, 0x0BAA_3213_463F_5485L, //   22
+            0x5D6E_E269_9F06_DE7CL, 0x0F8D_9819_B2FF_1B5CL, //   23
+            0x7C93_D88C_D409_28A5L, 0x3F67_7577_9954_247AL, //   24
+            0x530D_3B08_8D5B_706EL, 0x2A44_F8FA_6638_1851L, //   25
+            0x6EBC_4EB6_11CF_4093L, 0x0DB1_4BF8_884A_CB17L, //   26
+            0x49D2_DF24_0BDF_8062L, 0x0920_DD50_5ADC_8765L, //   27
+            0x626E_7EDA_BA7F_55D8L, 0x0C2B_D1C0_7926_09DCL, //   28
+            0x419E_FF3C_7C54_E3E5L, 0x32C7_E12A_FB6E_B13DL, //   29
+            0x577E_A9A5_FB1B_DA87L, 0x190A_818E_A493_96FCL, //   30
+            0x74A8_E232_A425_235EL, 0x76B8_ACBE_30C4_C950L, //   31
+            0x4DC5_EC21_C2C3_6CE9L, 0x79D0_7329_75D8_8636L, //   32
+            0x67B2_902D_03AF_3BE2L, 0x4D15_EEE1_F276_0847L, //   33
+            0x4521_B573_57CA_27ECL, 0x3363_F496_A1A4_0585L, //   34
+            0x5C2C_F1EF_1FB8_353BL, 0x19DA_9B73_8230_075CL, //   35
+            0x7AE6_97E9_7FA0_46F9L, 0x4D23_79EF_5840_09D0L, //   36
+            0x51EF_0FF0_FFC0_2F51L, 0x08C2_514A_3AD5_5BE0L, //   37
+            0x6D3E_BFEB_FFAA_E9C1L, 0x3658_6C62_F91C_7A80L, //   38
+            0x48D4_7FF2_AA71_F12BL, 0x4EE5_9D97_50BD_A700L, //   39
+            0x611B_5543_8DED_418FL, 0x3E87_7CC9_C0FC_DEABL, //   40
+            0x40BC_E382_5E9E_2BB4L, 0x7F04_FDDB_D5FD_E9C7L, //   41
+            0x5651_2F58_7E28_3A46L, 0x5406_A7CF_C7FD_37B4L, //   42
+            0x7316_E9CB_52E0_4DB3L, 0x455E_3515_0AA6_F4F0L, //   43
+            0x4CB9_F132_3740_33CDL, 0x0394_2363_5C6F_4DF5L, //   44
+            0x664D_4198_49AA_EFBCL, 0x04C5_8484_7B3F_129CL, //   45
+            0x4433_8110_311C_9FD2L, 0x5883_ADAD_A77F_61BEL, //   46
+            0x5AEF_56C0_417B_7FC3L, 0x4B5A_3CE7_89FF_2CFDL, //   47
+            0x793F_1E55_ACA4_AA5AL, 0x0F22_FBDF_62A9_9151L, //   48
+            0x50D4_BEE3_C86D_C6E6L, 0x5F6C_A7EA_41C6_60E1L, //   49
+            0x6BC6_53DA_6092_5E88L, 0x7F3B_8A8D_AD08_812CL, //   50
+            0x47D9_8D3C_4061_945BL, 0x2A27_B1B3_C8B0_561DL, //   51
+            0x5FCC_BC50_55D7_7079L, 0x62DF_979A_60EB_1D7CL, //   52
+            0x7FBB_A5C0_7274_95F7L, 0x592A_1F78_8139_7CA5L, //   53
+            0x5527_C3D5_A1A3_0EA5L, 0x10C6_BFA5_AB7B_A86EL, //   54
+            0x718A_5A72_2CD9_68DCL, 0x165E_54DC_E4A4_E093L, //   55
+            0x4BB1_91A1_733B_9B3DL, 0x3994_3893_4318_95B8L, //   56
+            0x64EC_C22C_99A4_CEFCL, 0x4CC5_A0C4_5976_1CF5L, //   57
+            0x4348_8173_1118_89FDL, 0x5DD9_15D8_3BA4_134EL, //   58
+            0x59B6_01EE_C176_0D52L, 0x27CC_1D20_4F85_6F12L, //   59
+            0x779D_57E9_01F2_BC6DL, 0x5FBA_D180_6A07_3EC3L, //   60
+            0x4FBE_3A9B_56A1_D2F3L, 0x6A7C_8BAA_F15A_29D7L, //   61
+            0x6A52_F8CF_1E2D_1945L, 0x0DFB_64E3_EC78_37CAL, //   62
+            0x46E1_FB34_BEC8_BB83L, 0x33FC_EDED_4850_2531L, //   63
+            0x5E82_A446_53B6_4F59L, 0x6FFB_E7E7_0B15_86ECL, //   64
+            0x7E03_85B3_1A48_69CDL, 0x154F_DFDE_B972_093BL, //   65
+            0x5402_5922_1185_9BDEL, 0x0E35_3FE9_D0F6_B0D2L, //   66
+            0x7003_2182_C207_7A7DL, 0x3D9C_5537_C148_EBC3L, //   67
+            0x4AAC_C101_D6AF_A6FEL, 0x2912_E37A_80DB_47D7L, //   68
+            0x6391_0157_C8EA_33FDL, 0x616E_84A3_5679_B51FL, //   69
+            0x4260_AB8F_DB46_CD53L, 0x6B9F_0317_8EFB_CE15L, //   70
+            0x5880_E4BF_CF09_11C5L, 0x0F7E_AECA_13FA_681BL, //   71
+            0x7601_30FF_BEB6_C25CL, 0x14A8_E90D_6FF8_8ACFL, //   72
+            0x4EAB_75FF_D479_D6E8L, 0x0DC5_F0B3_9FFB_0735L, //   73
+            0x68E4_9D55_1B4D_1E8AL, 0x67B2_9644_D54E_B446L, //   74
+            0x45ED_BE38_BCDE_145CL, 0x4521_B983_38DF_22DAL, //   75
+            0x5D3C_FDA0_FBD2_C5D0L, 0x5C2C_F759_A129_83CDL, //   76
+            0x7C51_522B_FA6E_5D16L, 0x2591_49CC_D6E2_0511L, //   77
+            0x52E0_E172_A6F4_3E0EL, 0x6E60_DBDD_E496_AE0BL, //   78
+            0x6E81_2C98_DE9A_FD69L, 0x132B_CFD2_861E_3D64L, //   79
+            0x49AB_7310_9467_539BL, 0x3772_8A8C_5969_7E43L, //   80
+            0x6239_EEC0_C5DF_1A24L, 0x49EE_0E10_7737_5304L, //   81
+            0x417B_F480_83EA_116DL, 0x5BF4_0960_4F7A_3758L, //   82
+            0x574F_F0AB_5A8D_6C92L, 0x2545_61D5_BF4D_9F20L, //   83
+            0x746A_9639_CE11_E618L, 0x31B1_D7C7_A9BC_D42BL, //   84
+            0x4D9C_6426_8961_4410L, 0x2121_3A85_1BD3_381DL, //   85
+            0x677B_3033_61D7_056BL, 0x0181_A35C_2519_A026L, //   86
+            0x44FC_CACC_EBE4_AE47L, 0x2BAB_C23D_6E11_156FL, //   87
+            0x5BFB_B911_3A86_3DB4L, 0x3A3A_5851_E816_C73EL, //   88
+            0x7AA4_F6C1_A35D_A79BL, 0x22F8_75C2_8AC9_09A8L, //   89
+            0x51C3_4F2B_C23E_6FBCL, 0x6CA5_A3D7_0730_B11BL, //   90
+            0x6D04_698F_ADA8_94FBL, 0x6632_2FC9_5EEB_96CEL, //   91
+            0x48AD_9BB5_1E70_6352L, 0x4421_7530_E9F2_648AL, //   92
+            0x60E7_7A46_D340_846EL, 0x0581_F196_8D43_30B8L, //   93
+            0x409A_5184_8CD5_AD9EL, 0x5901_4BB9_B382_207BL, //   94
+            0x5623_175B_6672_3CD3L, 0x4C01_BA4C_EF58_2B4EL, //   95
+            0x72D9_7479_DDED_A66FL, 0x3AAC_F866_9475_8F12L, //   96
+            0x4C90_F851_3E9E_6EF4L, 0x7C73_5044_62F9_0A0CL, //   97
+            0x6616_A06C_537D_E946L, 0x5099_C05B_2EA1_62BBL, //   98
+            0x440F_159D_8CFE_9B84L, 0x35BB_D592_1F16_41D2L, //   99
+            0x5ABE_C77C_BBFE_24B0L, 0x47A5_1CC2_D41D_AD18L, //  100
+            0x78FE_5F50_FAA8_30EBL, 0x34DC_2659_1AD2_3C20L, //  101
+            0x50A9_94E0_A71A_CB47L, 0x4DE8_1990_BC8C_2815L, //  102
+            0x6B8C_C680_DECE_645FL, 0x3D35_776B_A610_3572L, //  103
+            0x47B3_2F00_9489_983FL, 0x5378_FA47_C40A_CE4CL, //  104
+            0x5F99_9400_C60C_CAFFL, 0x44A1_4DB5_0563_BDBAL, //  105
+            0x7F77_7001_0811_0EAAL, 0x062C_679C_072F_A7A3L, //  106
+            0x54FA_4AAB_5AB6_09C6L, 0x5972_EFBD_5A1F_C518L, //  107
+            0x714D_B8E4_78F2_B7B3L, 0x4C99_3FA7_22D5_06CAL, //  108
+            0x4B89_25ED_A5F7_2522L, 0x3310_D51A_1738_AF31L, //  109
+            0x64B6_DD3C_DD49_86D8L, 0x4416_7178_1EF6_3EECL, //  110
+            0x4324_937D_E8DB_AF3BL, 0x02B9_A0FA_BF4E_D49EL, //  111
+            0x5986_19FD_367A_3EF9L, 0x2E4C_D6A3_A9BE_70D2L, //  112
+            0x775D_77FC_48A2_FEA1L, 0x6866_7384_E253_4118L, //  113
+            0x4F93_A552_DB17_546BL, 0x7044_4D03_418C_D610L, //  114
+            0x6A1A_31C3_CEC9_C5E5L, 0x15B0_66AF_0211_1D6BL, //  115
+            0x46BC_212D_3486_83EEL, 0x0E75_99CA_0160_BE47L, //  116
+            0x5E50_2C3C_4608_AFE8L, 0x1347_77B8_01D6_530AL, //  117
+            0x7DC0_3AFB_080B_9535L, 0x445F_4A4A_AD1D_C40DL, //  118
+            0x53D5_7CA7_5AB2_6379L, 0x02EA_3187_1E13_D809L, //  119
+            0x6FC7_50DF_2398_84A1L, 0x2E8D_975E_D2C5_200BL, //  120
+            0x4A84_E094_C265_ADC0L, 0x745E_64E9_E1D8_C008L, //  121
+            0x635B_D61B_ADDC_E7ABL, 0x707D_DBE2_8276_5560L, //  122
+            0x423D_3967_C93D_EFC7L, 0x75A9_3D41_AC4E_E395L, //  123
+            0x5851_A1DF_B6FD_3FB5L, 0x1CE1_A702_3B13_DA1CL, //  124
+            0x75C2_2D2A_4951_AA46L, 0x7BD7_8958_4EC5_22D0L, //  125
+            0x4E81_7371_8636_7184L, 0x528F_B0E5_89D8_C1E0L, //  126
+            0x68AC_99EC_B2F3_4206L, 0x18BF_9687_6276_57D5L, //  127
+            0x45C8_669D_CCA2_2C04L, 0x107F_B9AF_96F9_8FE4L, //  128
+            0x5D0B_337D_10D8_3AB0L, 0x15FF_A23F_73F7_6A85L, //  129
+            0x7C0E_EF51_6BCA_F8EAL, 0x72AA_2DA9_EFF4_8E06L, //  130
+            0x52B4_9F8B_9D31_FB47L, 0x21C6_C91B_F54D_B404L, //  131
+            0x6E46_2A0F_7C42_A45FL, 0x025E_617A_9C67_9AB0L, //  132
+            0x4984_1C0A_52D7_183FL, 0x2C3E_EBA7_12EF_BC76L, //  133
+            0x6205_7AB8_6E74_2054L, 0x3AFE_8F89_6E94_FB47L, //  134
+            0x4158_FC7A_F44D_6AE2L, 0x7CA9_B506_49B8_A785L, //  135
+            0x5721_50A3_F067_392EL, 0x50E2_46B3_0CF6_34B1L, //  136
+            0x742C_6B85_4089_A193L, 0x412D_B399_669D_9B97L, //  137
+            0x4D72_F258_D5B1_1662L, 0x2B73_CD10_EF13_BD0FL, //  138
+            0x6743_EDCB_C796_C883L, 0x0F45_116B_E96F_A6BFL, //  139
+            0x44D7_F3DD_2FB9_DB02L, 0x0A2E_0B9D_464A_6F2AL, //  140
+            0x5BCA_9A7C_3FA2_7958L, 0x0D92_BA27_0863_3EE3L, //  141
+            0x7A63_78A5_AA2D_F720L, 0x1218_F834_0B2E_FE84L, //  142
+            0x5197_A5C3_C6C9_4F6AL, 0x6165_FACD_5CC9_FF03L, //  143
+            0x6CCA_325A_5E61_BF39L, 0x01DD_4E67_2662_A959L, //  144
+            0x4886_CC3C_3EEB_D4D0L, 0x5693_899A_1997_1B91L, //  145
+            0x60B3_BAFA_FE8F_C66BL, 0x48C4_B778_221E_CF6BL, //  146
+            0x4077_D1FC_A9B5_2EF2L, 0x3083_24FA_C169_DF9DL, //  147
+            0x55F5_17FB_8CF1_93EDL, 0x6B59_86A3_AC8D_2A26L, //  148
+            0x729C_1FFA_1142_1A92L, 0x39CC_B384_E611_8D88L, //  149
+            0x4C68_1551_60D6_BC61L, 0x5133_2258_9961_0906L, //  150
+            0x65E0_1C6C_811E_5082L, 0x16EE_D876_21D6_B6B2L, //  151
+            0x43EA_BD9D_AB69_8B01L, 0x39F4_904E_C139_CF22L, //  152
+            0x5A8E_5227_8F37_6401L, 0x77F0_C069_01A2_6982L, //  153
+            0x78BD_C2DF_699F_3002L, 0x4A96_55E1_5783_3758L, //  154
+            0x507E_81EA_466A_2001L, 0x5C64_3940_E502_24E5L, //  155
+            0x6B53_57E3_088D_8002L, 0x25DA_F701_3158_3132L, //  156
+            0x478C_E542_05B3_AAACL, 0x193C_A4AB_763A_CB77L, //  157
+            0x5F66_8702_B244_E390L, 0x21A6_30E4_9DA3_B9F3L, //  158
+            0x7F33_5EAE_4306_84C0L, 0x2CDD_9686_2784_F7EFL, //  159
+            0x54CC_E9C9_8204_5880L, 0x1DE9_0F04_1A58_A54AL, //  160
+            0x7111_37B7_5805_CB55L, 0x528C_1405_7876_31B8L, //  161
+            0x4B60_CFCF_9003_DCE3L, 0x61B2_B803_A5A4_2126L, //  162
+            0x6481_1514_C005_2685L, 0x0243_A004_DCDA_D6DDL, //  163
+            0x4300_B8B8_8003_6F03L, 0x2C2D_1558_933C_8F3EL, //  164
+            0x5956_4BA0_AAAF_3EAFL, 0x103C_1C76_19A6_1452L, //  165
+            0x771D_BA2B_8E3E_FE3EL, 0x6AFA_D09D_7788_1B18L, //  166
+            0x4F69_26C7_B429_FED4L, 0x4751_E068_FA5A_BCBBL, //  167
+            0x69E1_890A_458D_53C6L, 0x09C2_808B_F878_FBA4L, //  168
+            0x4696_5B5C_2E5E_37D9L, 0x312C_55B2_A5A5_FD18L, //  169
+            0x5E1D_CF25_9328_4A77L, 0x16E5_C798_DCDD_5175L, //  170
+            0x7D7D_1432_198B_0DF4L, 0x1E87_B4CB_D127_1747L, //  171
+            0x53A8_B821_665C_B3F8L, 0x145A_7887_E0C4_BA2FL, //  172
+            0x6F8B_A02C_887B_9AA0L, 0x1B23_4B5F_D65B_A2EAL, //  173
+            0x4A5D_1573_05A7_BC6AL, 0x676C_DCEA_8EE7_C1F1L, //  174
+            0x6326_C744_078A_508EL, 0x3491_268E_13DF_AD42L, //  175
+            0x4219_DA2D_5A5C_35B4L, 0x230B_6F09_6295_1E2CL, //  176
+            0x5822_783C_787A_F245L, 0x5964_940C_8371_7D90L, //  177
+            0x7583_4AFB_4B4E_985CL, 0x7730_C566_0497_5215L, //  178
+            0x4E57_8752_3234_6593L, 0x24CB_2E44_030F_8C0EL, //  179
+            0x6874_B46D_9845_DCC4L, 0x310E_E85A_AEBF_6568L, //  180
+            0x45A3_22F3_BAD9_3DD8L, 0x20B4_9AE7_1F2A_439BL, //  181
+            0x5CD9_83EF_A3CC_5275L, 0x5646_23DE_D438_5A23L, //  182
+            0x7BCC_AFEA_2FBB_189CL, 0x7308_2FD3_C5A0_782FL, //  183
+            0x5288_7546_CA7C_BB13L, 0x2205_7537_D915_A575L, //  184
+            0x6E0B_4709_0DFB_A419L, 0x5807_46F5_2172_31F1L, //  185
+            0x495C_DA06_0952_6D66L, 0x3AAF_84A3_6BA1_76A1L, //  186
+            0x61D1_22B2_B718_91DDL, 0x78EA_062F_3A2C_9E2CL, //  187
+            0x4136_1721_CF65_B693L, 0x7B46_AECA_26C8_6973L, //  188
+            0x56F2_C982_69DC_F36FL, 0x79B3_93B8_33B5_E1EEL, //  189
+            0x73EE_6203_37D1_4495L, 0x2244_C4F5_9A47_D7E8L, //  190
+            0x4D49_96AC_CFE0_D863L, 0x4183_2DF9_1185_3A9BL, //  191
+            0x670C_C8E6_6A81_2084L, 0x5759_92A1_6CB1_A379L, //  192
+            0x44B3_3099_9C56_15ADL, 0x64E6_61C0_F321_17A6L, //  193
+            0x5B99_9622_25C8_1CE7L, 0x5BDD_D7AB_EED6_CA32L, //  194
+            0x7A22_1D82_DD0A_D134L, 0x7A7D_1F8F_E91E_62EEL, //  195
+            0x516C_13AC_935C_8B78L, 0x51A8_BFB5_4614_41F4L, //  196
+            0x6C90_1A3B_6F26_0F4BL, 0x4236_54F1_B2C5_AD45L, //  197
+            0x4860_117C_F4C4_0A32L, 0x2C24_38A1_21D9_1E2EL, //  198
+            0x6080_1751_465A_B843L, 0x1030_4B81_8276_D2E8L, //  199
+            0x4055_64E0_D991_D02CL, 0x6020_3256_56F9_E1F0L, //  200
+            0x55C7_312B_CCC2_6AE6L, 0x2AD5_9873_1EA2_8296L, //  201
+            0x725E_EC3A_6658_8E88L, 0x391C_CB44_28D8_AE1DL, //  202
+            0x4C3F_4826_EEE5_B45AL, 0x7B68_8782_C5E5_C969L, //  203
+            0x65A9_B589_3E87_9B23L, 0x79E0_B4AE_5D32_61E1L, //  204
+            0x43C6_7906_29AF_BCC2L, 0x5140_7874_3E21_9696L, //  205
+            0x5A5D_F6B2_E23F_A658L, 0x6C55_F5F0_52D7_7372L, //  206
+            0x787D_48EE_82FF_8876L, 0x3B1D_47EB_191F_4498L, //  207
+            0x5053_85F4_5755_05A4L, 0x2768_DA9C_BB6A_2DBBL, //  208
+            0x6B1A_07F0_7471_5CDBL, 0x09E1_237B_A48D_924FL, //  209
+            0x4766_AFF5_A2F6_3DE7L, 0x3140_C252_6DB3_B6DFL, //  210
+            0x5F33_9547_83F2_FD34L, 0x41AB_ADC3_3CEF_9E7FL, //  211
+            0x7EEF_71B4_AFEE_A6F0L, 0x578F_9259_A694_D354L, //  212
+            0x549F_A123_1FF4_6F4BL, 0x0FB5_0C3B_C463_378DL, //  213
+            0x70D4_D6D9_7FF0_9464L, 0x14F1_65A5_05D9_9F67L, //  214
+            0x4B38_8F3B_AAA0_62EDL, 0x38A0_EE6E_03E6_6A45L, //  215
+            0x644B_69A4_E380_83E7L, 0x20D6_933D_5A88_8DB1L, //  216
+            0x42DC_F118_97AB_029AL, 0x15E4_6228_E705_B3CBL, //  217
+            0x5926_96CB_74E4_0378L, 0x1D30_82E1_3407_9A64L, //  218
+            0x76DE_1E64_9BDA_AF4AL, 0x7C40_AE81_9AB4_CDDBL, //  219
+            0x4F3E_BEED_BD3C_74DCL, 0x52D5_C9AB_BC78_893DL, //  220
+            0x69A8_FE92_51A5_F126L, 0x191D_0CE4_FB4B_61A6L, //  221
+            0x4670_A9B6_E119_4B6EL, 0x6613_5DED_FCDC_EBC4L, //  222
+            0x5DEB_8CF3_D6CC_6493L, 0x5D6F_27E7_FBD1_3A5BL, //  223
+            0x7D3A_1145_1E65_DB6FL, 0x51E9_8A8A_A516_F879L, //  224
+            0x537C_0B83_6999_3CF5L, 0x0BF1_0707_18B9_FAFCL, //  225
+            0x6F50_0F59_E221_A69CL, 0x0FEC_095E_CBA2_A3FAL, //  226
+            0x4A35_5F91_416B_C468L, 0x0A9D_5B94_87C1_C2A7L, //  227
+            0x62F1_D4C1_AC8F_B08AL, 0x637C_7A1B_5FAD_0389L, //  228
+            0x41F6_8DD6_730A_75B1L, 0x6CFD_A6BC_EA73_57B1L, //  229
+            0x57F3_67C8_9963_4797L, 0x66A7_88FB_E344_74EBL, //  230
+            0x7544_8A60_CC84_5F75L, 0x08DF_614F_D9B0_9BE4L, //  231
+            0x4E2D_B195_DDAD_94F8L, 0x5B3F_9635_3BCB_1298L, //  232
+            0x683C_ECC7_D23C_C6A0L, 0x79AA_1D9C_4FB9_6E20L, //  233
+            0x457D_F32F_E17D_D9C0L, 0x511C_13BD_8A7B_9EC0L, //  234
+            0x5CA7_EEEA_81FD_2256L, 0x16D0_1A52_0DFA_2900L, //  235
+            0x7B8A_93E3_57FC_2DC8L, 0x1E6A_CDC2_BD4D_8C00L, //  236
+            0x525C_6297_8FFD_73DAL, 0x699C_892C_7E33_B2ABL, //  237
+            0x6DD0_8374_BFFC_9A79L, 0x0CD0_B6E5_FD9A_438FL, //  238
+            0x4935_ACF8_7FFD_BC50L, 0x5DE0_79EE_A911_825FL, //  239
+            0x619C_E6A0_AAA7_A5C0L, 0x7D2B_4D3E_36C2_032AL, //  240
+            0x4113_446B_1C6F_C3D5L, 0x7E1C_DE29_79D6_ACC7L, //  241
+            0x56C4_5B39_7B3F_AFC7L, 0x7D7B_D2E1_F7C8_E65EL, //  242
+            0x73B0_79A1_F9AA_3FB5L, 0x274F_C3D7_F50B_DDD2L, //  243
+            0x4D20_5116_A671_7FCEL, 0x1A35_2D3A_A35D_3E8CL, //  244
+            0x66D5_C173_8897_5512L, 0x7846_E6F8_D9D1_A8BBL, //  245
+            0x448E_80F7_B064_E361L, 0x7AD9_EF50_9136_707DL, //  246
+            0x5B68_ABF4_EB31_2F2DL, 0x23CD_3F16_16F3_40A6L, //  247
+            0x79E0_E546_8EEC_3EE7L, 0x0511_A972_C944_5633L, //  248
+            0x5140_98D9_B49D_7F44L, 0x58B6_70F7_30D8_3977L, //  249
+            0x6C56_2122_4627_545BL, 0x4B9D_EBF4_4120_4C9FL, //  250
+            0x4839_6B6C_2EC4_E2E7L, 0x5D13_F2A2_D615_886AL, //  251
+            0x604C_8F3A_E906_83DFL, 0x516F_EE2E_72C7_608DL, //  252
+            0x4033_0A27_4604_57EAL, 0x364A_9EC9_A1DA_405EL, //  253
+            0x5599_62DF_0805_CA8DL, 0x730E_290C_D7CD_AB28L, //  254
+            0x7221_D929_6007_B8BDL, 0x1968_36BB_CA67_8EE0L, //  255
+            0x4C16_90C6_4005_25D3L, 0x3B9A_CF27_DC45_09EBL, //  256
+            0x6573_6BB3_0006_DD19L, 0x7A23_BEDF_D05C_0D39L, //  257
+            0x43A2_47CC_AAAF_3E11L, 0x26C2_7F3F_E03D_5E26L, //  258
+            0x5A2D_B510_E394_52C1L, 0x5E58_A9AA_8051_D2DEL, //  259
+            0x783C_F16B_DA1B_1902L, 0x2876_378E_006D_1927L, //  260
+            0x5028_A0F2_9167_6601L, 0x45A4_2509_559E_10C5L, //  261
+            0x6AE0_D698_C1DF_32ACL, 0x5CDA_DC0C_7228_165CL, //  262
+            0x4740_8F10_813F_771DL, 0x6891_E808_4C1A_B993L, //  263
+            0x5F00_BEC0_AC54_9ED2L, 0x3617_E00B_1023_A219L, //  264
+            0x7EAB_A900_E5C6_2918L, 0x481F_D564_1584_D821L, //  265
+            0x5472_70AB_43D9_70BBL, 0x056A_8E42_B903_3AC1L, //  266
+            0x7098_9639_AFCC_964EL, 0x5C8E_1303_A159_A3ACL, //  267
+            0x4B10_6426_7533_0EDFL, 0x1309_6202_6B91_17C8L, //  268
+            0x6415_DADD_F199_6929L, 0x440C_82AD_E4C1_750AL, //  269
+            0x42B9_3C93_F666_461BL, 0x5808_571E_9880_F8B2L, //  270
+    };
+}
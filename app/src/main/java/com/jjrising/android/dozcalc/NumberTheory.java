@@ -0,0 +1,340 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.Arrays;
+
+/**
+ * Integer functions on 64 bit values: floored modulo, gcd and lcm, primality
+ * and factorization.
+ * <p>
+ * Primality is the Miller-Rabin test with the seven bases found by J.
+ * Sinclair, which between them leave no composite below 2^64, so the answer
+ * is certain. Below 2^31 the bases 2, 7 and 61 of G. Jaeschke are enough.
+ * Factors are split off by Pollard's rho with Brent's cycle finding, the
+ * differences multiplied together 128 at a time so that only one gcd is
+ * taken for each batch. Both run on residues in Montgomery form, where
+ * multiplying modulo n needs no 128 bit division.
+ * <p>
+ * The double versions take doubles that are whole numbers of magnitude below
+ * 2^63, and give NaN for anything else.
+ */
+final class NumberTheory {
+    private static final long[] BASES = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+    private static final long[] SMALL_BASES = {2, 7, 61};
+    private static final int[] SMALL_PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+    // Products of differences taken between gcds in Pollard's rho.
+    private static final int BATCH = 128;
+    private static final double TWO_63 = 0x1p63;
+
+    private NumberTheory() {
+    }
+
+    /**
+     * @return - whether a is a whole number that a long holds without Long.MIN_VALUE.
+     */
+    static boolean isWhole(double a) {
+        return a == Math.floor(a) && Math.abs(a) < TWO_63;
+    }
+
+    /**
+     * @return - a mod b with the sign of b, as a - b floor(a / b). NaN if b is
+     * zero.
+     */
+    static double mod(double a, double b) {
+        if (isWhole(a) && isWhole(b) && b != 0) {
+            return Math.floorMod((long) a, (long) b);
+        }
+        // The remainder of doubles is exact, only its sign needs moving.
+        double r = a % b;
+        return r != 0 && (r < 0) != (b < 0) ? r + b : r;
+    }
+
+    static double gcd(double a, double b) {
+        if (!isWhole(a) || !isWhole(b)) {
+            return Double.NaN;
+        }
+        return Rational.gcd(Math.abs((long) a), Math.abs((long) b));
+    }
+
+    /**
+     * @return - the least common multiple, zero if either is zero.
+     */
+    static double lcm(double a, double b) {
+        if (!isWhole(a) || !isWhole(b)) {
+            return Double.NaN;
+        }
+        long x = Math.abs((long) a);
+        long y = Math.abs((long) b);
+        if (x == 0 || y == 0) {
+            return 0;
+        }
+        long m = x / Rational.gcd(x, y);
+        // Correctly rounded when it does not fit a long.
+        return Rational.productFits(m, y) ? m * y : Rational.valueOf(m).multiply(
+                Rational.valueOf(y)).doubleValue();
+    }
+
+    /**
+     * @return - 1 if a is a prime, 0 if it is any other whole number.
+     */
+    static double isPrime(double a) {
+        if (!isWhole(a)) {
+            return Double.NaN;
+        }
+        return isPrime((long) a) ? 1 : 0;
+    }
+
+    /**
+     * @return - the smallest prime factor of |a|, NaN when |a| is below 2.
+     */
+    static double smallestFactor(double a) {
+        if (!isWhole(a) || Math.abs(a) < 2) {
+            return Double.NaN;
+        }
+        return factor(Math.abs((long) a))[0];
+    }
+
+    static boolean isPrime(long n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int p : SMALL_PRIMES) {
+            if (n % p == 0) {
+                return n == p;
+            }
+        }
+        return n < 41 * 41 || millerRabin(n);
+    }
+
+    /**
+     * @param n - at least 2.
+     * @return - the prime factors of n in increasing order, each as many times
+     * as it divides n.
+     */
+    static long[] factor(long n) {
+        long[] factors = new long[64];
+        int count = 0;
+        for (int p : SMALL_PRIMES) {
+            while (n % p == 0) {
+                factors[count++] = p;
+                n /= p;
+            }
+        }
+        if (n > 1) {
+            count = split(n, factors, count);
+        }
+        Arrays.sort(factors, 0, count);
+        return Arrays.copyOf(factors, count);
+    }
+
+    /**
+     * Adds the prime factors of n, which has none below 41, to factors.
+     *
+     * @return - the new count of factors.
+     */
+    private static int split(long n, long[] factors, int count) {
+        if (n < 41 * 41) {
+            factors[count++] = n;
+            return count;
+        }
+        if (millerRabin(n)) {
+            factors[count++] = n;
+            return count;
+        }
+        long d = rho(new Montgomery(n));
+        count = split(d, factors, count);
+        return split(n / d, factors, count);
+    }
+
+    /**
+     * n - 1 = d 2^s, and a prime n has a^d = 1 or a^(d 2^r) = -1 for some
+     * r below s, for every base a.
+     *
+     * @param n - odd and above 41.
+     */
+    private static boolean millerRabin(long n) {
+        if (n >= 1L << 31) {
+            return millerRabin(new Montgomery(n));
+        }
+        // Residues below 2^31, whose products fit in a long.
+        int s = Long.numberOfTrailingZeros(n - 1);
+        long d = (n - 1) >> s;
+        for (long base : SMALL_BASES) {
+            long a = base % n;
+            if (a == 0) {
+                continue;
+            }
+            long x = 1;
+            for (long e = d; e != 0; e >>= 1) {
+                if ((e & 1) != 0) {
+                    x = x * a % n;
+                }
+                a = a * a % n;
+            }
+            if (x == 1 || x == n - 1) {
+                continue;
+            }
+            int r = 1;
+            for (; r < s; r++) {
+                x = x * x % n;
+                if (x == n - 1) {
+                    break;
+                }
+            }
+            if (r == s) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean millerRabin(Montgomery m) {
+        long n = m.n;
+        int s = Long.numberOfTrailingZeros(n - 1);
+        long d = (n - 1) >> s;
+        long minusOne = n - m.one;
+        for (long base : BASES) {
+            long a = base % n;
+            if (a == 0) {
+                continue;
+            }
+            long x = m.pow(m.toMontgomery(a), d);
+            if (x == m.one || x == minusOne) {
+                continue;
+            }
+            int r = 1;
+            for (; r < s; r++) {
+                x = m.multiply(x, x);
+                if (x == minusOne) {
+                    break;
+                }
+            }
+            if (r == s) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pollard's rho with Brent's cycle finding, on x^2 + c for c = 1, 2, ...
+     * until one gives a proper factor. Residues stay in Montgomery form, as
+     * multiplying by R changes no gcd with n.
+     *
+     * @param m - arithmetic modulo an odd composite n.
+     * @return - a factor of n, neither 1 nor n.
+     */
+    private static long rho(Montgomery m) {
+        long n = m.n;
+        for (long c = 1; ; c++) {
+            long y = m.one;
+            long x = y;
+            long saved = y;
+            long q = m.one;
+            long g = 1;
+            for (long r = 1; g == 1; r <<= 1) {
+                x = y;
+                for (long i = 0; i < r; i++) {
+                    y = m.square(y, c);
+                }
+                for (long k = 0; k < r && g == 1; k += BATCH) {
+                    saved = y;
+                    long steps = Math.min(BATCH, r - k);
+                    for (long i = 0; i < steps; i++) {
+                        y = m.square(y, c);
+                        q = m.multiply(q, Math.abs(x - y));
+                    }
+                    g = Rational.gcd(q, n);
+                }
+            }
+            if (g == n) {
+                // The batch went past the factor, so retrace it one step at
+                // a time.
+                do {
+                    saved = m.square(saved, c);
+                    g = Rational.gcd(Math.abs(x - saved), n);
+                } while (g == 1);
+            }
+            if (g != n) {
+                return g;
+            }
+        }
+    }
+
+    /**
+     * Arithmetic modulo an odd n below 2^63 on residues x R mod n, with
+     * R = 2^64. The product of two such residues is reduced by adding the
+     * multiple of n that clears its low half.
+     */
+    private static final class Montgomery {
+        final long n;
+        // -1 / n modulo 2^64.
+        final long inverse;
+        // R mod n and R^2 mod n.
+        final long one;
+        final long r2;
+
+        Montgomery(long n) {
+            this.n = n;
+            // Newton's iteration doubles the correct low bits of 1 / n from
+            // the three that n itself has.
+            long inv = n;
+            for (int i = 0; i < 5; i++) {
+                inv *= 2 - n * inv;
+            }
+            inverse = -inv;
+            // 2^64 mod n, which is not zero for n odd.
+            one = Long.remainderUnsigned(-1L, n) + 1;
+            long r = one;
+            for (int i = 0; i < 64; i++) {
+                r <<= 1;
+                if (Long.compareUnsigned(r, n) >= 0) {
+                    r -= n;
+                }
+            }
+            r2 = r;
+        }
+
+        long toMontgomery(long a) {
+            return multiply(a, r2);
+        }
+
+        /**
+         * @return - a b / R mod n, for a and b below n.
+         */
+        long multiply(long a, long b) {
+            long low = a * b;
+            long high = MathUtils.multiplyHigh(a, b);
+            long m = low * inverse;
+            // m n has the same low half as -low, so the sum carries unless
+            // low is zero.
+            long t = high + unsignedMultiplyHigh(m, n) + (low != 0 ? 1 : 0);
+            return Long.compareUnsigned(t, n) >= 0 ? t - n : t;
+        }
+
+        /**
+         * @return - the rho step y^2 + c, modulo n.
+         */
+        long square(long y, long c) {
+            long z = multiply(y, y) + c;
+            return Long.compareUnsigned(z, n) >= 0 ? z - n : z;
+        }
+
+        long pow(long a, long e) {
+            long result = one;
+            while (e != 0) {
+                if ((e & 1) != 0) {
+                    result = multiply(result, a);
+                }
+                e >>= 1;
+                if (e != 0) {
+                    a = multiply(a, a);
+                }
+            }
+            return result;
+        }
+
+        private static long unsignedMultiplyHigh(long a, long b) {
+            return MathUtils.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+        }
+    }
+}
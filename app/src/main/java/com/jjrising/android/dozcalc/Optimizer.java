@@ -0,0 +1,140 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+
+/**
+ * Simplifies a syntax tree before it is compiled, so that every evaluation of
+ * the compiled program does less work.
+ * <ul>
+ * <li>Operators and functions whose operands are all constant are folded into a
+ * single constant. Sums, differences, products and whole powers of whole
+ * constants are folded exactly in longs while they fit, see
+ * {@link Operator#applyLong}, and the constant keeps its exact value.</li>
+ * <li>The identities {@code x+0}, {@code 0+x}, {@code x-0}, {@code x*1},
+ * {@code 1*x}, {@code x/1} and {@code x^1} are replaced with {@code x}.</li>
+ * <li>{@code x^2} becomes {@link Function.function#SQUARE}.</li>
+ * </ul>
+ * All of these give the same result as evaluating the original tree, except
+ * that {@code -0+0} becomes {@code -0} rather than {@code 0}, and that whole
+ * numbers folded in longs stay exact past 2^53 and are never {@code -0}.
+ * Variables are never removed, so the compiled program expects the same
+ * values.
+ */
+class Optimizer {
+    private int eliminated = 0;
+
+    /**
+     * Builds the simplified tree. Nodes that can not be simplified are shared
+     * with the original tree, which is left untouched.
+     *
+     * @param root - the root of the syntax tree.
+     * @return - the root of the simplified tree.
+     */
+    ExpressionNode optimize(ExpressionNode root) {
+        ArrayList<ExpressionNode> order = ExpressionNode.postOrder(root);
+        // The simplified operands of the nodes still to be visited.
+        ArrayList<ExpressionNode> stack = new ArrayList<>();
+        for (int i = 0, size = order.size(); i < size; i++) {
+            ExpressionNode node = order.get(i);
+            switch (node.getKind()) {
+                case OPERATOR:
+                    ExpressionNode right = stack.remove(stack.size() - 1);
+                    ExpressionNode left = stack.remove(stack.size() - 1);
+                    stack.add(simplify((OperatorNode) node, left, right));
+                    break;
+                case FUNCTION:
+                    ExpressionNode operand = stack.remove(stack.size() - 1);
+                    stack.add(simplify((FunctionNode) node, operand));
+                    break;
+                default:
+                    stack.add(node);
+            }
+        }
+        ExpressionNode result = stack.get(0);
+        eliminated += order.size() - ExpressionNode.postOrder(result).size();
+        return result;
+    }
+
+    /**
+     * @return - how many nodes the trees passed to {@link #optimize} have lost
+     * so far.
+     */
+    int getEliminated() {
+        return eliminated;
+    }
+
+    private static ExpressionNode simplify(OperatorNode node, ExpressionNode left,
+                                           ExpressionNode right) {
+        Operator.operator op = node.getOperator();
+        if (isConstant(left) && isConstant(right)) {
+            Rational exact = Operator.applyLong(op, ((ConstantNode) left).getRational(),
+                    ((ConstantNode) right).getRational());
+            if (exact != null) {
+                return new ConstantNode(exact.doubleValue(), exact, node.getStart(),
+                        node.getEnd());
+            }
+            return new ConstantNode(Operator.apply(op, value(left), value(right)),
+                    node.getStart(), node.getEnd());
+        }
+        switch (op) {
+            case ADD:
+                if (isConstant(left, 0)) {
+                    return right;
+                } else if (isConstant(right, 0)) {
+                    return left;
+                }
+                break;
+            case SUBTRACT:
+                if (isConstant(right, 0)) {
+                    return left;
+                }
+                break;
+            case MULTIPLY:
+                if (isConstant(left, 1)) {
+                    return right;
+                } else if (isConstant(right, 1)) {
+                    return left;
+                }
+                break;
+            case DIVIDE:
+                if (isConstant(right, 1)) {
+                    return left;
+                }
+                break;
+            case EXPONENT:
+                if (isConstant(right, 1)) {
+                    return left;
+                } else if (isConstant(right, 2)) {
+                    return new FunctionNode(Function.function.SQUARE, left,
+                            node.getStart(), node.getEnd());
+                }
+                break;
+        }
+        if (left == node.getLeft() && right == node.getRight()) {
+            return node;
+        }
+        return new OperatorNode(op, left, right);
+    }
+
+    private static ExpressionNode simplify(FunctionNode node, ExpressionNode operand) {
+        if (isConstant(operand)) {
+            return new ConstantNode(Function.apply(node.getFunction(), value(operand)),
+                    node.getStart(), node.getEnd());
+        } else if (operand == node.getOperand()) {
+            return node;
+        }
+        return new FunctionNode(node.getFunction(), operand, node.getStart(), node.getEnd());
+    }
+
+    private static boolean isConstant(ExpressionNode node) {
+        return node.getKind() == ExpressionNode.kind.CONSTANT;
+    }
+
+    private static boolean isConstant(ExpressionNode node, double value) {
+        return isConstant(node) && value(node) == value;
+    }
+
+    private static double value(ExpressionNode node) {
+        return ((ConstantNode) node).getValue();
+    }
+}
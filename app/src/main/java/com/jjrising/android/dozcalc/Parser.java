@@ -0,0 +1,534 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass parser turning the elements of an {@link Expression} into a tree
+ * of {@link ExpressionNode}s.
+ * <p>
+ * Operands and pending operators are kept on two stacks. Before an operator is
+ * pushed, every operator on the stack that binds at least as tightly, going by
+ * the precedence and associativity defined in {@link Operator} and
+ * {@link Function}, is reduced into a node. Each element is therefore pushed and
+ * popped at most once and parsing is linear in the length of the expression.
+ * The stacks are explicit, so deeply nested input can not overflow the call
+ * stack.
+ * <p>
+ * The stacks are immutable linked lists, so {@link #copy()} is constant time
+ * and a copy can carry on parsing without disturbing the original. Every
+ * operand also knows how to find its value, which lets {@link #preview()} give
+ * the value of the elements consumed so far by reducing only the pending
+ * operators. Values are only worked out when a preview asks for them, and then
+ * kept, so parsing itself does no arithmetic beyond the value of the number
+ * being read, which grows with each digit.
+ * <p>
+ * Values are folded the way {@link Optimizer} folds constants for
+ * {@link Expression#calc()}, whole numbers exactly in longs while they fit,
+ * so a preview is what calc() would give. Pending sums, differences and
+ * products of whole numbers are also composed into a single map
+ * {@code p x + q} of the operand still being entered, so while the operand
+ * stays within the range where none of them overflows, a preview costs the
+ * same however many of them there are.
+ */
+class Parser {
+    private static final Rational TWELVE = Rational.valueOf(12);
+
+    private final List<ExpressionElement> express;
+    private int consumed = 0;
+    private Operand operands;
+    private Pending operators;
+    // Index of the first digit of the number being read, -1 if there is none.
+    private int digitStart = -1;
+    // The value of the digits read so far, null after a second point.
+    private Rational digitValue;
+    // The place value of the last digit read after the point, one at the
+    // point itself, null before it.
+    private Rational digitUnit;
+    private boolean expectOperand = true;
+    private boolean hasVariables = false;
+    private CalculationError error;
+
+    /**
+     * @param express - the elements to parse. They are read as they are
+     *                consumed, so elements may be appended while parsing.
+     */
+    Parser(List<ExpressionElement> express) {
+        this.express = express;
+    }
+
+    private Parser(Parser other) {
+        this.express = other.express;
+        this.consumed = other.consumed;
+        this.operands = other.operands;
+        this.operators = other.operators;
+        this.digitStart = other.digitStart;
+        this.digitValue = other.digitValue;
+        this.digitUnit = other.digitUnit;
+        this.expectOperand = other.expectOperand;
+        this.hasVariables = other.hasVariables;
+        this.error = other.error;
+    }
+
+    /**
+     * @param express - the elements of the expression, in input order.
+     * @return - the root of the syntax tree.
+     * @throws CalculationError - if the expression is malformed. The error holds
+     *                          the index of the offending element.
+     */
+    static ExpressionNode parse(List<ExpressionElement> express) throws CalculationError {
+        Parser parser = new Parser(express);
+        for (int i = 0, size = express.size(); i < size; i++) {
+            parser.advance();
+        }
+        return parser.finish();
+    }
+
+    /**
+     * @return - a parser in the same state as this one.
+     */
+    Parser copy() {
+        return new Parser(this);
+    }
+
+    /**
+     * Consumes the next element. Once an error has been found it is thrown
+     * again by every later call.
+     *
+     * @throws CalculationError - if the element can not follow the ones before it.
+     */
+    void advance() throws CalculationError {
+        if (error != null) {
+            throw error;
+        }
+        int position = consumed++;
+        try {
+            next(express.get(position), position);
+        } catch (CalculationError e) {
+            error = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Completes the tree. Pending operators are applied, so the parser should
+     * not be advanced afterwards.
+     *
+     * @return - the root of the syntax tree.
+     * @throws CalculationError - if the consumed elements do not form a whole
+     *                          expression.
+     */
+    ExpressionNode finish() throws CalculationError {
+        if (error != null) {
+            throw error;
+        }
+        //Check for empty expression
+        if (consumed == 0) {
+            return new ConstantNode(0.0, 0, 0);
+        }
+        flushDigits(consumed);
+        if (expectOperand) {
+            throw new CalculationError("Missing a Numeral somewhere.", consumed);
+        }
+        // Clear the remaining operators in the stack
+        while (operators != null) {
+            if (operators.element.getType() == ExpressionElement.type.PARENTHESES) {
+                throw new CalculationError("No ')' found.", operators.position);
+            }
+            reduce();
+        }
+        return operands.node;
+    }
+
+    /**
+     * The value the consumed elements would have if the expression ended here,
+     * with any open parentheses closed. Only the pending operators are applied,
+     * and the parser is left as it was.
+     *
+     * @return - the value, null if there is none yet or it depends on variables.
+     */
+    Numeral preview() {
+        if (error != null || consumed == 0 || hasVariables) {
+            return null;
+        }
+        Rational exact;
+        double value;
+        if (digitStart >= 0) {
+            if (digitValue == null) {
+                return null;
+            }
+            exact = digitValue;
+            value = exact.doubleValue();
+        } else if (expectOperand) {
+            return null;
+        } else {
+            value = operands.value();
+            exact = operands.exact;
+        }
+        Pending pending = operators;
+        while (pending != null) {
+            if (exact != null && exact.isLong()) {
+                long x = exact.longValue();
+                if (pending.composes(x)) {
+                    exact = Rational.valueOf(pending.p * x + pending.q);
+                    value = exact.doubleValue();
+                    pending = pending.below;
+                    continue;
+                }
+            }
+            ExpressionElement el = pending.element;
+            if (el.getType() == ExpressionElement.type.OPERATOR) {
+                Operator.operator op = ((Operator) el).getOperator();
+                double left = pending.left.value();
+                Rational folded = Operator.applyLong(op, pending.left.exact, exact);
+                value = folded != null ? folded.doubleValue() : Operator.apply(op, left, value);
+                exact = folded;
+            } else if (el.getType() == ExpressionElement.type.FUNCTION) {
+                value = Function.apply(((Function) el).getFunction(), value);
+                exact = null;
+            } // parentheses are closed
+            pending = pending.next;
+        }
+        return new Numeral(value, exact);
+    }
+
+    private void next(ExpressionElement el, int position) throws CalculationError {
+        ExpressionElement.type type = el.getType();
+        if (type == ExpressionElement.type.DIGIT) {
+            if (digitStart < 0) {
+                expectOperand(position);
+                digitStart = position;
+                digitValue = Rational.ZERO;
+                digitUnit = null;
+            }
+            try {
+                readDigit((Digit) el);
+            } catch (NumberException e) {
+                throw new CalculationError(e.getMessage(), position);
+            }
+            return;
+        }
+        flushDigits(position);
+        if (type == ExpressionElement.type.NUMBER) {
+            expectOperand(position);
+            Numeral numeral = (Numeral) el;
+            push(new ConstantNode(numeral.getValue(), numeral.getRational(), position,
+                    position + 1));
+        } else if (type == ExpressionElement.type.VARIABLE) {
+            expectOperand(position);
+            hasVariables = true;
+            push(new VariableNode(((Variable) el).getName(), position, position + 1));
+        } else if (type == ExpressionElement.type.FUNCTION) {
+            Function function = (Function) el;
+            if (function.associativity() == Function.associativity.RIGHT) {
+                expectOperand(position);
+                operators = new Pending(el, position, null, operators);
+            } else {
+                expectOperator(position);
+                Operand operand = operands;
+                operands = new Operand(new FunctionNode(function.getFunction(), operand.node,
+                        operand.node.getStart(), position + 1), el, operand, null, operand.next);
+            }
+        } else if (type == ExpressionElement.type.OPERATOR) {
+            expectOperator(position);
+            Operator operator = (Operator) el;
+            while (operators != null && bindsBefore(operators.element, operator)) {
+                reduce();
+            }
+            operators = new Pending(el, position, operands, operators);
+            expectOperand = true;
+        } else { // parentheses
+            if (((Paren) el).isOpen()) { // '('
+                expectOperand(position);
+                operators = new Pending(el, position, null, operators);
+            } else {  // ')'
+                expectOperator(position);
+                while (true) {
+                    if (operators == null) {
+                        throw new CalculationError("No '(' found.", position);
+                    }
+                    if (operators.element.getType() == ExpressionElement.type.PARENTHESES) {
+                        operators = operators.next;
+                        break;
+                    }
+                    reduce();
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the operator on top of the stack has to be applied before the
+     * incoming one.
+     */
+    private static boolean bindsBefore(ExpressionElement top, Operator incoming) {
+        ExpressionElement.type type = top.getType();
+        if (type == ExpressionElement.type.PARENTHESES) {
+            return false;
+        } else if (type == ExpressionElement.type.FUNCTION) {
+            return true;
+        }
+        Operator operator = (Operator) top;
+        return operator.precedence() > incoming.precedence()
+                || operator.precedence() == incoming.precedence()
+                && operator.associativity() == Operator.associativity.LEFT;
+    }
+
+    /**
+     * Pops the operator on top of the stack and replaces its operands with a
+     * node applying it.
+     */
+    private void reduce() {
+        Pending top = operators;
+        operators = top.next;
+        if (top.element.getType() == ExpressionElement.type.OPERATOR) {
+            Operator.operator op = ((Operator) top.element).getOperator();
+            Operand right = operands;
+            Operand left = right.next;
+            operands = new Operand(new OperatorNode(op, left.node, right.node), top.element,
+                    left, right, left.next);
+        } else {
+            Function.function func = ((Function) top.element).getFunction();
+            Operand operand = operands;
+            operands = new Operand(new FunctionNode(func, operand.node, top.position,
+                    operand.node.getEnd()), top.element, operand, null, operand.next);
+        }
+    }
+
+    private void flushDigits(int end) throws CalculationError {
+        if (digitStart < 0) {
+            return;
+        }
+        try {
+            Numeral numeral = digitNumeral(end);
+            push(new ConstantNode(numeral.getValue(), numeral.getRational(), digitStart, end));
+        } catch (NumberException e) {
+            throw new CalculationError(e.getMessage(), digitStart);
+        }
+        digitStart = -1;
+        digitValue = null;
+        digitUnit = null;
+    }
+
+    /**
+     * Adds a digit to the value of the number being read, in constant time
+     * while the number fits in longs. The number is still built from its
+     * digits once it is complete, see {@link #flushDigits(int)}, which also
+     * reports a second point.
+     */
+    private void readDigit(Digit digit) throws NumberException {
+        if (digitValue == null) {
+            return;
+        }
+        if (digit.isDot()) {
+            if (digitUnit != null) {
+                digitValue = null;
+            } else {
+                digitUnit = Rational.ONE;
+            }
+        } else if (digitUnit == null) {
+            digitValue = digitValue.multiply(TWELVE).add(Rational.valueOf(digit.getNum()));
+        } else {
+            digitUnit = digitUnit.divide(TWELVE);
+            digitValue = digitValue.add(digitUnit.multiply(Rational.valueOf(digit.getNum())));
+        }
+    }
+
+    private Numeral digitNumeral(int end) throws NumberException {
+        ArrayList<Digit> digits = new ArrayList<>(end - digitStart);
+        for (int i = digitStart; i < end; i++) {
+            digits.add((Digit) express.get(i));
+        }
+        return new Numeral(digits);
+    }
+
+    private void push(ExpressionNode node) {
+        operands = new Operand(node, operands);
+        expectOperand = false;
+    }
+
+    private void expectOperand(int position) throws CalculationError {
+        if (!expectOperand) {
+            throw new CalculationError("Missing an operator.", position);
+        }
+    }
+
+    private void expectOperator(int position) throws CalculationError {
+        if (expectOperand) {
+            throw new CalculationError("Missing a Numeral somewhere.", position);
+        }
+    }
+
+    /**
+     * An operand on the stack. Constants and variables know their value from
+     * the start, the others apply their operator or function to the operands
+     * they were reduced from the first time the value is asked for.
+     * Operands are shared between copies of the parser, so like
+     * {@link #preview()} this is for one thread at a time.
+     */
+    private static final class Operand {
+        final ExpressionNode node;
+        final Operand next;
+        // The operator or function, null if the value is known.
+        private final ExpressionElement applied;
+        private final Operand left;
+        // Null for a function.
+        private final Operand right;
+        private double value;
+        // The exact value once known, null if it was rounded.
+        private Rational exact;
+        private boolean known;
+
+        Operand(ExpressionNode node, Operand next) {
+            this(node, null, null, null, next);
+            if (node.getKind() == ExpressionNode.kind.CONSTANT) {
+                this.value = ((ConstantNode) node).getValue();
+                this.exact = ((ConstantNode) node).getRational();
+            } else {
+                this.value = Double.NaN;
+            }
+            this.known = true;
+        }
+
+        Operand(ExpressionNode node, ExpressionElement applied, Operand left, Operand right,
+                Operand next) {
+            this.node = node;
+            this.applied = applied;
+            this.left = left;
+            this.right = right;
+            this.next = next;
+        }
+
+        /**
+         * Works out the values not yet known below this one in post order, on
+         * an explicit stack so that deeply nested input can not overflow the
+         * call stack.
+         */
+        double value() {
+            if (known) {
+                return value;
+            }
+            ArrayList<Operand> stack = new ArrayList<>();
+            stack.add(this);
+            while (!stack.isEmpty()) {
+                Operand top = stack.get(stack.size() - 1);
+                if (!top.left.known) {
+                    stack.add(top.left);
+                } else if (top.right != null && !top.right.known) {
+                    stack.add(top.right);
+                } else {
+                    top.apply();
+                    stack.remove(stack.size() - 1);
+                }
+            }
+            return value;
+        }
+
+        private void apply() {
+            if (right != null) {
+                Operator.operator op = ((Operator) applied).getOperator();
+                exact = Operator.applyLong(op, left.exact, right.exact);
+                value = exact != null ? exact.doubleValue()
+                        : Operator.apply(op, left.value, right.value);
+            } else {
+                value = Function.apply(((Function) applied).getFunction(), left.value);
+            }
+            known = true;
+        }
+    }
+
+    /**
+     * An operator, function or parenthesis on the stack.
+     * <p>
+     * The first time a preview reaches it with a whole operand x, an entry
+     * works out the map {@code p x + q} that it and the entries below it give,
+     * down to the first one that is not a sum, difference or product with a
+     * whole left operand, or a parenthesis. Bound is the largest |x| for which
+     * none of the steps overflows a long, so that folding them one at a time
+     * would give the same. The map is computed with wrapping products: when
+     * the result fits, so does the wrapped one.
+     */
+    private static final class Pending {
+        final ExpressionElement element;
+        final int position;
+        // The left operand of an operator, null otherwise.
+        final Operand left;
+        final Pending next;
+        private boolean composed;
+        private long p;
+        private long q;
+        // -1 if the map does not hold for any operand.
+        private long bound;
+        // The first entry below the ones the map covers.
+        private Pending below;
+
+        Pending(ExpressionElement element, int position, Operand left, Pending next) {
+            this.element = element;
+            this.position = position;
+            this.left = left;
+            this.next = next;
+        }
+
+        /**
+         * @return - whether the map of this entry holds for x, so that the
+         * preview can go on from {@link #below} with {@code p x + q}.
+         */
+        boolean composes(long x) {
+            if (!composed) {
+                // Entries below are composed first, on an explicit stack.
+                ArrayList<Pending> stack = new ArrayList<>();
+                for (Pending e = this; e != null && !e.composed; e = e.next) {
+                    stack.add(e);
+                }
+                for (int i = stack.size() - 1; i >= 0; i--) {
+                    stack.get(i).compose();
+                }
+            }
+            return x != Long.MIN_VALUE && Math.abs(x) <= bound;
+        }
+
+        private void compose() {
+            composed = true;
+            // The identity, unless the entry below has a map.
+            p = 1;
+            q = 0;
+            bound = Long.MAX_VALUE;
+            below = next;
+            if (next != null && next.bound >= 0) {
+                p = next.p;
+                q = next.q;
+                bound = next.bound;
+                below = next.below;
+            }
+            ExpressionElement.type type = element.getType();
+            if (type == ExpressionElement.type.PARENTHESES) {
+                return;
+            }
+            Operator.operator op = type == ExpressionElement.type.OPERATOR
+                    ? ((Operator) element).getOperator() : null;
+            if (op != Operator.operator.ADD && op != Operator.operator.SUBTRACT
+                    && op != Operator.operator.MULTIPLY) {
+                bound = -1;
+                return;
+            }
+            left.value();
+            if (left.exact == null || !left.exact.isLong()
+                    || left.exact.longValue() == Long.MIN_VALUE) {
+                bound = -1;
+                return;
+            }
+            long a = left.exact.longValue();
+            if (op == Operator.operator.MULTIPLY) {
+                bound = a == 0 ? Long.MAX_VALUE : bound / Math.abs(a);
+                p *= a;
+            } else {
+                q += p * a;
+                p = op == Operator.operator.ADD ? p : -p;
+                bound -= Math.abs(a);
+            }
+            if (bound < 0) {
+                bound = -1;
+            }
+        }
+    }
+}
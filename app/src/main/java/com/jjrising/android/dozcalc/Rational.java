@@ -0,0 +1,494 @@
+package com.jjrising.android.dozcalc;
+
+import java.math.BigInteger;
+
+/**
+ * An exact fraction in lowest terms, with a positive denominator.
+ * <p>
+ * Numerator and denominator are kept in longs for as long as they fit, every
+ * product checked for overflow first, see {@link #productFits}. Only a step
+ * that would overflow is done with {@link BigInteger}s instead, and a result that fits in
+ * longs again goes back to them. Nothing is rounded until the value is asked
+ * for as a double or as dozenal digits.
+ */
+final class Rational implements Comparable<Rational> {
+    static final Rational ZERO = new Rational(0, 1);
+    static final Rational ONE = new Rational(1, 1);
+
+    // Powers beyond this many bits are left to doubles, where they overflow
+    // or underflow anyway.
+    static final int MAX_POW_BITS = 1 << 14;
+    // Fractions with both parts at most this read as doubles with one division.
+    private static final long MAX_EXACT_LONG = 1L << 53;
+    private static final long[] POW12 = new long[18];
+
+    static {
+        POW12[0] = 1;
+        for (int i = 1; i < POW12.length; i++) {
+            POW12[i] = 12 * POW12[i - 1];
+        }
+    }
+
+    // The value while it fits in longs, with Long.MIN_VALUE left out so that
+    // every numerator can be negated. Otherwise bigNum and bigDen hold it.
+    private final long num;
+    private final long den;
+    private final BigInteger bigNum;
+    private final BigInteger bigDen;
+
+    private Rational(long num, long den) {
+        this.num = num;
+        this.den = den;
+        this.bigNum = null;
+        this.bigDen = null;
+    }
+
+    private Rational(BigInteger num, BigInteger den) {
+        this.num = 0;
+        this.den = 0;
+        this.bigNum = num;
+        this.bigDen = den;
+    }
+
+    static Rational valueOf(long value) {
+        if (value == Long.MIN_VALUE) {
+            return new Rational(BigInteger.valueOf(value), BigInteger.ONE);
+        }
+        return new Rational(value, 1);
+    }
+
+    static Rational valueOf(BigInteger value) {
+        return reduced(value, BigInteger.ONE);
+    }
+
+    /**
+     * @param num - numerator.
+     * @param den - denominator, not zero.
+     * @return - num / den in lowest terms.
+     * @throws ArithmeticException - if den is zero.
+     */
+    static Rational of(long num, long den) {
+        if (den == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (num == Long.MIN_VALUE || den == Long.MIN_VALUE) {
+            return of(BigInteger.valueOf(num), BigInteger.valueOf(den));
+        }
+        if (den < 0) {
+            num = -num;
+            den = -den;
+        }
+        long g = gcd(Math.abs(num), den);
+        return new Rational(num / g, den / g);
+    }
+
+    static Rational of(BigInteger num, BigInteger den) {
+        if (den.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (den.signum() < 0) {
+            num = num.negate();
+            den = den.negate();
+        }
+        BigInteger g = num.gcd(den);
+        if (!g.equals(BigInteger.ONE)) {
+            num = num.divide(g);
+            den = den.divide(g);
+        }
+        return reduced(num, den);
+    }
+
+    /**
+     * @return - num / den, already in lowest terms, in longs if it fits.
+     */
+    private static Rational reduced(BigInteger num, BigInteger den) {
+        if (num.bitLength() < 64 && num.longValue() != Long.MIN_VALUE && den.bitLength() < 64) {
+            return new Rational(num.longValue(), den.longValue());
+        }
+        return new Rational(num, den);
+    }
+
+    /**
+     * Every finite double is a fraction with a power of two below it.
+     *
+     * @param value - a finite double.
+     * @return - the same value, exactly.
+     */
+    static Rational valueOf(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Not a finite number: " + value);
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int binExp = (int) ((bits & DoubleConstants.EXPONENT_MASK) >> DoubleConstants.EXP_SHIFT);
+        long significand = bits & DoubleConstants.MANTISSA_MASK;
+        if (binExp == 0) {
+            binExp = 1;
+        } else {
+            significand |= DoubleConstants.MANTISSA_HOB;
+        }
+        if (significand == 0) {
+            return ZERO;
+        }
+        binExp -= DoubleConstants.EXP_BIAS + DoubleConstants.EXP_SHIFT;
+        int zeros = Long.numberOfTrailingZeros(significand);
+        significand >>= zeros;
+        binExp += zeros;
+        if (bits < 0) {
+            significand = -significand;
+        }
+        if (binExp >= 0) {
+            return reduced(BigInteger.valueOf(significand).shiftLeft(binExp), BigInteger.ONE);
+        } else if (binExp > -63) {
+            return new Rational(significand, 1L << -binExp);
+        }
+        return new Rational(BigInteger.valueOf(significand), BigInteger.ONE.shiftLeft(-binExp));
+    }
+
+    /**
+     * @param digits     - digit values, 0 to 11, most significant first.
+     * @param nDigits    - number of digits to use.
+     * @param pointIndex - number of digits before the point.
+     * @return - the value of the dozenal numeral, exactly.
+     */
+    static Rational fromDigits(int[] digits, int nDigits, int pointIndex) {
+        int first = 0;
+        while (first < nDigits && digits[first] == 0) {
+            first++;
+        }
+        int last = nDigits;
+        while (last > pointIndex && last > first && digits[last - 1] == 0) {
+            last--;
+        }
+        // The digits from first to last, over 12^fraction.
+        int fraction = Math.max(last - pointIndex, 0);
+        if (last - first < POW12.length && fraction < POW12.length) {
+            long value = 0;
+            for (int i = first; i < last; i++) {
+                value = 12 * value + digits[i];
+            }
+            return of(value, POW12[fraction]);
+        }
+        BigInteger value = BigInteger.ZERO;
+        BigInteger twelve = BigInteger.valueOf(12);
+        for (int i = first; i < last; i++) {
+            value = value.multiply(twelve).add(BigInteger.valueOf(digits[i]));
+        }
+        return of(value, twelve.pow(fraction));
+    }
+
+    private boolean isBig() {
+        return bigNum != null;
+    }
+
+    BigInteger getNumerator() {
+        return isBig() ? bigNum : BigInteger.valueOf(num);
+    }
+
+    BigInteger getDenominator() {
+        return isBig() ? bigDen : BigInteger.valueOf(den);
+    }
+
+    int signum() {
+        return isBig() ? bigNum.signum() : Long.signum(num);
+    }
+
+    boolean isInteger() {
+        return isBig() ? bigDen.equals(BigInteger.ONE) : den == 1;
+    }
+
+    /**
+     * @return - whether the value is a whole number that fits in a long.
+     */
+    boolean isLong() {
+        return !isBig() && den == 1;
+    }
+
+    /**
+     * @return - the value, for a whole number that fits in a long.
+     */
+    long longValue() {
+        return num;
+    }
+
+    /**
+     * @return - the number of bits of the larger of numerator and denominator.
+     */
+    int bitLength() {
+        if (isBig()) {
+            return Math.max(bigNum.bitLength(), bigDen.bitLength());
+        }
+        return 64 - Long.numberOfLeadingZeros(Math.max(Math.abs(num), den));
+    }
+
+    Rational negate() {
+        if (!isBig() && num != Long.MIN_VALUE) {
+            return new Rational(-num, den);
+        }
+        return reduced(getNumerator().negate(), getDenominator());
+    }
+
+    Rational abs() {
+        return signum() < 0 ? negate() : this;
+    }
+
+    Rational add(Rational other) {
+        if (signum() == 0) {
+            return other;
+        } else if (other.signum() == 0) {
+            return this;
+        }
+        if (!isBig() && !other.isBig()) {
+            // With g = gcd(b, d), a/b + c/d = (a d/g + c b/g) / (b d/g), and
+            // the only factors left to cancel are those of g.
+            long g = gcd(den, other.den);
+            long b = den / g;
+            long otherB = other.den / g;
+            if (productFits(num, otherB) && productFits(other.num, b)
+                    && productFits(b, other.den)) {
+                long x = num * otherB;
+                long y = other.num * b;
+                long n = x + y;
+                // The sum overflowed if its sign differs from both terms'.
+                if (((x ^ n) & (y ^ n)) >= 0 && n != Long.MIN_VALUE) {
+                    long d = b * other.den;
+                    if (n == 0) {
+                        return ZERO;
+                    } else if (g != 1) {
+                        long h = gcd(Math.abs(n), g);
+                        n /= h;
+                        d /= h;
+                    }
+                    return new Rational(n, d);
+                }
+            }
+            // The same steps in BigIntegers, with g already known.
+            BigInteger n = BigInteger.valueOf(num).multiply(BigInteger.valueOf(otherB))
+                    .add(BigInteger.valueOf(other.num).multiply(BigInteger.valueOf(b)));
+            BigInteger d = BigInteger.valueOf(b).multiply(BigInteger.valueOf(other.den));
+            if (n.signum() == 0) {
+                return ZERO;
+            } else if (g != 1) {
+                long h = gcd(n.mod(BigInteger.valueOf(g)).longValue(), g);
+                if (h != 1) {
+                    n = n.divide(BigInteger.valueOf(h));
+                    d = d.divide(BigInteger.valueOf(h));
+                }
+            }
+            return reduced(n, d);
+        }
+        BigInteger d = getDenominator();
+        BigInteger otherD = other.getDenominator();
+        return of(getNumerator().multiply(otherD).add(other.getNumerator().multiply(d)),
+                d.multiply(otherD));
+    }
+
+    Rational subtract(Rational other) {
+        return add(other.negate());
+    }
+
+    Rational multiply(Rational other) {
+        if (signum() == 0 || other.signum() == 0) {
+            return ZERO;
+        }
+        if (!isBig() && !other.isBig()) {
+            // Cancelling across first keeps the product in lowest terms.
+            long g1 = gcd(Math.abs(num), other.den);
+            long g2 = gcd(Math.abs(other.num), den);
+            long a = num / g1;
+            long c = other.num / g2;
+            long b = den / g2;
+            long d = other.den / g1;
+            if (productFits(a, c) && productFits(b, d) && a * c != Long.MIN_VALUE) {
+                return new Rational(a * c, b * d);
+            }
+            return reduced(BigInteger.valueOf(a).multiply(BigInteger.valueOf(c)),
+                    BigInteger.valueOf(b).multiply(BigInteger.valueOf(d)));
+        }
+        return of(getNumerator().multiply(other.getNumerator()),
+                getDenominator().multiply(other.getDenominator()));
+    }
+
+    /**
+     * @throws ArithmeticException - if the divisor is zero.
+     */
+    Rational divide(Rational other) {
+        return multiply(other.reciprocal());
+    }
+
+    /**
+     * @throws ArithmeticException - if the value is zero.
+     */
+    Rational reciprocal() {
+        if (signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        } else if (!isBig()) {
+            return num < 0 ? new Rational(-den, -num) : new Rational(den, num);
+        }
+        return bigNum.signum() < 0 ? reduced(bigDen.negate(), bigNum.negate())
+                : reduced(bigDen, bigNum);
+    }
+
+    /**
+     * Exponentiation by squaring. Numerator and denominator have no common
+     * factor, so neither have their powers and nothing needs cancelling.
+     *
+     * @param n - the power, which may be negative.
+     * @throws ArithmeticException - if the value is zero and n negative.
+     */
+    Rational pow(long n) {
+        if (n < 0) {
+            return reciprocal().pow(-n);
+        }
+        if (!isBig()) {
+            long n1 = 1;
+            long d1 = 1;
+            long bn = num;
+            long bd = den;
+            long e = n;
+            while (e != 0) {
+                if ((e & 1) != 0) {
+                    if (!productFits(n1, bn) || !productFits(d1, bd)) {
+                        break;
+                    }
+                    n1 *= bn;
+                    d1 *= bd;
+                }
+                e >>= 1;
+                if (e != 0) {
+                    if (!productFits(bn, bn) || !productFits(bd, bd)) {
+                        break;
+                    }
+                    bn *= bn;
+                    bd *= bd;
+                }
+            }
+            if (e == 0 && n1 != Long.MIN_VALUE) {
+                return new Rational(n1, d1);
+            }
+        }
+        int e = (int) n;
+        if (e != n) {
+            throw new ArithmeticException("Exponent too large: " + n);
+        }
+        return reduced(getNumerator().pow(e), getDenominator().pow(e));
+    }
+
+    /**
+     * @return - the double nearest to the value.
+     */
+    double doubleValue() {
+        if (!isBig() && den == 1) {
+            // Converting a long rounds to nearest already.
+            return num;
+        }
+        if (!isBig() && Math.abs(num) <= MAX_EXACT_LONG && den <= MAX_EXACT_LONG) {
+            // Both are exact as doubles, so the one division rounds correctly.
+            return (double) num / den;
+        }
+        BigInteger n = getNumerator().abs();
+        BigInteger d = getDenominator();
+        // The quotient is in (2^(e - 1), 2^(e + 1)). Take it to at least 55
+        // bits, or to the bits of the smallest subnormal plus two, keeping
+        // whether anything was left over in the lowest bit.
+        int e = n.bitLength() - d.bitLength();
+        int s = Math.min(55 - e, 1076);
+        BigInteger[] qr = s >= 0 ? n.shiftLeft(s).divideAndRemainder(d)
+                : n.divideAndRemainder(d.shiftLeft(-s));
+        long bits = qr[0].longValue() | (qr[1].signum() != 0 ? 1 : 0);
+        double value;
+        if (s == 1076) {
+            // Subnormal or close to it: round to whole units of the smallest,
+            // or to 53 bits if there are more of them, as up to 2^-1020.
+            int drop = Math.max(2, 64 - Long.numberOfLeadingZeros(bits) - 53);
+            long units = bits >> drop;
+            long rest = bits & ((1L << drop) - 1);
+            long half = 1L << (drop - 1);
+            if (rest > half || rest == half && (units & 1) != 0) {
+                units++;
+            }
+            value = Math.scalb((double) units, drop - 1076);
+        } else {
+            value = Math.scalb((double) bits, -s);
+        }
+        return signum() < 0 ? -value : value;
+    }
+
+    /**
+     * @param precision - significant dozenal digits, at least 1.
+     * @return - the value rounded to them.
+     */
+    DozenalDecimal toDozenalDecimal(int precision) {
+        DozenalDecimal n = isBig() ? DozenalDecimal.valueOf(bigNum) : DozenalDecimal.valueOf(num);
+        DozenalDecimal d = isBig() ? DozenalDecimal.valueOf(bigDen) : DozenalDecimal.valueOf(den);
+        return n.divide(d, precision);
+    }
+
+    @Override
+    public int compareTo(Rational other) {
+        if (!isBig() && !other.isBig() && productFits(num, other.den)
+                && productFits(other.num, den)) {
+            return Long.compare(num * other.den, other.num * den);
+        }
+        return getNumerator().multiply(other.getDenominator())
+                .compareTo(other.getNumerator().multiply(getDenominator()));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Rational)) {
+            return false;
+        }
+        Rational other = (Rational) obj;
+        if (isBig() != other.isBig()) {
+            return false;
+        } else if (!isBig()) {
+            return num == other.num && den == other.den;
+        }
+        return bigNum.equals(other.bigNum) && bigDen.equals(other.bigDen);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getNumerator().hashCode() + getDenominator().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isInteger() ? getNumerator().toString()
+                : getNumerator() + "/" + getDenominator();
+    }
+
+    /**
+     * Whether a b fits in a long. Checked up front rather than with
+     * Math.multiplyExact, as the exception it throws costs far more than
+     * redoing the step in BigIntegers.
+     */
+    static boolean productFits(long a, long b) {
+        // Operands of 62 bits between them can not overflow.
+        return Long.numberOfLeadingZeros(Math.abs(a)) + Long.numberOfLeadingZeros(Math.abs(b)) > 65
+                || MathUtils.multiplyHigh(a, b) == (a * b) >> 63;
+    }
+
+    /**
+     * Binary gcd of two non-negative longs.
+     */
+    static long gcd(long a, long b) {
+        if (a == 0) {
+            return b;
+        } else if (b == 0) {
+            return a;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+}
@@ -0,0 +1,114 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of results, keyed on the canonical text of the expression,
+ * which can be put in front of {@link Expression#calc()}.
+ * <p>
+ * Each entry keeps the value and its dozenal string, so a repeated expression
+ * is neither evaluated nor formatted again. Once the cache is full the least
+ * recently used entry is evicted. Errors are not cached.
+ * <p>
+ * The cache can be shared between threads. Evaluation happens outside the
+ * lock, so two threads missing on the same expression may both evaluate it.
+ */
+class ResultCache {
+    private final int capacity;
+    private final LinkedHashMap<String, Result> entries;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param capacity - the most results the cache holds.
+     */
+    ResultCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // Access order, so the eldest entry is the least recently used one.
+        entries = new LinkedHashMap<String, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                if (size() > ResultCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks the expression up, evaluating and formatting it on a miss.
+     *
+     * @param expression - the expression to evaluate.
+     * @return - the value of the expression and its dozenal string.
+     * @throws CalculationError - if the expression can not be evaluated.
+     */
+    Result calc(Expression expression) throws CalculationError {
+        String key = expression.getCanonicalText();
+        synchronized (this) {
+            Result result = entries.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+            misses++;
+        }
+        Numeral value = expression.calc();
+        Result result = new Result(value, value.toString());
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * The value of an expression together with its dozenal string.
+     */
+    static class Result {
+        private final Numeral value;
+        private final String text;
+
+        Result(Numeral value, String text) {
+            this.value = value;
+            this.text = text;
+        }
+
+        Numeral getValue() {
+            return value;
+        }
+
+        String getText() {
+            return text;
+        }
+    }
+}
@@ -27,6 +27,11 @@ class Symbols {
         put(Operator.operator.MULTIPLY, "*");
         put(Operator.operator.DIVIDE, "/");
         put(Operator.operator.EXPONENT, "^");
+        put(Operator.operator.COMBINATIONS, "C");
+        put(Operator.operator.PERMUTATIONS, "P");
+        put(Operator.operator.MOD, "mod");
+        put(Operator.operator.GCD, "gcd");
+        put(Operator.operator.LCM, "lcm");
 
         put(Paren.direction.OPEN, "(");
         put(Paren.direction.CLOSE, ")");
@@ -47,6 +52,8 @@ class Symbols {
         put(Function.function.LOGX, "log<sub><small>X</sub></small>");
         put(Function.function.LOG10, "log<sub><small>10</sub></small>");
         put(Function.function.LOGZ, "log<sub><small>z</sub></small>");
+        put(Function.function.IS_PRIME, "isPrime");
+        put(Function.function.FACTOR, "factor");
     }};
 
     static HashMap<String, SymbolCode> tagMap = new HashMap<String, SymbolCode>() {{
@@ -72,6 +79,11 @@ class Symbols {
         put("o/*", Operator.operator.MULTIPLY);
         put("o//", Operator.operator.DIVIDE);
         put("o/^", Operator.operator.EXPONENT);
+        put("o/nCr", Operator.operator.COMBINATIONS);
+        put("o/nPr", Operator.operator.PERMUTATIONS);
+        put("o/mod", Operator.operator.MOD);
+        put("o/gcd", Operator.operator.GCD);
+        put("o/lcm", Operator.operator.LCM);
 
         put("f/sin", Function.function.SIN);
         put("f/cos", Function.function.COS);
@@ -86,6 +98,8 @@ class Symbols {
         put("f/logx", Function.function.LOGX);
         put("f/log10", Function.function.LOG10);
         put("f/logz", Function.function.LOGZ);
+        put("f/isPrime", Function.function.IS_PRIME);
+        put("f/factor", Function.function.FACTOR);
     }};
 
     static char getCharacter(int i) {
@@ -0,0 +1,103 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentEvaluation {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void sharedExpressions() throws Exception {
+        String[] inputs = {
+                "23+5", "5.6-2*2", "12^2", "sqrt14", "4!", "(5.6-2*2)^2+sqrt14",
+                "12^2/(3+4!)-sqrt(X.6*E)+1.2*3.4-5/6", "sin(pi/6)+cos(0)"
+        };
+        final int n = inputs.length;
+        final Expression[] expressions = new Expression[n];
+        final String[] texts = new String[n];
+        final String[] expected = new String[n];
+        for (int i = 0; i < n; i++) {
+            expressions[i] = new Expression(inputs[i]);
+            texts[i] = expressions[i].getText();
+            expected[i] = new Expression(inputs[i]).calc().toString();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t;
+            results.add(pool.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int mismatches = 0;
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        int index = (i + offset) % n;
+                        if (!expected[index].equals(expressions[index].calc().toString())) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get().intValue());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(texts[i], expressions[i].getText());
+            assertEquals(expected[i], expressions[i].calc().toString());
+        }
+    }
+
+    @Test
+    public void sharedPowersOfThree() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            // Half the threads start from the top, building the cache from its end.
+            final boolean descending = (t & 1) != 0;
+            results.add(pool.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int mismatches = 0;
+                    for (int i = 0; i < 400; i++) {
+                        int p = descending ? 399 - i : i;
+                        // 3^p 2^2p is 12^p, a one followed by p zeros.
+                        FDBigInteger expected = new FDBigInteger(1, new int[p], 0, p);
+                        if (FDBigInteger.valueOfPow32(p, 2 * p).cmp(expected) != 0) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get().intValue());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DozenalDecimalTests {
+    private static final BigInteger TWELVE = BigInteger.valueOf(12);
+
+    @Test
+    public void text() throws NumberException {
+        assertEquals("1↋.↊5", DozenalDecimal.parse("1E.X5").toString());
+        assertEquals("-0.04", DozenalDecimal.parse("-0.0400").toString());
+        assertEquals("4.0e-4", DozenalDecimal.parse("0.0004").toString());
+        assertEquals("12345678", DozenalDecimal.parse("012345678").toString());
+        assertEquals("1.0e8", DozenalDecimal.parse("100000000").toString());
+        assertEquals("1.4e-1↊", DozenalDecimal.parse("1.4e-1X").toString());
+        assertEquals("1.23456789↊↋1e↊", DozenalDecimal.parse("123456789XE.1").toString());
+        assertEquals("0", DozenalDecimal.parse("-0.000").toString());
+        assertEquals("0.6", DozenalDecimal.valueOf(0.5).toString());
+        assertEquals("-0.16", DozenalDecimal.valueOf(-0.125).toString());
+        assertEquals("-100", DozenalDecimal.valueOf(-144L).toString());
+        assertEquals(DozenalDecimal.parse("-41X792678515120368"),
+                DozenalDecimal.valueOf(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void doubles() {
+        Random random = new Random(1728);
+        for (int i = 0; i < 2000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                assertEquals(d, DozenalDecimal.valueOf(d).doubleValue(), 0);
+            }
+        }
+        assertEquals(Double.MIN_VALUE, DozenalDecimal.valueOf(Double.MIN_VALUE).doubleValue(), 0);
+    }
+
+    @Test
+    public void arithmetic() throws NumberException {
+        Random random = new Random(20736);
+        for (int i = 0; i < 3000; i++) {
+            BigInteger a = randomMantissa(random);
+            BigInteger b = randomMantissa(random);
+            int ea = random.nextInt(100) - 50;
+            int eb = random.nextInt(100) - 50;
+            int precision = 1 + random.nextInt(60);
+            DozenalDecimal x = DozenalDecimal.parse(text(a, ea));
+            DozenalDecimal y = DozenalDecimal.parse(text(b, eb));
+            String message = x + " and " + y + " to " + precision;
+
+            int e = Math.min(ea, eb);
+            BigInteger sum = a.multiply(TWELVE.pow(ea - e)).add(b.multiply(TWELVE.pow(eb - e)));
+            assertEquals(message, rounded(sum, BigInteger.ONE, e, precision),
+                    x.add(y, precision));
+            BigInteger difference = a.multiply(TWELVE.pow(ea - e))
+                    .subtract(b.multiply(TWELVE.pow(eb - e)));
+            assertEquals(message, rounded(difference, BigInteger.ONE, e, precision),
+                    x.subtract(y, precision));
+            assertEquals(message, rounded(a.multiply(b), BigInteger.ONE, ea + eb, precision),
+                    x.multiply(y, precision));
+            if (b.signum() != 0) {
+                assertEquals(message, rounded(a, b, ea - eb, precision), x.divide(y, precision));
+            }
+            assertEquals(message, Integer.signum(a.multiply(TWELVE.pow(ea - e))
+                    .compareTo(b.multiply(TWELVE.pow(eb - e)))), x.compareTo(y));
+        }
+    }
+
+    @Test
+    public void farApart() throws NumberException {
+        DozenalDecimal one = DozenalDecimal.ONE;
+        DozenalDecimal tiny = DozenalDecimal.parse("1e-1000");
+        assertEquals(one, one.add(tiny, 10));
+        assertEquals(one, one.subtract(tiny, 10));
+        assertEquals(DozenalDecimal.parse("0.EEEEEEEEEEEE"), one.subtract(tiny, 12).subtract(
+                DozenalDecimal.parse("1e-10"), 12));
+        // Ties go to even unless something lies beyond them.
+        DozenalDecimal half = DozenalDecimal.parse("0.6");
+        assertEquals(DozenalDecimal.parse("2"), DozenalDecimal.parse("1").add(half, 1));
+        assertEquals(DozenalDecimal.parse("2"), DozenalDecimal.parse("2").add(half, 1));
+        assertEquals(DozenalDecimal.parse("3"), DozenalDecimal.parse("2").add(half, 1)
+                .add(half, 10).add(tiny, 1));
+        assertEquals(DozenalDecimal.parse("3"), DozenalDecimal.parse("2.6").add(tiny, 1));
+        assertEquals(DozenalDecimal.parse("2"), DozenalDecimal.parse("2.6").subtract(tiny, 1));
+    }
+
+    @Test
+    public void squareRoots() throws NumberException {
+        Random random = new Random(248832);
+        for (int i = 0; i < 1000; i++) {
+            BigInteger a = randomMantissa(random).abs();
+            int ea = random.nextInt(100) - 50;
+            int precision = 1 + random.nextInt(80);
+            DozenalDecimal x = DozenalDecimal.parse(text(a, ea));
+            // The root of a * 12^(ea - 2k), scaled by 12^k to p + 2 digits or more.
+            int k = precision + 2 - (a.toString(12).length() + ea) / 2;
+            if (ea + 2 * k < 0) {
+                k = -ea / 2 + 1;
+            }
+            BigInteger n = a.multiply(TWELVE.pow(ea + 2 * k));
+            BigInteger root = sqrt(n);
+            assertEquals(x + " to " + precision,
+                    rounded(root, !root.multiply(root).equals(n), -k, precision),
+                    x.sqrt(precision));
+        }
+        assertEquals("1.4↋79170↊07↋86", DozenalDecimal.valueOf(2).sqrt(14)
+                .toString());
+        assertEquals(DozenalDecimal.parse("1.6"), DozenalDecimal.parse("2.3").sqrt(5));
+    }
+
+    @Test
+    public void powers() throws NumberException {
+        assertEquals(DozenalDecimal.valueOf(1L << 62), DozenalDecimal.valueOf(2).pow(62, 30));
+        assertEquals(DozenalDecimal.parse("1e-84"), DozenalDecimal.valueOf(12).pow(-100, 1));
+        assertEquals(DozenalDecimal.ONE, DozenalDecimal.ZERO.pow(0, 1));
+
+        Random random = new Random(2985984);
+        for (int i = 0; i < 300; i++) {
+            BigInteger a = randomMantissa(random);
+            if (a.signum() == 0) {
+                continue;
+            }
+            int ea = random.nextInt(20) - 10;
+            int n = random.nextInt(60) - 30;
+            int precision = 1 + random.nextInt(40);
+            DozenalDecimal x = DozenalDecimal.parse(text(a, ea));
+            BigInteger num = n >= 0 ? a.pow(n) : BigInteger.ONE;
+            BigInteger den = n >= 0 ? BigInteger.ONE : a.pow(-n);
+            DozenalDecimal expected = rounded(num, den, ea * n, precision);
+            DozenalDecimal result = x.pow(n, precision);
+            // Within a unit in the last place, as 12^(top - precision) for the
+            // place top of the first digit of the exact power.
+            int scale = den.toString(12).length() + 1;
+            long top = ea * n + num.multiply(TWELVE.pow(scale)).divide(den).abs()
+                    .toString(12).length() - scale;
+            DozenalDecimal ulp = DozenalDecimal.parse(text(BigInteger.ONE, top - precision));
+            DozenalDecimal error = result.subtract(expected, 100);
+            String message = x + "^" + n + " to " + precision;
+            assertTrue(message, error.compareTo(ulp) <= 0 && error.negate().compareTo(ulp) <= 0);
+        }
+    }
+
+    private static BigInteger randomMantissa(Random random) {
+        StringBuilder digits = new StringBuilder();
+        for (int n = random.nextInt(80); n >= 0; n--) {
+            digits.append(Character.forDigit(random.nextInt(12), 12));
+        }
+        BigInteger value = new BigInteger(digits.toString(), 12);
+        return random.nextBoolean() ? value.negate() : value;
+    }
+
+    /**
+     * @return - value * 12^exp, written for {@link DozenalDecimal#parse}.
+     */
+    private static String text(BigInteger value, long exp) {
+        String digits = value.toString(12).replace('a', 'X').replace('b', 'E');
+        String e = Long.toString(Math.abs(exp), 12).replace('a', 'X').replace('b', 'E');
+        return digits + "e" + (exp < 0 ? "-" : "") + e;
+    }
+
+    /**
+     * @return - num / den * 12^exp, rounded half to even to precision digits.
+     */
+    private static DozenalDecimal rounded(BigInteger num, BigInteger den, long exp,
+                                          int precision) throws NumberException {
+        int k = precision + 2 + den.toString(12).length() - num.abs().toString(12).length();
+        BigInteger[] qr = k >= 0
+                ? num.multiply(TWELVE.pow(k)).divideAndRemainder(den)
+                : num.divideAndRemainder(den.multiply(TWELVE.pow(-k)));
+        return rounded(qr[0], qr[1].signum() != 0, exp - k, precision);
+    }
+
+    /**
+     * @param q      - digits, more than precision of them if sticky.
+     * @param sticky - whether the value is a little more than q in magnitude.
+     */
+    private static DozenalDecimal rounded(BigInteger q, boolean sticky, long exp, int precision)
+            throws NumberException {
+        int drop = q.abs().toString(12).length() - precision;
+        if (drop > 0) {
+            BigInteger unit = TWELVE.pow(drop);
+            BigInteger[] qr = q.abs().divideAndRemainder(unit);
+            int cmp = qr[1].shiftLeft(1).compareTo(unit);
+            BigInteger rounded = qr[0];
+            if (cmp > 0 || cmp == 0 && (sticky || rounded.testBit(0))) {
+                rounded = rounded.add(BigInteger.ONE);
+            }
+            q = q.signum() < 0 ? rounded.negate() : rounded;
+            exp += drop;
+        }
+        return DozenalDecimal.parse(text(q, exp));
+    }
+
+    private static BigInteger sqrt(BigInteger n) {
+        if (n.signum() == 0) {
+            return n;
+        }
+        BigInteger x = BigInteger.ONE.shiftLeft(n.bitLength() / 2 + 1);
+        while (true) {
+            BigInteger y = x.add(n.divide(x)).shiftRight(1);
+            if (y.compareTo(x) >= 0) {
+                return x;
+            }
+            x = y;
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.jjrising.android.dozcalc;
 
 import org.junit.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Random;
 
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class ExpressionTests {
     @Test
@@ -116,4 +122,393 @@ public class ExpressionTests {
             fail(e.getMessage());
         }
     }
+
+    @Test
+    public void compiledExpressions() throws CalculationError, StringException {
+        Expression ex = new Expression("(5.6-2*2)^2+sqrt14");
+        CompiledExpression compiled = ex.compile();
+        assertEquals("6.3", new Numeral(compiled.evaluate()).toString());
+        assertEquals(compiled.evaluate(), compiled.evaluate(), 0);
+        assertEquals("6.3", ex.calc().toString());
+        assertEquals("6.3", ex.calc().toString());
+    }
+
+    @Test(expected = CalculationError.class)
+    public void unclosedParenthesis() throws CalculationError, StringException {
+        new Expression("2+(3").calc();
+    }
+
+    @Test
+    public void repeatedEvaluation() throws CalculationError {
+        Numeral three = new Numeral(3);
+        Expression ex = new Expression();
+        ex.add(three);
+        ex.add(new Operator(Operator.operator.MULTIPLY));
+        ex.add(three);
+        ex.add(Function.fromTag("f/!"));
+        assertEquals(18, ex.calc().getValue(), 0);
+        assertEquals(18, ex.calc().getValue(), 0);
+        assertEquals(3, three.getValue(), 0);
+        ex.add(new Operator(Operator.operator.ADD));
+        ex.add(three);
+        assertEquals(21, ex.calc().getValue(), 0);
+    }
+
+    @Test
+    public void longOperands() throws CalculationError, StringException {
+        // 2^53 + 1 is the first integer a double misses.
+        Numeral sum = new Expression("2^45+1").calc();
+        assertTrue(sum.isExact());
+        assertEquals(Rational.valueOf((1L << 53) + 1), sum.getRational());
+        assertEquals(Rational.valueOf(3037000493L * 3037000453L),
+                new Expression("709103525*7091034E1").calc().getRational());
+        assertEquals(Rational.valueOf(Long.MIN_VALUE + 1),
+                new Expression("(0-1)*41X792678515120367").calc().getRational());
+        assertEquals(Rational.valueOf(BigInteger.valueOf(-3).pow(39)),
+                new Expression("(0-3)^33").calc().getRational());
+        assertEquals(Rational.ZERO, new Expression("0^5").calc().getRational());
+        assertEquals(Rational.ONE, new Expression("0^0").calc().getRational());
+        // 2^62 fits, although squaring on to 2^64 would not.
+        assertEquals(Rational.valueOf(1L << 62), new Expression("2^52").calc().getRational());
+
+        // Overflow, fractions and negative powers go on in doubles, and are not
+        // marked exact.
+        Numeral big = new Expression("41X792678515120367+1").calc();
+        assertFalse(big.isExact());
+        assertNull(big.getRational());
+        assertEquals(0x1p63, big.getValue(), 0);
+        assertFalse(new Expression("2^53").calc().isExact());
+        assertEquals(0x1p63, new Expression("2^53").calc().getValue(), 0);
+        assertEquals(Math.pow(3, 40), new Expression("3^34").calc().getValue(), 0);
+        assertEquals(0.25, new Expression("2^(0-2)").calc().getValue(), 0);
+        assertFalse(new Expression("0.6+1").calc().isExact());
+        assertFalse(new Expression("3/2").calc().isExact());
+        assertFalse(new Expression("2^0.6").calc().isExact());
+        assertEquals(1.5, new Expression("3/2").calc().getValue(), 0);
+    }
+
+    @Test
+    public void bindingOrder() throws CalculationError, StringException {
+        assertEquals(512, new Expression("2^3^2").calc().getValue(), 0);
+        assertEquals(16, new Expression("sqrt14^2").calc().getValue(), 0);
+        assertEquals(Math.sqrt(24), new Expression("sqrt4!").calc().getValue(), 0);
+        assertEquals(720, new Expression("(2+1)!!").calc().getValue(), 0);
+        assertEquals(2, new Expression("sqrt(2*8)/2").calc().getValue(), 0);
+    }
+
+    @Test
+    public void deeplyNestedExpression() throws CalculationError {
+        int depth = 100000;
+        Expression nested = new Expression();
+        for (int i = 0; i < depth; i++) {
+            nested.add(new OpenParen());
+        }
+        nested.add(new Numeral(2));
+        for (int i = 0; i < depth; i++) {
+            nested.add(new Operator(Operator.operator.ADD));
+            nested.add(new Numeral(1));
+            nested.add(new CloseParen());
+        }
+        assertEquals(depth + 2, nested.calc().getValue(), 0);
+
+        Expression tower = new Expression();
+        tower.add(new Numeral(2));
+        for (int i = 0; i < depth; i++) {
+            tower.add(new Operator(Operator.operator.EXPONENT));
+            tower.add(new Numeral(1));
+        }
+        assertEquals(2, tower.calc().getValue(), 0);
+    }
+
+    @Test
+    public void errorPositions() throws StringException {
+        String[] inputs = {"2+*3", "(2+3", "2+3)", "2+", "4(2)"};
+        int[] positions = {2, 0, 3, 2, 1};
+        for (int i = 0; i < inputs.length; i++) {
+            try {
+                new Expression(inputs[i]).calc();
+                fail(inputs[i]);
+            } catch (CalculationError e) {
+                assertEquals(inputs[i], positions[i], e.position);
+            }
+        }
+    }
+
+    @Test
+    public void variables() throws CalculationError, StringException {
+        CompiledExpression ex = new Expression("x^2+y*3-x").compile();
+        assertEquals("x", ex.getVariables()[0]);
+        assertEquals(1, ex.indexOf("y"));
+        assertEquals(17, ex.evaluate(2, 5), 0);
+
+        int rows = 1000;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i / 7.0;
+            y[i] = rows - i;
+        }
+        double[] result = new double[rows];
+        ex.evaluate(new double[][]{x, y}, result);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(ex.evaluate(x[i], y[i]), result[i], 0);
+        }
+
+        try {
+            new Expression("x+1").calc();
+            fail("Unbound variable");
+        } catch (CalculationError e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void livePreview() throws CalculationError, StringException {
+        Expression ex = new Expression();
+        assertNull(ex.preview());
+        ex.add(Digit.fromString("1"));
+        ex.add(Digit.fromString("2"));
+        assertEquals(14, ex.preview().getValue(), 0);
+        ex.add(new Operator(Operator.operator.ADD));
+        assertNull(ex.preview());
+        ex.add(new Numeral(3));
+        assertEquals(17, ex.preview().getValue(), 0);
+        ex.add(new Operator(Operator.operator.MULTIPLY));
+        ex.add(new OpenParen());
+        ex.add(Digit.fromString("5"));
+        assertEquals(29, ex.preview().getValue(), 0);
+        ex.back();
+        assertNull(ex.preview());
+        ex.add(new Numeral(2));
+        ex.add(new Operator(Operator.operator.SUBTRACT));
+        ex.add(new Numeral(1));
+        assertEquals(17, ex.preview().getValue(), 0);
+        ex.add(new CloseParen());
+        assertEquals(17, ex.preview().getValue(), 0);
+        assertEquals(ex.calc().getValue(), ex.preview().getValue(), 0);
+
+        ex.add(new Numeral(2));
+        assertNull(ex.preview());
+        try {
+            ex.calc();
+            fail("Missing operator");
+        } catch (CalculationError e) {
+            assertEquals(10, e.position);
+        }
+        ex.back();
+        assertEquals(17, ex.calc().getValue(), 0);
+        ex.remove(0);
+        assertEquals(5, ex.preview().getValue(), 0);
+    }
+
+    @Test
+    public void livePreviewOfLongInput() {
+        int depth = 100000;
+        Expression ex = new Expression();
+        for (int i = 0; i < depth; i++) {
+            ex.add(new OpenParen());
+            ex.add(new Numeral(1));
+            ex.add(new Operator(Operator.operator.ADD));
+            ex.add(new Numeral(1));
+            assertEquals(2 * (i + 1), ex.preview().getValue(), 0);
+            ex.add(new CloseParen());
+            ex.add(new Operator(Operator.operator.ADD));
+        }
+    }
+
+    @Test
+    public void previewOfNestedInputEnteredAtOnce() {
+        int depth = 100000;
+        ArrayList<ExpressionElement> elements = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            elements.add(OpenParen.INSTANCE);
+        }
+        elements.add(new Numeral(2));
+        for (int i = 0; i < depth; i++) {
+            elements.add(Operator.of(Operator.operator.ADD));
+            elements.add(new Numeral(1));
+            elements.add(CloseParen.INSTANCE);
+        }
+        // Nothing is worked out until the preview, which then goes the whole depth.
+        Expression ex = new Expression(elements);
+        assertEquals(depth + 2, ex.preview().getValue(), 0);
+        ex.add(Operator.of(Operator.operator.SUBTRACT));
+        ex.add(new Numeral(depth));
+        assertEquals(2, ex.preview().getValue(), 0);
+    }
+
+    @Test
+    public void livePreviewOfNestedSums() {
+        // A preview used to apply every pending sum, quadratic in the depth.
+        int depth = 100000;
+        Expression ex = new Expression();
+        for (int i = 0; i < depth; i++) {
+            ex.add(OpenParen.INSTANCE);
+            ex.add(Digit.of(1));
+            Numeral preview = ex.preview();
+            assertEquals(Rational.valueOf(i + 1), preview.getRational());
+            ex.add(Operator.of(Operator.operator.ADD));
+        }
+    }
+
+    @Test
+    public void previewAgreesWithCalc() throws CalculationError {
+        Random random = new Random(20736);
+        Operator.operator[] ops = {Operator.operator.ADD, Operator.operator.SUBTRACT,
+                Operator.operator.MULTIPLY, Operator.operator.DIVIDE, Operator.operator.EXPONENT,
+                Operator.operator.MOD};
+        for (int n = 0; n < 3000; n++) {
+            Expression ex = new Expression();
+            int open = 0;
+            boolean afterOperand = false;
+            for (int i = 0; i < 16; i++) {
+                int choice = random.nextInt(4);
+                if (!afterOperand && choice == 0) {
+                    ex.add(OpenParen.INSTANCE);
+                    open++;
+                } else if (!afterOperand && choice == 1) {
+                    ex.add(Function.of(Function.function.SQRT));
+                } else if (!afterOperand && choice == 2) {
+                    // Whole numbers of any size, to reach where longs overflow.
+                    ex.add(new Numeral(Rational.valueOf(random.nextLong() >> random.nextInt(64))));
+                    afterOperand = true;
+                } else if (!afterOperand) {
+                    boolean dot = random.nextInt(4) == 0;
+                    for (int d = 1 + random.nextInt(20); d > 0; d--) {
+                        ex.add(dot && d == 2 ? Digit.dot() : Digit.of(random.nextInt(12)));
+                        checkPreview(ex, open);
+                    }
+                    afterOperand = true;
+                } else if (choice == 0 && open > 0) {
+                    ex.add(CloseParen.INSTANCE);
+                    open--;
+                } else if (choice == 1) {
+                    ex.add(Function.of(Function.function.FACTORIAL));
+                } else {
+                    ex.add(Operator.of(ops[random.nextInt(ops.length)]));
+                    afterOperand = false;
+                }
+                checkPreview(ex, open);
+            }
+        }
+    }
+
+    /**
+     * Checks the preview against calc() of the expression with its open
+     * parentheses closed, to the bit and in whether it is exact.
+     */
+    private static void checkPreview(Expression ex, int open) throws CalculationError {
+        Numeral preview = ex.preview();
+        if (preview == null) {
+            return;
+        }
+        ArrayList<ExpressionElement> elements = ex.getElements();
+        for (int i = 0; i < open; i++) {
+            elements.add(CloseParen.INSTANCE);
+        }
+        Expression closed = new Expression(elements);
+        Numeral value = closed.calc();
+        assertEquals(closed.getText(), Double.doubleToLongBits(value.getValue()),
+                Double.doubleToLongBits(preview.getValue()));
+        assertEquals(closed.getText(), value.getRational(), preview.getRational());
+    }
+
+    @Test
+    public void optimizedExpressions() throws CalculationError, StringException {
+        Expression ex = new Expression("x*(pi*2)+sqrt(2)*y^2+3!*x^1+0");
+        CompiledExpression plain = CompiledExpression.compile(ex.parse());
+        CompiledExpression optimized = ex.compile();
+        assertEquals(0, plain.getEliminated());
+        assertEquals(9, optimized.getEliminated());
+        for (int i = -5; i < 5; i++) {
+            double x = i / 3.0;
+            double y = i * 7.0;
+            assertEquals(plain.evaluate(x, y), optimized.evaluate(x, y), 0);
+        }
+
+        assertEquals(4, new Expression("2*3+1").compile().getEliminated());
+        assertEquals(0, new Expression("x").compile().getEliminated());
+    }
+
+    @Test
+    public void textInput() throws CalculationError, StringException {
+        assertEquals(32, new Expression(" 23 + 5 ").calc().getValue(), 0);
+        assertEquals(23, new Expression("\u218a.6+\u218b.6+1").calc().getValue(), 0);
+        assertEquals(Math.sqrt(2) * Math.PI, new Expression("sqrt2*pi").calc().getValue(), 0);
+        assertEquals(Math.E * 3, new Expression("e*x").compile().evaluate(3), 0);
+
+        // Numbers read from text are rounded like numbers entered digit by digit.
+        String digits = "123456789XE.123456789XE123456789XE";
+        Expression entered = new Expression();
+        for (char ch : digits.toCharArray()) {
+            entered.add(Digit.fromString(String.valueOf(ch)));
+        }
+        assertEquals(entered.calc().getValue(), new Expression(digits).calc().getValue(), 0);
+
+        String[] invalid = {"2+Q", "1.2.3", "2*sun", "3#", "co"};
+        int[] positions = {2, 3, 2, 1, 0};
+        for (int i = 0; i < invalid.length; i++) {
+            try {
+                new Expression(invalid[i]);
+                fail(invalid[i]);
+            } catch (StringException e) {
+                assertEquals(invalid[i], positions[i], e.position);
+            }
+        }
+    }
+
+    @Test
+    public void elementsAreShared() throws StringException {
+        assertSame(Digit.of(10), Digit.fromTag("d/X"));
+        assertSame(Digit.of(7), Digit.fromString("7"));
+        assertSame(Digit.dot(), Digit.fromTag("d/."));
+        assertSame(Operator.of(Operator.operator.ADD), Operator.fromString("+"));
+        assertSame(Function.of(Function.function.SQRT), Function.fromTag("f/sqrt"));
+        assertSame(Numeral.fromTag("special/pi"), Numeral.fromString("pi"));
+        assertSame(Variable.of('x'), Variable.fromString("x"));
+
+        ArrayList<ExpressionElement> a = new Expression("(x+1.5)*sqrt(2)").getElements();
+        ArrayList<ExpressionElement> b = new Expression("(x+2.5)*sqrt(3)").getElements();
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getType() != ExpressionElement.type.NUMBER) {
+                assertSame(a.get(i), b.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void enteringElementsAllocatesNothing() {
+        ThreadAllocations allocations = new ThreadAllocations();
+        String[] tags = {"d/1", "d/X", "d/.", "d/5", "o/+", "f/sqrt", "o/*", "d/E", "o/^"};
+        ExpressionElement[] entered = new ExpressionElement[100000];
+
+        // Once to load the classes, once to measure.
+        enter(tags, entered);
+        long start = allocations.get();
+        enter(tags, entered);
+        long shared = allocations.get() - start;
+
+        // What the same keystrokes cost with an element per keystroke.
+        start = allocations.get();
+        for (int i = 0; i < entered.length; i++) {
+            entered[i] = i % 2 == 0 ? new OpenParen() : new Operator(Operator.operator.ADD);
+        }
+        long separate = allocations.get() - start;
+
+        assertTrue(separate + " bytes for new elements", separate >= 16L * entered.length);
+        assertTrue(shared + " bytes for shared elements", shared < separate / 100);
+    }
+
+    private static void enter(String[] tags, ExpressionElement[] entered) {
+        for (int i = 0; i < entered.length; i++) {
+            String tag = tags[i % tags.length];
+            if (tag.startsWith("d/")) {
+                entered[i] = Digit.fromTag(tag);
+            } else if (tag.startsWith("o/")) {
+                entered[i] = Operator.fromTag(tag);
+            } else {
+                entered[i] = Function.fromTag(tag);
+            }
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FDBigIntegerTests {
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    @Test
+    public void bigProducts() {
+        Random random = new Random(1728);
+        for (int i = 0; i < 300; i++) {
+            // Up to about 110 words times 3^p3 of up to about 80, both sides of
+            // the size at which multiplication splits its factors.
+            int[] digits = randomDigits(random, 1 + random.nextInt(1000));
+            int p3 = 20 + random.nextInt(1600);
+            FDBigInteger product = fromDigits(digits).multByPow32(p3, 0);
+            BigInteger expected = toBigInteger(digits).multiply(THREE.pow(p3));
+            assertEquals(digits.length + " digits, 3^" + p3, 0,
+                    product.cmp(fromDigits(toDigits(expected))));
+        }
+    }
+
+    private static int[] randomDigits(Random random, int n) {
+        int[] digits = new int[n];
+        for (int i = 0; i < n; i++) {
+            digits[i] = random.nextInt(12);
+        }
+        // Runs of elevens leave words of all ones, which carry the furthest.
+        if (random.nextBoolean()) {
+            for (int i = random.nextInt(n); i < n; i++) {
+                digits[i] = 11;
+            }
+        }
+        return digits;
+    }
+
+    private static FDBigInteger fromDigits(int[] digits) {
+        return new FDBigInteger(0, digits, 0, digits.length);
+    }
+
+    private static BigInteger toBigInteger(int[] digits) {
+        BigInteger value = BigInteger.ZERO;
+        for (int digit : digits) {
+            value = value.multiply(BigInteger.valueOf(12)).add(BigInteger.valueOf(digit));
+        }
+        return value;
+    }
+
+    private static int[] toDigits(BigInteger value) {
+        String text = value.toString(12);
+        int[] digits = new int[text.length()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = Character.digit(text.charAt(i), 12);
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,138 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FactorialTests {
+    @Test
+    public void exact() {
+        BigInteger f = BigInteger.ONE;
+        for (int n = 0; n <= 600; n++) {
+            if (n > 1) {
+                f = f.multiply(BigInteger.valueOf(n));
+            }
+            assertEquals("" + n, f, Factorials.exact(n));
+        }
+        for (int n = 601; n <= 2000; n++) {
+            f = f.multiply(BigInteger.valueOf(n));
+        }
+        assertEquals(f, Factorials.exact(2000));
+    }
+
+    @Test
+    public void doubles() {
+        BigInteger f = BigInteger.ONE;
+        for (int n = 0; n <= Factorials.MAX_DOUBLE; n++) {
+            if (n > 1) {
+                f = f.multiply(BigInteger.valueOf(n));
+            }
+            assertEquals("" + n, f.doubleValue(), Factorials.factorial(n), 0);
+        }
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.factorial(171), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.factorial(1e300), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.factorial(Double.POSITIVE_INFINITY), 0);
+        assertTrue(Double.isNaN(Factorials.factorial(-1)));
+        assertTrue(Double.isNaN(Factorials.factorial(-1e300)));
+        assertTrue(Double.isNaN(Factorials.factorial(Double.NaN)));
+    }
+
+    @Test
+    public void gamma() {
+        double sqrtPi = Math.sqrt(Math.PI);
+        assertEquals(sqrtPi, Factorials.gamma(0.5), 1e-15 * sqrtPi);
+        assertEquals(sqrtPi / 2, Factorials.factorial(0.5), 1e-15 * sqrtPi);
+        assertEquals(sqrtPi, Factorials.factorial(-0.5), 1e-15 * sqrtPi);
+        assertEquals(-2 * sqrtPi, Factorials.gamma(-0.5), 2e-15 * sqrtPi);
+        assertEquals(4 * sqrtPi / 3, Factorials.gamma(-1.5), 2e-15 * sqrtPi);
+        // 4.5! = 945 / 32 sqrt(pi)
+        assertEquals(945.0 / 32 * sqrtPi, Factorials.factorial(4.5), 1e-14 * 64);
+        // gamma(1/3), from tables.
+        assertEquals(2.678938534707747, Factorials.gamma(1.0 / 3), 1e-14);
+        // Between factorials, and continuous through them.
+        for (int n = 1; n < Factorials.MAX_DOUBLE; n++) {
+            double below = Factorials.factorial(n - 1e-9);
+            double above = Factorials.factorial(n + 1e-9);
+            double f = Factorials.factorial(n);
+            assertEquals("" + n, f, below, 1e-6 * f);
+            assertEquals("" + n, f, above, 1e-6 * f);
+        }
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.factorial(170.7), 0);
+        assertEquals(0, Factorials.gamma(-400.5), 0);
+    }
+
+    @Test
+    public void combinations() {
+        for (int n = 0; n <= 300; n++) {
+            BigInteger c = BigInteger.ONE;
+            BigInteger p = BigInteger.ONE;
+            for (int k = 0; k <= n; k++) {
+                if (k > 0) {
+                    p = p.multiply(BigInteger.valueOf(n - k + 1));
+                    c = c.multiply(BigInteger.valueOf(n - k + 1)).divide(BigInteger.valueOf(k));
+                }
+                String message = n + ", " + k;
+                assertEquals(message, c, Factorials.exactChoose(n, k));
+                assertEquals(message, p, Factorials.exactPermutations(n, k));
+                // Rounded once, past a long as well.
+                assertEquals(message, c.doubleValue(), Factorials.choose(n, k), 0);
+                assertEquals(message, p.doubleValue(), Factorials.permutations(n, k), 0);
+            }
+            assertEquals(BigInteger.ZERO, Factorials.exactChoose(n, n + 1));
+            assertEquals(0, Factorials.permutations(n, n + 1), 0);
+        }
+        // Only fits a long after cancelling as it goes.
+        assertEquals(new BigInteger("465428353255261088"), Factorials.exactChoose(62, 31));
+        assertEquals(166666661666666700000000.0, Factorials.choose(1e8, 3), 1e10);
+        assertEquals(3.590557880400691E19, Factorials.permutations(23, 17), 0);
+        for (int k = 0; k < 12; k++) {
+            // Counts of sets past a long.
+            BigInteger n = BigInteger.ONE.shiftLeft(70).add(BigInteger.valueOf(1L << 20));
+            BigInteger p = BigInteger.ONE;
+            for (int i = 0; i < k; i++) {
+                p = p.multiply(n.subtract(BigInteger.valueOf(i)));
+            }
+            BigInteger c = p;
+            for (int i = 2; i <= k; i++) {
+                c = c.divide(BigInteger.valueOf(i));
+            }
+            assertEquals(p.doubleValue(), Factorials.permutations(n.doubleValue(), k), 0);
+            assertEquals(c.doubleValue(), Factorials.choose(n.doubleValue(), k), 0);
+        }
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.choose(1e20, 60), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.choose(1e300, 2000), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Factorials.permutations(1e6, 200), 0);
+        assertNull(Factorials.exactPermutations(Long.MAX_VALUE, 1L << 20));
+        assertTrue(Double.isNaN(Factorials.choose(5.5, 2)));
+        assertTrue(Double.isNaN(Factorials.permutations(5, -1)));
+    }
+
+    @Test
+    public void expressions() throws CalculationError, StringException {
+        assertEquals(6227020800.0, new Expression("11!").calc().getValue(), 0);
+        assertEquals(Math.sqrt(Math.PI) / 2, new Expression("0.6!").calc().getValue(), 1e-15);
+        // 120! / 119!
+        Numeral exact = new Expression("X0!/9E!").calcExact();
+        assertTrue(exact.isExact());
+        assertEquals(Rational.valueOf(120), exact.getRational());
+        // 171!, past the doubles, is no longer exact, though 172! / 171! is.
+        Numeral past = new Expression("123!").calcExact();
+        assertFalse(past.isExact());
+        assertNull(past.getRational());
+        assertEquals(Double.POSITIVE_INFINITY, past.getValue(), 0);
+        assertEquals(Rational.valueOf(172), new Expression("124!/123!").calcExact().getRational());
+
+        assertEquals(10, new Expression("5C2").calc().getValue(), 0);
+        assertEquals(20, new Expression("2*5C2").calc().getValue(), 0);
+        assertEquals(5, new Expression("5C2^2").calc().getValue(), 0);
+        assertEquals(120 * 119 * 118, new Expression("X0P3").calc().getValue(), 0);
+        // 100 choose 50, past a long.
+        assertEquals(Rational.valueOf(new BigInteger("100891344545564193334812497256")),
+                new Expression("84C42").calcExact().getRational());
+    }
+}
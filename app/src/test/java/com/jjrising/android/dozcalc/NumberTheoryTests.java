@@ -0,0 +1,116 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NumberTheoryTests {
+    @Test
+    public void primes() {
+        boolean[] composite = new boolean[100000];
+        for (int i = 2; i < composite.length; i++) {
+            if (!composite[i]) {
+                for (int j = 2 * i; j < composite.length; j += i) {
+                    composite[j] = true;
+                }
+            }
+            assertEquals("" + i, !composite[i], NumberTheory.isPrime(i));
+        }
+        assertFalse(NumberTheory.isPrime(0));
+        assertFalse(NumberTheory.isPrime(1));
+        assertFalse(NumberTheory.isPrime(-7));
+        // Strong pseudoprimes to the first few prime bases, and a Carmichael number.
+        long[] pseudoprimes = {561, 3215031751L, 2152302898747L, 3474749660383L,
+                341550071728321L, 3825123056546413051L};
+        for (long n : pseudoprimes) {
+            assertFalse("" + n, NumberTheory.isPrime(n));
+        }
+        // Either side of 2^31, where squares of residues stop fitting a long.
+        assertTrue(NumberTheory.isPrime(2147483647));
+        assertTrue(NumberTheory.isPrime(4294967291L));
+        assertFalse(NumberTheory.isPrime(4294967297L));
+        assertTrue(NumberTheory.isPrime(Long.MAX_VALUE - 24));
+        assertFalse(NumberTheory.isPrime(Long.MAX_VALUE));
+
+        Random random = new Random(1728);
+        for (int i = 0; i < 20000; i++) {
+            long n = random.nextLong() >>> 1 + random.nextInt(63);
+            assertEquals("" + n, BigInteger.valueOf(n).isProbablePrime(64),
+                    NumberTheory.isPrime(n));
+        }
+    }
+
+    @Test
+    public void factors() {
+        assertArrayEquals(new long[]{2, 2, 3}, NumberTheory.factor(12));
+        long[] power = NumberTheory.factor(BigInteger.valueOf(12).pow(17).longValue());
+        assertEquals(51, power.length);
+        assertEquals(2, power[33]);
+        assertEquals(3, power[34]);
+        // Two large primes, and the square of one.
+        long p = BigInteger.valueOf(2147483647).longValue();
+        long q = BigInteger.valueOf(2147483000).nextProbablePrime().longValue();
+        assertArrayEquals(new long[]{q, p}, NumberTheory.factor(p * q));
+        long r = BigInteger.valueOf(3037000000L).nextProbablePrime().longValue();
+        assertArrayEquals(new long[]{r, r}, NumberTheory.factor(r * r));
+
+        Random random = new Random(20736);
+        for (int i = 0; i < 2000; i++) {
+            long n = Math.max(2, random.nextLong() >>> 1 + random.nextInt(63));
+            long product = 1;
+            long last = 2;
+            for (long factor : NumberTheory.factor(n)) {
+                assertTrue(n + ": " + factor, factor >= last && NumberTheory.isPrime(factor));
+                product *= factor;
+                last = factor;
+            }
+            assertEquals(n, product);
+        }
+    }
+
+    @Test
+    public void doubles() {
+        assertEquals(2, NumberTheory.mod(-10, 12), 0);
+        assertEquals(-10, NumberTheory.mod(2, -12), 0);
+        assertEquals(1.5, NumberTheory.mod(7.5, 2), 0);
+        assertEquals(-0.5, NumberTheory.mod(7.5, -2), 0);
+        assertTrue(Double.isNaN(NumberTheory.mod(7, 0)));
+        assertEquals(6, NumberTheory.gcd(-18, 24), 0);
+        assertEquals(5, NumberTheory.gcd(0, 5), 0);
+        assertEquals(72, NumberTheory.lcm(-18, 24), 0);
+        assertEquals(0, NumberTheory.lcm(0, 24), 0);
+        assertEquals(0x1p62 * 3, NumberTheory.lcm(0x1p62, 3), 0);
+        assertTrue(Double.isNaN(NumberTheory.gcd(1.5, 3)));
+        assertTrue(Double.isNaN(NumberTheory.lcm(1e300, 3)));
+        assertEquals(1, NumberTheory.isPrime(1e9 + 7), 0);
+        assertEquals(0, NumberTheory.isPrime(1.0), 0);
+        assertTrue(Double.isNaN(NumberTheory.isPrime(2.5)));
+        assertEquals(3, NumberTheory.smallestFactor(-81), 0);
+        assertTrue(Double.isNaN(NumberTheory.smallestFactor(1)));
+    }
+
+    @Test
+    public void expressions() throws CalculationError, StringException {
+        // Dozenal, so 19 mod 12 and so on.
+        assertEquals(7, new Expression("17mod10").calc().getValue(), 0);
+        assertEquals(5, new Expression("1+8 mod 6*2").calc().getValue(), 0);
+        assertEquals(6, new Expression("16gcd20").calc().getValue(), 0);
+        assertEquals(72, new Expression("16 lcm 20").calc().getValue(), 0);
+        assertEquals(1, new Expression("isprime(3E)").calc().getValue(), 0);
+        assertEquals(0, new Expression("isprime(100)").calc().getValue(), 0);
+        assertEquals(5, new Expression("factor(2E)").calc().getValue(), 0);
+        // 2^62, past a long once multiplied.
+        Numeral exact = new Expression("2^52 lcm 3").calcExact();
+        assertTrue(exact.isExact());
+        assertEquals(Rational.valueOf(1L << 62).multiply(Rational.valueOf(3)),
+                exact.getRational());
+        // Single letters are still variables.
+        assertEquals("m", new Expression("m+g").compile().getVariables()[0]);
+    }
+}
@@ -0,0 +1,163 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumeralParsing {
+    private static final BigInteger TWELVE = BigInteger.valueOf(12);
+
+    @Test
+    public void shortNumerals() throws NumberException {
+        assertEquals(0.0, parse("0"), 0);
+        assertEquals(0.0, parse("000.000"), 0);
+        assertEquals(1.0, parse("1"), 0);
+        assertEquals(143.0, parse("EE"), 0);
+        assertEquals(0.5, parse(".6"), 0);
+        assertEquals(0.5, parse("0.6"), 0);
+        assertEquals(10.5, parse("X.6"), 0);
+        assertEquals(1.0 / 3, parse("0.4"), 0);
+        assertEquals(1.0 / 9, parse("0.14"), 0);
+        assertEquals(1728.0, parse("1000."), 0);
+        assertEquals(Math.pow(12, 30), parse("1000000000000000000000000000000"), 0);
+    }
+
+    @Test
+    public void extremes() throws NumberException {
+        assertEquals(Double.MAX_VALUE, parse(exact(Double.MAX_VALUE)), 0);
+        assertEquals(Double.MIN_VALUE, parse(exact(Double.MIN_VALUE)), 0);
+        assertEquals(Double.MIN_NORMAL, parse(exact(Double.MIN_NORMAL)), 0);
+        // 1 followed by 300 zeros is far beyond the largest double.
+        assertEquals(Double.POSITIVE_INFINITY, parse("1" + zeros(300)), 0);
+        assertEquals(0.0, parse("0." + zeros(310) + "1"), 0);
+        // Halfway past the largest double rounds to infinity, just below it does not.
+        BigDecimal max = new BigDecimal(Double.MAX_VALUE);
+        BigDecimal halfUlp = new BigDecimal(Math.ulp(Double.MAX_VALUE))
+                .divide(BigDecimal.valueOf(2));
+        assertEquals(Double.POSITIVE_INFINITY, parse(exact(max.add(halfUlp))), 0);
+        assertEquals(Double.MAX_VALUE,
+                parse(exact(max.add(halfUlp).subtract(BigDecimal.ONE))), 0);
+        // Half of the smallest subnormal is a tie that goes to zero, the even side.
+        BigDecimal min = new BigDecimal(Double.MIN_VALUE);
+        String halfMin = exact(min.divide(BigDecimal.valueOf(2)));
+        assertEquals(0.0, parse(halfMin), 0);
+        assertEquals(Double.MIN_VALUE, parse(halfMin + "1"), 0);
+    }
+
+    @Test
+    public void exactExpansionsRoundTrip() throws NumberException {
+        Random random = new Random(12);
+        for (int i = 0; i < 2000; i++) {
+            double d = randomDouble(random);
+            String digits = exact(d);
+            assertEquals(digits, d, parse(digits), 0);
+            // Trailing digits below the last one of the expansion are well within half an ulp.
+            String longer = digits + (digits.indexOf('.') < 0 ? "." : "") + "00015" + zeros(400)
+                    + "1";
+            assertEquals(longer, d, parse(longer), 0);
+        }
+    }
+
+    @Test
+    public void tiesRoundToEven() throws NumberException {
+        Random random = new Random(144);
+        for (int i = 0; i < 2000; i++) {
+            double d = randomDouble(random);
+            if (d == Double.MAX_VALUE) {
+                continue;
+            }
+            double up = Math.nextUp(d);
+            BigDecimal mid = new BigDecimal(d).add(new BigDecimal(up))
+                    .divide(BigDecimal.valueOf(2));
+            double even = (Double.doubleToRawLongBits(d) & 1) == 0 ? d : up;
+            String digits = exact(mid);
+            assertEquals(digits, even, parse(digits), 0);
+            // Any digit past the halfway point, however far down, rounds up.
+            String above = digits + (digits.indexOf('.') < 0 ? "." : "") + zeros(350) + "1";
+            assertEquals(above, up, parse(above), 0);
+        }
+    }
+
+    @Test
+    public void largeIntegers() throws NumberException {
+        Random random = new Random(1728);
+        for (int i = 0; i < 500; i++) {
+            BigInteger value = new BigInteger(64 + random.nextInt(960), random);
+            String digits = dozenal(value);
+            assertEquals(digits, value.doubleValue(), parse(digits), 0);
+        }
+    }
+
+    @Test
+    public void integerOutputRoundTrips() throws NumberException {
+        Random random = new Random(20736);
+        for (int i = 0; i < 2000; i++) {
+            // Integers up to 12^8 are written without an exponent.
+            double d = random.nextInt(429981696);
+            String text = new Numeral(d).toString().replace('\u218a', 'X').replace('\u218b', 'E');
+            assertEquals(text, d, parse(text), 0);
+        }
+    }
+
+    private static double parse(String text) throws NumberException {
+        ArrayList<Digit> digits = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            digits.add(Digit.fromString(text.substring(i, i + 1)));
+        }
+        return new Numeral(digits).getValue();
+    }
+
+    /**
+     * @return - a positive finite double with uniformly random bits.
+     */
+    private static double randomDouble(Random random) {
+        while (true) {
+            double d = Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE);
+            if (d > 0 && !Double.isInfinite(d) && !Double.isNaN(d)) {
+                return d;
+            }
+        }
+    }
+
+    private static String exact(double d) {
+        return exact(new BigDecimal(d));
+    }
+
+    /**
+     * @param value - a positive value with a terminating dozenal expansion.
+     * @return - every digit of the dozenal expansion.
+     */
+    private static String exact(BigDecimal value) {
+        // A binary fraction of 2^-k terminates after ceil(k / 2) dozenal places.
+        BigInteger whole = value.toBigInteger();
+        BigDecimal fraction = value.subtract(new BigDecimal(whole));
+        StringBuilder text = new StringBuilder(dozenal(whole));
+        if (fraction.signum() > 0) {
+            text.append('.');
+            while (fraction.signum() > 0) {
+                fraction = fraction.multiply(new BigDecimal(TWELVE));
+                BigInteger digit = fraction.toBigInteger();
+                text.append(dozenal(digit));
+                fraction = fraction.subtract(new BigDecimal(digit));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String dozenal(BigInteger value) {
+        return value.toString(12).replace('a', 'X').replace('b', 'E');
+    }
+
+    private static String zeros(int n) {
+        StringBuilder zeros = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            zeros.append('0');
+        }
+        return zeros.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RationalTests {
+    @Test
+    public void arithmetic() {
+        Random random = new Random(1728);
+        for (int i = 0; i < 20000; i++) {
+            // Sizes from a few bits to past a long, so that steps overflow
+            // both ways.
+            Rational x = random(random);
+            Rational y = random(random);
+            BigInteger a = x.getNumerator();
+            BigInteger b = x.getDenominator();
+            BigInteger c = y.getNumerator();
+            BigInteger d = y.getDenominator();
+            String message = x + " and " + y;
+            assertEquals(message, Rational.of(a.multiply(d).add(c.multiply(b)), b.multiply(d)),
+                    x.add(y));
+            assertEquals(message, Rational.of(a.multiply(d).subtract(c.multiply(b)),
+                    b.multiply(d)), x.subtract(y));
+            assertEquals(message, Rational.of(a.multiply(c), b.multiply(d)), x.multiply(y));
+            if (c.signum() != 0) {
+                assertEquals(message, Rational.of(a.multiply(d), b.multiply(c)), x.divide(y));
+            }
+            assertEquals(message, a.multiply(d).compareTo(c.multiply(b)), x.compareTo(y));
+            int n = random.nextInt(9) - 4;
+            if (a.signum() != 0 || n >= 0) {
+                BigInteger num = n >= 0 ? a.pow(n) : b.pow(-n);
+                BigInteger den = n >= 0 ? b.pow(n) : a.pow(-n);
+                assertEquals(message + "^" + n, Rational.of(num, den), x.pow(n));
+            }
+        }
+    }
+
+    @Test
+    public void longEdges() {
+        Rational min = Rational.valueOf(Long.MIN_VALUE);
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE), min.getNumerator());
+        assertEquals(Rational.valueOf(Long.MAX_VALUE), min.negate().subtract(Rational.ONE));
+        assertEquals(min, Rational.valueOf(Long.MAX_VALUE).negate().subtract(Rational.ONE));
+        assertTrue(Rational.valueOf(Long.MAX_VALUE).isLong());
+        assertFalse(min.isLong());
+        assertEquals(Rational.of(1, 3), Rational.of(-2, -6));
+        assertEquals(Rational.ZERO, Rational.of(0, -7));
+        assertEquals(Rational.ONE, Rational.of(Long.MAX_VALUE, 3).divide(
+                Rational.of(Long.MAX_VALUE, 3)));
+    }
+
+    @Test
+    public void doubles() {
+        Random random = new Random(20736);
+        for (int i = 0; i < 20000; i++) {
+            Rational x = random(random);
+            assertNearest(x);
+            double e = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(e) && !Double.isInfinite(e)) {
+                assertEquals(e, Rational.valueOf(e).doubleValue(), 0);
+            }
+        }
+        assertEquals(Double.MIN_VALUE, Rational.of(BigInteger.ONE,
+                BigInteger.ONE.shiftLeft(1074)).doubleValue(), 0);
+        assertEquals(Double.MIN_VALUE, Rational.of(BigInteger.valueOf(3),
+                BigInteger.ONE.shiftLeft(1076)).doubleValue(), 0);
+        assertEquals(0.0, Rational.of(BigInteger.ONE,
+                BigInteger.ONE.shiftLeft(1075)).doubleValue(), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Rational.valueOf(2).pow(1024).doubleValue(), 0);
+    }
+
+    @Test
+    public void doublesBelowTheNormals() {
+        // Values up to 2^-1020 are worked out in whole subnormal units, of
+        // which there are 54 bits or more near the top, to be rounded once.
+        Random random = new Random(20736);
+        for (int i = 0; i < 20000; i++) {
+            BigInteger num = new BigInteger(40 + random.nextInt(60), random).setBit(0);
+            BigInteger den = num.shiftLeft(1020 + random.nextInt(4))
+                    .add(new BigInteger(num.bitLength() + 1000, random));
+            assertNearest(Rational.of(num, den));
+        }
+        // Just above halfway between two doubles: once rounded to the units
+        // it was exactly halfway, and then went to the even one.
+        double low = 4.916015355966674E-308;
+        Rational halfway = Rational.valueOf(low).add(Rational.valueOf(Math.nextUp(low)))
+                .divide(Rational.valueOf(2));
+        Rational above = halfway.add(Rational.of(BigInteger.ONE, BigInteger.ONE.shiftLeft(1100)));
+        assertEquals(Math.nextUp(low), above.doubleValue(), 0);
+        assertEquals(4.916015355966675E-308, above.doubleValue(), 0);
+    }
+
+    @Test
+    public void digits() {
+        // 0.4 is a third, and 10.6 is twelve and a half.
+        assertEquals(Rational.of(1, 3), Rational.fromDigits(new int[]{0, 4}, 2, 1));
+        assertEquals(Rational.of(25, 2), Rational.fromDigits(new int[]{1, 0, 6, 0}, 4, 2));
+        assertEquals(Rational.valueOf(1728), Rational.fromDigits(new int[]{1, 0, 0, 0}, 4, 4));
+        int[] digits = new int[40];
+        digits[39] = 1;
+        assertEquals(Rational.of(BigInteger.ONE, BigInteger.valueOf(12).pow(40)),
+                Rational.fromDigits(digits, 40, 0));
+        assertEquals(Rational.ZERO, Rational.fromDigits(new int[]{0, 0, 0}, 3, 1));
+        assertEquals("0.4", Rational.of(1, 3).toDozenalDecimal(5).toString());
+        assertEquals("0.2497", Rational.of(1, 5).toDozenalDecimal(4).toString());
+    }
+
+    @Test
+    public void exactExpressions() throws CalculationError, StringException {
+        Numeral third = new Expression("1/3*3").calcExact();
+        assertTrue(third.isExact());
+        assertEquals(Rational.ONE, third.getRational());
+        assertEquals(Rational.ONE, new Expression("0.4*3").calcExact().getRational());
+        assertEquals(Rational.of(1, 1000), new Expression("1/X^3").calcExact().getRational());
+        assertEquals(Rational.of(BigInteger.ONE, BigInteger.valueOf(3).pow(100)),
+                new Expression("0.4^84").calcExact().getRational());
+        assertEquals(Rational.valueOf(Long.MAX_VALUE).add(Rational.ONE).multiply(
+                Rational.valueOf(2)), new Expression("2^28*2^28").calcExact().getRational());
+
+        Numeral root = new Expression("2^0.6+1").calcExact();
+        assertFalse(root.isExact());
+        assertNull(root.getRational());
+        assertEquals(Math.pow(2, 0.5) + 1, root.getValue(), 0);
+        assertFalse(new Expression("1/0").calcExact().isExact());
+        assertEquals(Double.POSITIVE_INFINITY, new Expression("2^100000").calcExact()
+                .getValue(), 0);
+    }
+
+    /**
+     * Checks that no double is nearer to x, and that ties go to the even one.
+     */
+    private static void assertNearest(Rational x) {
+        double d = x.doubleValue();
+        Rational error = Rational.valueOf(d).subtract(x).abs();
+        assertTrue(x.toString(), error.compareTo(
+                Rational.valueOf(Math.nextUp(d)).subtract(x).abs()) <= 0);
+        assertTrue(x.toString(), error.compareTo(
+                Rational.valueOf(Math.nextDown(d)).subtract(x).abs()) <= 0);
+    }
+
+    private static Rational random(Random random) {
+        BigInteger num = new BigInteger(1 + random.nextInt(90), random);
+        BigInteger den = new BigInteger(1 + random.nextInt(90), random).add(BigInteger.ONE);
+        return Rational.of(random.nextBoolean() ? num.negate() : num, den);
+    }
+}
@@ -0,0 +1,72 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.fail;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class ResultCacheTests {
+    @Test
+    public void hitsAndMisses() throws CalculationError, StringException {
+        ResultCache cache = new ResultCache(4);
+        ResultCache.Result first = cache.calc(new Expression("2*3+1"));
+        assertEquals(7, first.getValue().getValue(), 0);
+        assertEquals(first.getValue().toString(), first.getText());
+        assertSame(first, cache.calc(new Expression("2*3+1")));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        try {
+            cache.calc(new Expression("2+"));
+            fail("Missing operand");
+        } catch (CalculationError e) {
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    public void numeralsAreKeyedOnTheirValue() throws CalculationError {
+        Expression two = new Expression();
+        two.add(new Numeral(2));
+        Expression three = new Expression();
+        three.add(new Numeral(3));
+        assertNotEquals(two.getCanonicalText(), three.getCanonicalText());
+
+        ResultCache cache = new ResultCache(4);
+        assertEquals(2, cache.calc(two).getValue().getValue(), 0);
+        assertEquals(3, cache.calc(three).getValue().getValue(), 0);
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void wholeNumbersPastADoubleAreKeyedExactly() throws CalculationError, StringException {
+        // Both round to the same double, but calc() adds them up in longs.
+        ResultCache cache = new ResultCache(4);
+        ResultCache.Result first = cache.calc(new Expression("EEEEEEEEEEEEEEEEE+0"));
+        ResultCache.Result second = cache.calc(new Expression("EEEEEEEEEEEEEEEEX+0"));
+        long twelveTo17 = 2218611106740436992L;
+        assertEquals(Rational.valueOf(twelveTo17 - 1), first.getValue().getRational());
+        assertEquals(Rational.valueOf(twelveTo17 - 2), second.getValue().getRational());
+        assertNotEquals(first.getText(), second.getText());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws CalculationError, StringException {
+        ResultCache cache = new ResultCache(2);
+        cache.calc(new Expression("1+1"));
+        cache.calc(new Expression("1+2"));
+        cache.calc(new Expression("1+1"));
+        cache.calc(new Expression("1+3"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.calc(new Expression("1+1"));
+        assertEquals(2, cache.getHits());
+        cache.calc(new Expression("1+2"));
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+    }
+}
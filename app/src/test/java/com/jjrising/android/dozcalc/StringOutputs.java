@@ -2,9 +2,19 @@ package com.jjrising.android.dozcalc;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class StringOutputs {
+    private static final BigInteger TWELVE = BigInteger.valueOf(12);
+    // Shift that makes every double, and every midpoint between two, an integer.
+    private static final int SHIFT = 1076;
     @Test
     public void numberSpecialValues() {
         //Zero (0)
@@ -85,9 +95,12 @@ public class StringOutputs {
         assertEquals("1.41981E87854eE", tenToTheTwelve.toString());
         Numeral tenToTheTwenty = new Numeral(100000000000000000000.0);
         assertEquals("3.90X66958X9465e16", tenToTheTwenty.toString());
+        // 2^1023. This used to expect "2.5e1E9", which the old engine gave
+        // by stopping two digits in, and which reads back as 8.91e307 rather
+        // than 8.99e307. These are its first fourteen digits, the next is a 1.
         long veryBigNumberLong = 0x7FE0_0000_0000_0000L;
         Numeral veryBigNumber = new Numeral(Double.longBitsToDouble(veryBigNumberLong));
-        assertEquals("2.5e1E9", veryBigNumber.toString());
+        assertEquals("2.5309EX4057774e1E9", veryBigNumber.toString());
     }
 
     @Test
@@ -98,4 +111,323 @@ public class StringOutputs {
         Numeral hardFraction2 = new Numeral(Double.longBitsToDouble(hardFraction2Long));
         assertEquals("9.X1696e-1EX", hardFraction2.toString()); // TODO: Fails Testcase
     }
+
+    @Test
+    public void appendingMatchesToString() throws IOException {
+        Random random = new Random(12);
+        StringBuilder builder = new StringBuilder();
+        StringWriter writer = new StringWriter();
+        char[] chars = new char[Numeral.MAX_CHARS + 1];
+        double[] values = new double[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Double.longBitsToDouble(random.nextLong());
+        }
+        values[0] = 0;
+        values[1] = Double.NEGATIVE_INFINITY;
+        values[2] = Double.NaN;
+        values[3] = -Double.MIN_VALUE;
+        for (double value : values) {
+            Numeral numeral = new Numeral(value);
+            String text = numeral.toString();
+            builder.setLength(0);
+            assertEquals(text, numeral.appendTo(builder).toString());
+            writer.getBuffer().setLength(0);
+            numeral.appendTo((Appendable) writer);
+            assertEquals(text, writer.toString());
+            assertEquals(text, new String(chars, 1, numeral.getChars(chars, 1)));
+        }
+    }
+
+    @Test
+    public void appendingAllocatesNothing() {
+        ThreadAllocations allocations = new ThreadAllocations();
+        // Whole numbers, short and long fractions, and both ends of the range.
+        Numeral[] numerals = {new Numeral(7), new Numeral(1234567), new Numeral(0.75),
+                new Numeral(100.25), new Numeral(0.1), new Numeral(3.14159), new Numeral(-0.0),
+                new Numeral(1e300), new Numeral(Double.MIN_VALUE), new Numeral(-0x1p70)};
+        StringBuilder builder = new StringBuilder(Numeral.MAX_CHARS);
+        char[] chars = new char[Numeral.MAX_CHARS];
+        int formatted = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = allocations.get();
+            for (int i = 0; i < 10000; i++) {
+                Numeral numeral = numerals[i % numerals.length];
+                builder.setLength(0);
+                formatted += numeral.appendTo(builder).length();
+                formatted += numeral.getChars(chars, 0);
+            }
+            if (round == 1) {
+                long allocated = allocations.get() - start;
+                assertTrue(allocated + " bytes for " + formatted + " chars", allocated < 1000);
+            }
+        }
+    }
+
+    @Test
+    public void shortestDigitsReadBack() {
+        Random random = new Random(1728);
+        for (int i = 0; i < 20000; i++) {
+            double value = randomValue(random, i);
+            if (value == 0) {
+                continue;
+            }
+            String text = shortestText(value);
+            assertEquals(text, value, read(text), 0);
+        }
+        for (int e = -1073; e <= 1023; e++) {
+            double power = Math.scalb(1.0, e);
+            for (double value : new double[]{Math.nextDown(power), power, Math.nextUp(power)}) {
+                String text = shortestText(value);
+                assertEquals(text, value, read(text), 0);
+            }
+        }
+    }
+
+    @Test
+    public void shortestDigitsMatchExactSearch() {
+        Random random = new Random(20736);
+        for (int i = 0; i < 2000; i++) {
+            double value = Math.abs(randomValue(random, i));
+            if (value == 0) {
+                continue;
+            }
+            String text = shortestText(value);
+            assertEquals(text, shortest(value), significand(text));
+        }
+        for (long bits = 1; bits < 200; bits++) {
+            double value = Double.longBitsToDouble(bits);
+            String text = shortestText(value);
+            assertEquals(text, shortest(value), significand(text));
+        }
+    }
+
+    @Test
+    public void displayRoundsLongerDigits() {
+        Random random = new Random(2985984);
+        int rounded = 0;
+        for (int i = 0; i < 2000; i++) {
+            double value = Math.abs(randomValue(random, i));
+            if (value == 0) {
+                continue;
+            }
+            String text = new Numeral(value).toString();
+            String digits = shortest(value);
+            if (digits.length() > Numeral.SIGNIFICANT_DIGITS && !isExactInteger(value)) {
+                digits = rounded(value, Numeral.SIGNIFICANT_DIGITS);
+                rounded++;
+            }
+            assertEquals(text, digits, significand(text));
+        }
+        assertTrue(rounded + " rounded", rounded > 0);
+        // The rounding error of the sum is in the sixteenth digit.
+        assertEquals("125.5", new Numeral(173.41666666666669).toString());
+        assertEquals("0.124972497249724\u218b", shortestText(0.1));
+        assertEquals("0.12497249724972", new Numeral(0.1).toString());
+    }
+
+    @Test
+    public void longDigitsInFull() {
+        Random random = new Random(35831808);
+        FloatingDozenal.BinaryToDozBuffer buffer = new FloatingDozenal.BinaryToDozBuffer();
+        for (int i = 0; i < 20000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            if (value == 0) {
+                continue;
+            }
+            String text = buffer.ltoz(value).toJavaFormatString();
+            checkLongText(text, value);
+            if (Math.abs(value) < 429981696) {
+                assertEquals(shortestText(value), text);
+            } else if (Math.abs(value) < 1L << 53) {
+                assertEquals(significand(shortestText(value)), significand(text));
+            }
+        }
+        for (long value : new long[]{1, -1, 12, 144, 2985984, 2985985, 35831808,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1}) {
+            checkLongText(buffer.ltoz(value).toJavaFormatString(), value);
+        }
+        // 12^8, the first a double writes with an exponent, and 2^62 + 1 past
+        // the double.
+        assertEquals("100000000", buffer.ltoz(429981696).toJavaFormatString());
+        assertEquals("-100000000", new Numeral(Rational.valueOf(-429981696)).toString());
+        // Rounded to fourteen digits in a double, all eighteen of them here.
+        String text = new Numeral(Rational.valueOf((1L << 62) + 1)).toString();
+        checkLongText(text, (1L << 62) + 1);
+    }
+
+    /**
+     * Checks the text of a long against {@link BigInteger#toString(int)}: the
+     * sign and every digit, with no exponent.
+     */
+    private static void checkLongText(String text, long value) {
+        String digits = BigInteger.valueOf(value).abs().toString(12);
+        assertEquals(text, value < 0, text.startsWith("-"));
+        assertEquals(text, digits, text.replace("-", "").replace('\u218a', 'a')
+                .replace('\u218b', 'b'));
+    }
+
+    private static String shortestText(double value) {
+        return new FloatingDozenal.BinaryToDozBuffer().dtoz(value).toJavaFormatString();
+    }
+
+    private static boolean isExactInteger(double value) {
+        return value == Math.rint(value) && value < 0x1p53;
+    }
+
+    /**
+     * @return - a double with random bits, integers and short fractions
+     * in turn.
+     */
+    private static double randomValue(Random random, int i) {
+        switch (i % 3) {
+            case 0:
+                double value = Double.longBitsToDouble(random.nextLong());
+                return Double.isNaN(value) || Double.isInfinite(value) ? 1 : value;
+            case 1:
+                return random.nextLong() >> random.nextInt(64);
+            default:
+                return random.nextInt(1 << 20) / 1728.0 - random.nextInt(1000);
+        }
+    }
+
+    /**
+     * @param text - a finite value as written by {@link Numeral#toString()}.
+     * @return - the double the text reads back as.
+     */
+    private static double read(String text) {
+        int end = text.indexOf('e');
+        int exponent = 0;
+        if (end < 0) {
+            end = text.length();
+        } else {
+            boolean negative = text.charAt(end + 1) == '-';
+            for (int i = negative ? end + 2 : end + 1; i < text.length(); i++) {
+                exponent = 12 * exponent + digit(text.charAt(i));
+            }
+            exponent = negative ? -exponent : exponent;
+        }
+        boolean negative = text.charAt(0) == '-';
+        int[] digits = new int[end];
+        int nDigits = 0;
+        int pointIndex = -1;
+        for (int i = negative ? 1 : 0; i < end; i++) {
+            if (text.charAt(i) == '.') {
+                pointIndex = nDigits;
+            } else {
+                digits[nDigits++] = digit(text.charAt(i));
+            }
+        }
+        pointIndex = (pointIndex < 0 ? nDigits : pointIndex) + exponent;
+        double value = new FloatingDozenal.DozToBinaryBuffer(digits, nDigits, pointIndex)
+                .doubleValue();
+        return negative ? -value : value;
+    }
+
+    private static int digit(char ch) {
+        int digit = "0123456789\u218a\u218b".indexOf(ch);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Not a digit: " + ch);
+        }
+        return digit;
+    }
+
+    /**
+     * @return - the significant digits of the text, without leading or
+     * trailing zeros, in the digits of {@link BigInteger#toString(int)}.
+     */
+    private static String significand(String text) {
+        int end = text.indexOf('e');
+        String digits = text.substring(0, end < 0 ? text.length() : end)
+                .replace("-", "").replace(".", "")
+                .replace('\u218a', 'a').replace('\u218b', 'b');
+        return digits.replaceAll("^0+", "").replaceAll("0+$", "");
+    }
+
+    /**
+     * Searches the shortest digits that read back as a positive value with
+     * exact arithmetic, one length at a time.
+     *
+     * @return - the digits, as {@link #significand(String)} gives them.
+     */
+    private static String shortest(double value) {
+        BigInteger v = scaled(value);
+        BigInteger low = v.add(scaled(Math.nextDown(value))).shiftRight(1);
+        BigInteger high = value == Double.MAX_VALUE
+                ? v.add(scaled(Math.ulp(value)).shiftRight(1))
+                : v.add(scaled(Math.nextUp(value))).shiftRight(1);
+        boolean closed = (Double.doubleToRawLongBits(value) & 1) == 0;
+        // The leading digit is worth 12^top.
+        int top = (int) Math.floor(Math.log(value) / Math.log(12));
+        while (compare(BigInteger.ONE, top + 1, v) <= 0) {
+            top++;
+        }
+        while (compare(BigInteger.ONE, top, v) > 0) {
+            top--;
+        }
+        for (int length = 1; ; length++) {
+            int exponent = top - length + 1;
+            BigInteger below = exponent >= 0 ? v.divide(TWELVE.pow(exponent).shiftLeft(SHIFT))
+                    : v.multiply(TWELVE.pow(-exponent)).shiftRight(SHIFT);
+            BigInteger best = null;
+            BigInteger bestDistance = null;
+            for (BigInteger m : new BigInteger[]{below, below.add(BigInteger.ONE)}) {
+                int fromLow = compare(m, exponent, low);
+                int fromHigh = compare(m, exponent, high);
+                if (closed ? fromLow < 0 || fromHigh > 0 : fromLow <= 0 || fromHigh >= 0) {
+                    continue;
+                }
+                BigInteger distance = exponent >= 0
+                        ? m.multiply(TWELVE.pow(exponent)).shiftLeft(SHIFT).subtract(v).abs()
+                        : m.shiftLeft(SHIFT).subtract(v.multiply(TWELVE.pow(-exponent))).abs();
+                int nearer = best == null ? -1 : distance.compareTo(bestDistance);
+                if (nearer < 0 || nearer == 0 && !m.testBit(0)) {
+                    best = m;
+                    bestDistance = distance;
+                }
+            }
+            if (best != null) {
+                return best.toString(12).replaceAll("0+$", "");
+            }
+        }
+    }
+
+    /**
+     * @return - the digits of a positive value rounded half even to the given
+     * number of significant digits, as {@link #significand(String)} gives them.
+     */
+    private static String rounded(double value, int length) {
+        BigInteger v = scaled(value);
+        int top = (int) Math.floor(Math.log(value) / Math.log(12));
+        while (compare(BigInteger.ONE, top + 1, v) <= 0) {
+            top++;
+        }
+        while (compare(BigInteger.ONE, top, v) > 0) {
+            top--;
+        }
+        int exponent = top - length + 1;
+        BigInteger numerator = exponent >= 0 ? v : v.multiply(TWELVE.pow(-exponent));
+        BigInteger denominator = exponent >= 0 ? TWELVE.pow(exponent).shiftLeft(SHIFT)
+                : BigInteger.ONE.shiftLeft(SHIFT);
+        BigInteger[] quotient = numerator.divideAndRemainder(denominator);
+        int half = quotient[1].shiftLeft(1).compareTo(denominator);
+        BigInteger m = quotient[0];
+        if (half > 0 || half == 0 && m.testBit(0)) {
+            m = m.add(BigInteger.ONE);
+        }
+        return m.toString(12).replaceAll("0+$", "");
+    }
+
+    private static BigInteger scaled(double value) {
+        return new BigDecimal(value).multiply(new BigDecimal(BigInteger.ONE.shiftLeft(SHIFT)))
+                .toBigIntegerExact();
+    }
+
+    /**
+     * Compares m 12^exponent with a value scaled by 2^SHIFT.
+     */
+    private static int compare(BigInteger m, int exponent, BigInteger scaled) {
+        return exponent >= 0
+                ? m.multiply(TWELVE.pow(exponent)).shiftLeft(SHIFT).compareTo(scaled)
+                : m.shiftLeft(SHIFT).compareTo(scaled.multiply(TWELVE.pow(-exponent)));
+    }
 }
@@ -0,0 +1,30 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes allocated by the calling thread, on JVMs that can. Tests
+ * using it are skipped elsewhere.
+ */
+class ThreadAllocations {
+    private final com.sun.management.ThreadMXBean threads;
+    private final long thread = Thread.currentThread().getId();
+
+    ThreadAllocations() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled());
+    }
+
+    /**
+     * @return - the bytes allocated by the thread so far.
+     */
+    long get() {
+        return threads.getThreadAllocatedBytes(thread);
+    }
+}
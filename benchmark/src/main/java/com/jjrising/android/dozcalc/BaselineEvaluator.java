@@ -0,0 +1,157 @@
+package com.jjrising.android.dozcalc;
+
+import java.util.ArrayList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The evaluator {@link Expression#calc()} replaced, kept for comparison: it
+ * merges the digits into numerals in place, reorders a copy of the list with
+ * the shunting-yard algorithm, then rewrites the queue one operator at a time
+ * with a list iterator. Numerals no longer change in place, so each result
+ * is set over its first operand instead.
+ */
+final class BaselineEvaluator {
+    private BaselineEvaluator() {
+    }
+
+    /**
+     * @param elements - the expression, which is copied as the original
+     *                 consumed its list.
+     */
+    static Numeral calc(ArrayList<ExpressionElement> elements) throws CalculationError {
+        ArrayList<ExpressionElement> express = new ArrayList<>(elements);
+        if (express.size() == 0) {
+            return new Numeral(0);
+        }
+
+        //Combine digits into Numerals
+        ArrayList<Digit> numBuilder = new ArrayList<>();
+        ListIterator<ExpressionElement> iter = express.listIterator();
+        while (iter.hasNext()) {
+            ExpressionElement el = iter.next();
+            if (el.getType() == ExpressionElement.type.DIGIT) {
+                numBuilder.add((Digit) el);
+                iter.remove();
+            } else {
+                if (!numBuilder.isEmpty()) {
+                    try {
+                        iter.previous();
+                        iter.add(new Numeral(numBuilder));
+                        iter.next();
+                        numBuilder.clear();
+                    } catch (NumberException e) {
+                        throw new CalculationError(e.getMessage());
+                    }
+                }
+            }
+        }
+        if (!numBuilder.isEmpty()) {
+            try {
+                iter.add(new Numeral(numBuilder));
+                numBuilder.clear();
+            } catch (NumberException e) {
+                throw new CalculationError(e.getMessage());
+            }
+        }
+
+        ArrayList<ExpressionElement> calcQueue = new ArrayList<>();
+        ArrayList<ExpressionElement> opStack = new ArrayList<>();
+
+        // produce the calcQueue
+        ExpressionElement el;
+        while (!express.isEmpty()) {
+            el = express.remove(0);
+            ExpressionElement.type type = el.getType();
+            if (type == ExpressionElement.type.NUMBER) {
+                calcQueue.add(el);
+            } else if (type == ExpressionElement.type.FUNCTION) {
+                if (((Function) el).associativity() == Function.associativity.RIGHT) {
+                    opStack.add(el);
+                } else {
+                    calcQueue.add(el);
+                }
+            } else if (type == ExpressionElement.type.OPERATOR) {
+                if (opStack.isEmpty()) {
+                    opStack.add(el);
+                } else {
+                    ExpressionElement top = opStack.get(opStack.size() - 1);
+                    while (top.getType() != ExpressionElement.type.PARENTHESES
+                            && (
+                            top.getType() == ExpressionElement.type.FUNCTION
+                                    || ((Operator) top).precedence() > ((Operator) el).precedence()
+                                    || ((Operator) top).precedence() == ((Operator) el).precedence()
+                                    && ((Operator) top).associativity()
+                                    == Operator.associativity.LEFT)) {
+                        calcQueue.add(opStack.remove(opStack.size() - 1));
+                        if (opStack.isEmpty()) {
+                            break;
+                        } else {
+                            top = opStack.get(opStack.size() - 1);
+                        }
+                    }
+                    opStack.add(el);
+                }
+            } else { // parentheses
+                if (((Paren) el).isOpen()) {
+                    opStack.add(el);
+                } else {
+                    if (opStack.isEmpty()) {
+                        throw new CalculationError("No '(' found.");
+                    }
+                    while (true) {
+                        ExpressionElement top = opStack.remove(opStack.size() - 1);
+                        if (top.getType() == ExpressionElement.type.PARENTHESES) {
+                            break;
+                        } else {
+                            calcQueue.add(top);
+                        }
+                        if (opStack.isEmpty()) {
+                            throw new CalculationError("No '(' found.");
+                        }
+                    }
+                }
+            }
+        }
+        while (!opStack.isEmpty()) {
+            calcQueue.add(opStack.remove(opStack.size() - 1));
+        }
+
+        // Run the calculation through the calcQueue
+        ListIterator<ExpressionElement> calcIterator = calcQueue.listIterator();
+        int size = calcQueue.size();
+        while (calcIterator.hasNext()) {
+            try {
+                el = calcIterator.next();
+                ExpressionElement.type type = el.getType();
+                if (type == ExpressionElement.type.OPERATOR) {
+                    calcIterator.remove();
+                    Numeral b = (Numeral) calcIterator.previous();
+                    calcIterator.remove();
+                    Numeral a = (Numeral) calcIterator.previous();
+                    calcIterator.set(((Operator) el).run(a, b));
+                    calcIterator.next();
+                    size -= 2;
+                } else if (type == ExpressionElement.type.FUNCTION) {
+                    calcIterator.remove();
+                    Numeral a = (Numeral) calcIterator.previous();
+                    calcIterator.set(((Function) el).run(a));
+                    calcIterator.next();
+                    size -= 1;
+                }
+            } catch (NoSuchElementException e) {
+                throw new CalculationError("Missing a Numeral somewhere.");
+            }
+        }
+        if (size != 1) {
+            throw new CalculationError(
+                    "Not all elements were handled properly. Likely an invalid input");
+        }
+        ExpressionElement ret = calcIterator.previous();
+        if (ret.getType() != ExpressionElement.type.NUMBER) {
+            throw new CalculationError(
+                    "Remaining OldSymbolCode was an operator. Likely an invalid input");
+        }
+        return (Numeral) ret;
+    }
+}
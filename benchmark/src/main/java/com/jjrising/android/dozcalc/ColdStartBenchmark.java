@@ -0,0 +1,56 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first use of the formatting and parsing classes in a fresh JVM, as at
+ * app start. Every fork runs a single call, so each score is one cold call,
+ * class loading and static initialization included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+
+    /**
+     * Initializes {@link FDBigInteger} and nothing else. The first result
+     * shown does this, as the formatter takes its powers of twelve from
+     * {@link FDBigInteger#LONG_3_POW}.
+     */
+    @Benchmark
+    public Object initializeFDBigInteger() {
+        return FDBigInteger.ZERO;
+    }
+
+    /**
+     * The first result shown.
+     */
+    @Benchmark
+    public String firstNumeral() {
+        return new Numeral(0.1).toString();
+    }
+
+    /**
+     * The first numeral read that is too long to round with doubles alone,
+     * 24 digits far enough below one that 3^274 is needed to check its
+     * rounding, which only builds the cached powers up to there.
+     */
+    @Benchmark
+    public double firstLongNumeral() {
+        int[] digits = new int[24];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = (7 * i + 1) % 12;
+        }
+        return new FloatingDozenal.DozToBinaryBuffer(digits, digits.length, -250).doubleValue();
+    }
+}
@@ -0,0 +1,83 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates {@code x^2+y*3-sqrt(x)} over a million rows, building an
+ * {@link Expression} per row, running the compiled program per row, and
+ * running it over whole columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnarBenchmark {
+    private static final int ROWS = 1000000;
+
+    private double[] x;
+    private double[] y;
+    private double[] result;
+    private CompiledExpression compiled;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(12);
+        x = new double[ROWS];
+        y = new double[ROWS];
+        result = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+        }
+        compiled = new Expression("x^2+y*3-sqrt(x)").compile();
+    }
+
+    @Benchmark
+    public double[] expressionPerRow() throws CalculationError {
+        for (int i = 0; i < ROWS; i++) {
+            Expression ex = new Expression();
+            ex.add(new Numeral(x[i]));
+            ex.add(Operator.fromTag("o/^"));
+            ex.add(new Numeral(2));
+            ex.add(Operator.fromTag("o/+"));
+            ex.add(new Numeral(y[i]));
+            ex.add(Operator.fromTag("o/*"));
+            ex.add(new Numeral(3));
+            ex.add(Operator.fromTag("o/-"));
+            ex.add(Function.fromTag("f/sqrt"));
+            ex.add(OpenParen.INSTANCE);
+            ex.add(new Numeral(x[i]));
+            ex.add(CloseParen.INSTANCE);
+            result[i] = ex.calc().getValue();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] compiledPerRow() {
+        for (int i = 0; i < ROWS; i++) {
+            result[i] = compiled.evaluate(x[i], y[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] columnar() {
+        compiled.evaluate(new double[][]{x, y}, result);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running {@link Expression#calc()} on a fresh expression, which
+ * compiles it on every call, against evaluating a {@link CompiledExpression}
+ * that was compiled once up front, and against the list rewriting evaluator
+ * calc() used before, see {@link BaselineEvaluator}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompiledExpressionBenchmark {
+
+    @Param({"23+5", "(5.6-2*2)^2+sqrt14", "12^2/(3+4!)-sqrt(X.6*E)+1.2*3.4-5/6"})
+    public String input;
+
+    private ArrayList<ExpressionElement> elements;
+    private CompiledExpression compiled;
+
+    @Setup
+    public void setUp() throws Exception {
+        Expression expression = new Expression(input);
+        elements = expression.getElements();
+        compiled = expression.compile();
+    }
+
+    @Benchmark
+    public double calc() throws CalculationError {
+        // A new expression each time, calc() caches the compiled program.
+        return new Expression(elements).calc().getValue();
+    }
+
+    @Benchmark
+    public double baselineCalc() throws CalculationError {
+        return BaselineEvaluator.calc(elements).getValue();
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return compiled.evaluate();
+    }
+}
@@ -0,0 +1,140 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DozenalDecimal} against {@link BigDecimal} at the same precision,
+ * digits dozenal digits against the ceil(digits log10(12)) decimal digits
+ * that hold as much. The operands have all their digits. Run with
+ * {@code -prof gc} for the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DozenalDecimalBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int digits;
+
+    private DozenalDecimal x;
+    private DozenalDecimal y;
+    private BigDecimal bigX;
+    private BigDecimal bigY;
+    private MathContext context;
+
+    @Setup
+    public void setUp() throws NumberException {
+        Random random = new Random(1728);
+        x = DozenalDecimal.parse(randomDigits(random, digits, 12, "XE"));
+        y = DozenalDecimal.parse(randomDigits(random, digits, 12, "XE"));
+        int decimalDigits = (int) Math.ceil(digits * Math.log10(12));
+        context = new MathContext(decimalDigits, RoundingMode.HALF_EVEN);
+        bigX = new BigDecimal(randomDigits(random, decimalDigits, 10, ""));
+        bigY = new BigDecimal(randomDigits(random, decimalDigits, 10, ""));
+    }
+
+    /**
+     * @return - a number with one whole digit and count - 1 after the point.
+     */
+    private static String randomDigits(Random random, int count, int radix, String high) {
+        StringBuilder text = new StringBuilder(count + 1);
+        text.append(1 + random.nextInt(radix - 1));
+        text.append('.');
+        for (int i = 1; i < count; i++) {
+            int digit = random.nextInt(radix);
+            text.append(digit < 10 ? (char) ('0' + digit) : high.charAt(digit - 10));
+        }
+        return text.toString();
+    }
+
+    @Benchmark
+    public DozenalDecimal add() {
+        return x.add(y, digits);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAdd() {
+        return bigX.add(bigY, context);
+    }
+
+    @Benchmark
+    public DozenalDecimal multiply() {
+        return x.multiply(y, digits);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalMultiply() {
+        return bigX.multiply(bigY, context);
+    }
+
+    @Benchmark
+    public DozenalDecimal divide() {
+        return x.divide(y, digits);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDivide() {
+        return bigX.divide(bigY, context);
+    }
+
+    @Benchmark
+    public DozenalDecimal sqrt() {
+        return x.sqrt(digits);
+    }
+
+    /**
+     * BigDecimal has no square root before Java 9, so this is the usual
+     * Newton's method on it, from the double root.
+     */
+    @Benchmark
+    public BigDecimal bigDecimalSqrt() {
+        BigDecimal two = BigDecimal.valueOf(2);
+        BigDecimal root = BigDecimal.valueOf(Math.sqrt(bigX.doubleValue()));
+        for (int bits = 50; bits < 4 * context.getPrecision(); bits *= 2) {
+            root = root.add(bigX.divide(root, context)).divide(two, context);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public DozenalDecimal pow() {
+        return x.pow(17, digits);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalPow() {
+        return bigX.pow(17, context);
+    }
+
+    @Benchmark
+    public String format() {
+        return x.toString();
+    }
+
+    /**
+     * A fresh copy each time, as BigDecimal keeps the text it last wrote.
+     */
+    @Benchmark
+    public String bigDecimalFormat() {
+        return new BigDecimal(bigX.unscaledValue(), bigX.scale()).toString();
+    }
+}
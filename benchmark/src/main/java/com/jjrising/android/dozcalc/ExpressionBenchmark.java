@@ -0,0 +1,51 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building an {@link Expression} from a string, and evaluating it with
+ * {@link Expression#calc()} from its elements. Run with {@code -prof gc} for
+ * the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    @Param({"23+5", "(5.6-2*2)^2+sqrt14", "12^2/(3+4!)-sqrt(X.6*E)+1.2*3.4-5/6"})
+    public String input;
+
+    private ArrayList<ExpressionElement> elements;
+
+    @Setup
+    public void setUp() throws Exception {
+        elements = new Expression(input).getElements();
+    }
+
+    @Benchmark
+    public Object fromString() throws StringException {
+        return new Expression(input);
+    }
+
+    @Benchmark
+    public double calc() throws CalculationError {
+        // A new expression each time, calc() caches the compiled program.
+        return new Expression(elements).calc().getValue();
+    }
+}
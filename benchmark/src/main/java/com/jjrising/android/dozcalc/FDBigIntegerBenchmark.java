@@ -0,0 +1,69 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link FDBigInteger} primitives that check the rounding of long
+ * numerals as they are read, for powers of three from just past the int table
+ * to past the end of the cache, as far as the smallest subnormal needs. Run
+ * with {@code -prof gc} for the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FDBigIntegerBenchmark {
+    // The mantissa of pi, 53 significant bits.
+    private static final long MANTISSA = 0x1921fb54442d18L;
+
+    @Param({"20", "100", "339", "700", "1074"})
+    public int p3;
+
+    private FDBigInteger factor;
+
+    @Setup
+    public void setUp() {
+        factor = FDBigInteger.valueOfMulPow32(MANTISSA, p3, 0);
+        factor.makeImmutable();
+    }
+
+    /**
+     * 3^p3, taken from the cache or built by multiplying big integers.
+     */
+    @Benchmark
+    public Object pow3() {
+        return FDBigInteger.valueOfPow32(p3, 0);
+    }
+
+    /**
+     * A long times 3^p3 times a power of two, as the estimate of a long
+     * numeral is scaled.
+     */
+    @Benchmark
+    public Object multiplyLong() {
+        return FDBigInteger.valueOfMulPow32(MANTISSA, p3, 7);
+    }
+
+    /**
+     * A big integer of the size of 3^p3 times 3^p3, as reading a long numeral
+     * scales its digits.
+     */
+    @Benchmark
+    public Object multiply() {
+        return factor.multByPow32(p3, 0);
+    }
+}
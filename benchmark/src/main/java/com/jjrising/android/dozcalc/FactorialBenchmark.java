@@ -0,0 +1,74 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Factorials}: the double factorial and gamma function, and the exact
+ * prime swing factorial against multiplying 2 to n into a BigInteger one at a
+ * time. Then nCr with r = n / 3, in doubles and exactly, against dividing
+ * the exact factorials. Run with {@code -prof gc} for the bytes allocated per
+ * operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FactorialBenchmark {
+
+    @Param({"12", "100", "1000", "4096"})
+    public int n;
+
+    @Benchmark
+    public double factorial() {
+        return Factorials.factorial(n);
+    }
+
+    @Benchmark
+    public double gamma() {
+        return Factorials.gamma(n + 0.5);
+    }
+
+    @Benchmark
+    public BigInteger exact() {
+        return Factorials.exact(n);
+    }
+
+    @Benchmark
+    public BigInteger exactLoop() {
+        BigInteger f = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            f = f.multiply(BigInteger.valueOf(i));
+        }
+        return f;
+    }
+
+    @Benchmark
+    public double choose() {
+        return Factorials.choose(n, n / 3);
+    }
+
+    @Benchmark
+    public BigInteger exactChoose() {
+        return Factorials.exactChoose(n, n / 3);
+    }
+
+    @Benchmark
+    public BigInteger exactChooseFromFactorials() {
+        int k = n / 3;
+        return Factorials.exact(n).divide(Factorials.exact(k).multiply(Factorials.exact(n - k)));
+    }
+}
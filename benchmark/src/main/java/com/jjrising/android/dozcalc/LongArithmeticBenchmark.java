@@ -0,0 +1,131 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Operator#applyLong} on whole operands of the given number of bits
+ * against the same operators on doubles. The products of 40 and 62 bit
+ * operands overflow, and give up. Then the folding of a sum of two whole
+ * constants, as {@link Expression#calc()} works it out, in longs and, with the
+ * exact values left out, in doubles. Last the text of a whole number from its
+ * long, against the digits of its double. Run with {@code -prof gc} for the
+ * bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LongArithmeticBenchmark {
+    private static final int COUNT = 1024;
+
+    @Param({"20", "40", "62"})
+    public int bits;
+
+    private final long[] values = new long[COUNT];
+    private final double[] doubles = new double[COUNT];
+    private final long[] exponents = new long[COUNT];
+    private final ExpressionNode[] sums = new ExpressionNode[COUNT];
+    private final ExpressionNode[] doubleSums = new ExpressionNode[COUNT];
+    private final FloatingDozenal.BinaryToDozBuffer buffer =
+            new FloatingDozenal.BinaryToDozBuffer();
+    private final char[] chars = new char[Numeral.MAX_CHARS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1728);
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = (random.nextLong() >>> (64 - bits)) | 1;
+            doubles[i] = values[i];
+            // Powers of small bases that stay within the bits.
+            exponents[i] = random.nextInt(bits / 4) + 1;
+        }
+        for (int i = 0; i < COUNT; i++) {
+            int j = (i + 1) & (COUNT - 1);
+            sums[i] = new OperatorNode(Operator.operator.ADD,
+                    new ConstantNode(doubles[i], Rational.valueOf(values[i]), 0, 1),
+                    new ConstantNode(doubles[j], Rational.valueOf(values[j]), 2, 3));
+            doubleSums[i] = new OperatorNode(Operator.operator.ADD,
+                    new ConstantNode(doubles[i], 0, 1), new ConstantNode(doubles[j], 2, 3));
+        }
+    }
+
+    private int index() {
+        next = (next + 1) & (COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Rational add() {
+        int i = index();
+        return Operator.applyLong(Operator.operator.ADD, values[i],
+                values[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public double addDoubles() {
+        int i = index();
+        return Operator.apply(Operator.operator.ADD, doubles[i], doubles[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Rational multiply() {
+        int i = index();
+        return Operator.applyLong(Operator.operator.MULTIPLY, values[i],
+                values[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public double multiplyDoubles() {
+        int i = index();
+        return Operator.apply(Operator.operator.MULTIPLY, doubles[i],
+                doubles[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Rational power() {
+        int i = index();
+        return Operator.applyLong(Operator.operator.EXPONENT, i % 13 + 3, exponents[i]);
+    }
+
+    @Benchmark
+    public double powerDoubles() {
+        int i = index();
+        return Operator.apply(Operator.operator.EXPONENT, i % 13 + 3, exponents[i]);
+    }
+
+    @Benchmark
+    public CompiledExpression fold() {
+        return CompiledExpression.optimize(sums[index()]);
+    }
+
+    @Benchmark
+    public CompiledExpression foldDoubles() {
+        return CompiledExpression.optimize(doubleSums[index()]);
+    }
+
+    @Benchmark
+    public int longDigits() {
+        return buffer.ltoz(values[index()]).getChars(chars, 0);
+    }
+
+    @Benchmark
+    public int doubleDigits() {
+        return buffer.dtoz(doubles[index()], Numeral.SIGNIFICANT_DIGITS).getChars(chars, 0);
+    }
+}
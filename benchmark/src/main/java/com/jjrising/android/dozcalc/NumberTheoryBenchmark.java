@@ -0,0 +1,95 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link NumberTheory} over random inputs of the given number
+ * of bits, taken in turn from a fixed set. isPrime is also run on random
+ * primes, its slowest case, and against {@link BigInteger#isProbablePrime}
+ * at about the same certainty. Run with {@code -prof gc} for the bytes
+ * allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberTheoryBenchmark {
+    private static final int COUNT = 1024;
+
+    @Param({"31", "63"})
+    public int bits;
+
+    private final long[] values = new long[COUNT];
+    private final double[] doubles = new double[COUNT];
+    private final long[] primes = new long[COUNT];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1728);
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextLong() >>> (64 - bits);
+            doubles[i] = values[i];
+            primes[i] = BigInteger.probablePrime(bits, random).longValue();
+        }
+    }
+
+    private int index() {
+        next = (next + 1) & (COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public double mod() {
+        int i = index();
+        return NumberTheory.mod(doubles[i], doubles[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public double gcd() {
+        int i = index();
+        return NumberTheory.gcd(doubles[i], doubles[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public double lcm() {
+        int i = index();
+        return NumberTheory.lcm(doubles[i], doubles[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public boolean isPrime() {
+        return NumberTheory.isPrime(values[index()]);
+    }
+
+    @Benchmark
+    public boolean isPrimeOnPrimes() {
+        return NumberTheory.isPrime(primes[index()]);
+    }
+
+    @Benchmark
+    public boolean isProbablePrimeOnPrimes() {
+        return BigInteger.valueOf(primes[index()]).isProbablePrime(64);
+    }
+
+    @Benchmark
+    public long[] factor() {
+        return NumberTheory.factor(Math.max(2, values[index()]));
+    }
+}
@@ -0,0 +1,100 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link Numeral} from its digits, and formatting one with
+ * {@link Numeral#toString()} or into a reused builder or array. Run with
+ * {@code -prof gc} for the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumeralBenchmark {
+
+    @State(Scope.Thread)
+    public static class Digits {
+        @Param({"7", "1E.X5", "8X9.1234E5E", "123456789XE.123456789XE",
+                "1E9X51E9X51E9X51E9X5.1E9X51E9X51E9X5",
+                "0.000000000000000000000000000000000000000000001"})
+        public String input;
+
+        private ArrayList<Digit> digits;
+
+        @Setup
+        public void setUp() throws Exception {
+            digits = new ArrayList<>();
+            for (char ch : input.toCharArray()) {
+                digits.add(Digit.fromString(String.valueOf(ch)));
+            }
+        }
+    }
+
+    /**
+     * Whole numbers, short and long fractions, and values out to both ends of
+     * the exponent range, subnormals included.
+     */
+    @State(Scope.Thread)
+    public static class Values {
+        @Param({"7", "1234567", "0.75", "100.25", "0.1", "3.14159", "2.5e-7", "1e300", "1e-300",
+                "0.30000000000000004", "4.9e-324", "1.7976931348623157e308"})
+        public String value;
+
+        private double d;
+        private Numeral numeral;
+        private final FloatingDozenal.BinaryToDozBuffer buffer =
+                new FloatingDozenal.BinaryToDozBuffer();
+        private final StringBuilder builder = new StringBuilder(Numeral.MAX_CHARS);
+        private final char[] chars = new char[Numeral.MAX_CHARS];
+
+        @Setup
+        public void setUp() {
+            d = Double.parseDouble(value);
+            numeral = new Numeral(d);
+        }
+    }
+
+    @Benchmark
+    public double fromDigits(Digits state) throws NumberException {
+        return new Numeral(state.digits).getValue();
+    }
+
+    @Benchmark
+    public String format(Values state) {
+        return state.numeral.toString();
+    }
+
+    @Benchmark
+    public StringBuilder appendTo(Values state) {
+        state.builder.setLength(0);
+        return state.numeral.appendTo(state.builder);
+    }
+
+    @Benchmark
+    public int getChars(Values state) {
+        return state.numeral.getChars(state.chars, 0);
+    }
+
+    /**
+     * The shortest digits that read back, as {@code toString} develops them.
+     */
+    @Benchmark
+    public int shortestDigits(Values state) {
+        return state.buffer.dtoz(state.d, Numeral.SIGNIFICANT_DIGITS).getChars(state.chars, 0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates template-like expressions, mixing constant parts and identities
+ * with variables, over a hundred thousand rows with and without the
+ * {@link Optimizer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OptimizerBenchmark {
+    private static final int ROWS = 100000;
+
+    @Param({"x*(pi*2)+sqrt(2)*y^2+3!*x^1+0",
+            "(x*1+0)^2/(e^2*1)-(y-0)*sin(pi/6)"})
+    public String input;
+
+    private double[] x;
+    private double[] y;
+    private double[] result;
+    private CompiledExpression plain;
+    private CompiledExpression optimized;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(12);
+        x = new double[ROWS];
+        y = new double[ROWS];
+        result = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+        }
+        ExpressionNode root = new Expression(input).parse();
+        plain = CompiledExpression.compile(root);
+        optimized = CompiledExpression.optimize(root);
+        System.out.println("\n" + input + ": " + optimized.getEliminated()
+                + " nodes eliminated");
+    }
+
+    @Benchmark
+    public double[] plainPerRow() {
+        for (int i = 0; i < ROWS; i++) {
+            result[i] = plain.evaluate(x[i], y[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] optimizedPerRow() {
+        for (int i = 0; i < ROWS; i++) {
+            result[i] = optimized.evaluate(x[i], y[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] plainColumnar() {
+        plain.evaluate(new double[][]{x, y}, result);
+        return result;
+    }
+
+    @Benchmark
+    public double[] optimizedColumnar() {
+        optimized.evaluate(new double[][]{x, y}, result);
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and compiles generated expressions of growing length. The time per
+ * operation should grow linearly with the number of tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xss8m", "-Xmx2g"})
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    // ( 12 + 5 * X ) - 7 . 6 / 3 ^ 2 +
+    private static final String[] UNIT = {
+            "(", "d/1", "d/2", "o/+", "d/5", "o/*", "d/X", ")", "o/-",
+            "d/7", "d/.", "d/6", "o//", "d/3", "o/^", "d/2", "o/+"
+    };
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int tokens;
+
+    private Expression expression;
+
+    @Setup
+    public void setUp() {
+        expression = new Expression();
+        int count = 0;
+        while (count < tokens - 1) {
+            for (String tag : UNIT) {
+                expression.add(element(tag));
+            }
+            count += UNIT.length;
+        }
+        expression.add(Digit.fromTag("d/1"));
+    }
+
+    private static ExpressionElement element(String tag) {
+        if (tag.equals("(")) {
+            return OpenParen.INSTANCE;
+        } else if (tag.equals(")")) {
+            return CloseParen.INSTANCE;
+        } else if (tag.startsWith("d/")) {
+            return Digit.fromTag(tag);
+        }
+        return Operator.fromTag(tag);
+    }
+
+    @Benchmark
+    public Object parse() throws CalculationError {
+        return expression.parse();
+    }
+
+    @Benchmark
+    public Object parseAndCompile() throws CalculationError {
+        return CompiledExpression.compile(expression.parse());
+    }
+}
@@ -0,0 +1,124 @@
+package com.jjrising.android.dozcalc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Rational}, which keeps to longs until a step overflows, against the
+ * same steps done on BigInteger numerators and denominators throughout,
+ * reduced by their gcd each time. With bits of 40 the products no longer fit
+ * in a long and Rational falls back after trying. Run with {@code -prof gc}
+ * for the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RationalBenchmark {
+    private static final int COUNT = 64;
+
+    @Param({"8", "20", "40"})
+    public int bits;
+
+    private final Rational[] values = new Rational[COUNT];
+    private final BigInteger[] nums = new BigInteger[COUNT];
+    private final BigInteger[] dens = new BigInteger[COUNT];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1728);
+        for (int i = 0; i < COUNT; i++) {
+            long num = random.nextLong() >> (64 - bits);
+            long den = (random.nextLong() >>> (64 - bits)) + 1;
+            values[i] = Rational.of(num, den);
+            nums[i] = values[i].getNumerator();
+            dens[i] = values[i].getDenominator();
+        }
+    }
+
+    private int index() {
+        next = (next + 1) & (COUNT - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Rational add() {
+        int i = index();
+        return values[i].add(values[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerAdd() {
+        int i = index();
+        int j = (i + 1) & (COUNT - 1);
+        return reduce(nums[i].multiply(dens[j]).add(nums[j].multiply(dens[i])),
+                dens[i].multiply(dens[j]));
+    }
+
+    @Benchmark
+    public Rational multiply() {
+        int i = index();
+        return values[i].multiply(values[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerMultiply() {
+        int i = index();
+        int j = (i + 1) & (COUNT - 1);
+        return reduce(nums[i].multiply(nums[j]), dens[i].multiply(dens[j]));
+    }
+
+    @Benchmark
+    public Rational divide() {
+        int i = index();
+        return values[i].divide(values[(i + 1) & (COUNT - 1)]);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerDivide() {
+        int i = index();
+        int j = (i + 1) & (COUNT - 1);
+        BigInteger num = nums[i].multiply(dens[j]);
+        BigInteger den = dens[i].multiply(nums[j]);
+        return reduce(den.signum() < 0 ? num.negate() : num, den.abs());
+    }
+
+    /**
+     * A cube, which stays in longs for the smaller operands only.
+     */
+    @Benchmark
+    public Rational pow() {
+        return values[index()].pow(3);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerPow() {
+        int i = index();
+        return reduce(nums[i].pow(3), dens[i].pow(3));
+    }
+
+    private static BigInteger[] reduce(BigInteger num, BigInteger den) {
+        BigInteger gcd = num.gcd(den);
+        if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+            num = num.divide(gcd);
+            den = den.divide(gcd);
+        }
+        return new BigInteger[]{num, den};
+    }
+}
@@ -0,0 +1,184 @@
+package com.jjrising.android.dozcalc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a file holding one expression per line and writes the dozenal
+ * result of each line, in the same order, to another file.
+ * <p>
+ * The input is memory mapped a chunk at a time, each chunk ending at a line
+ * break, and the chunks are evaluated in parallel. The results are written in
+ * input order as soon as the oldest chunk is done. No more than two chunks per
+ * thread are in flight at once, so memory use depends on the chunk size and
+ * the number of threads but not on the size of the file.
+ * <p>
+ * Lines that can not be evaluated produce a line starting with
+ * {@code "Error: "}.
+ */
+public class BatchEvaluator {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * @param threads   - number of threads evaluating chunks.
+     * @param chunkSize - bytes of input per chunk. Chunks grow past this when a
+     *                  single line is longer.
+     */
+    BatchEvaluator(int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("threads and chunkSize must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Usage: {@code BatchEvaluator <input> <output> [threads]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BatchEvaluator <input> <output> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length == 3 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        new BatchEvaluator(threads, DEFAULT_CHUNK_SIZE)
+                .evaluate(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * @param line - an expression.
+     * @return - the value of the expression in dozenal, or the reason it has none.
+     */
+    static String evaluateLine(CharSequence line) {
+        return evaluateLine(line, new StringBuilder()).toString();
+    }
+
+    /**
+     * Like {@link #evaluateLine(CharSequence)}, appending the result to a
+     * builder rather than allocating a String for it.
+     *
+     * @return - the builder.
+     */
+    static StringBuilder evaluateLine(CharSequence line, StringBuilder out) {
+        try {
+            return new Expression(line).calc().appendTo(out);
+        } catch (StringException e) {
+            return out.append("Error: ").append(e.getMessage());
+        } catch (CalculationError e) {
+            return out.append("Error: ").append(e.error);
+        }
+    }
+
+    /**
+     * @param input  - file of expressions, one per line, in UTF-8.
+     * @param output - file the results are written to, one per line, in UTF-8.
+     *               It is replaced if it exists.
+     * @throws IOException - if either file can not be read or written.
+     */
+    void evaluate(Path input, Path output) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+        int maxPending = 2 * threads;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                MappedByteBuffer chunk = nextChunk(in, position, size);
+                position += chunk.limit();
+                if (pending.size() == maxPending) {
+                    write(pending.remove(), out);
+                }
+                pending.add(pool.submit(new ChunkTask(chunk)));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove(), out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Maps the input from {@code position} up to and including the last line
+     * break within the chunk size, or to the end of the file.
+     */
+    private MappedByteBuffer nextChunk(FileChannel in, long position, long size)
+            throws IOException {
+        long length = Math.min(chunkSize, size - position);
+        while (true) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            if (position + length == size) {
+                return buffer;
+            }
+            for (int i = (int) length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    buffer.limit(i + 1);
+                    return buffer;
+                }
+            }
+            // A single line longer than the chunk, map more of it.
+            length = Math.min(2 * length, size - position);
+        }
+    }
+
+    private static void write(Future<ByteBuffer> result, FileChannel out)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer;
+        try {
+            buffer = result.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Evaluating a chunk failed", e.getCause());
+        }
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Evaluates every line of a chunk, producing the encoded output lines.
+     */
+    private static class ChunkTask implements Callable<ByteBuffer> {
+        private final ByteBuffer chunk;
+
+        ChunkTask(ByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public ByteBuffer call() {
+            CharBuffer text = StandardCharsets.UTF_8.decode(chunk);
+            StringBuilder result = new StringBuilder(text.length());
+            int length = text.length();
+            int start = 0;
+            while (start < length) {
+                int end = start;
+                while (end < length && text.get(end) != '\n') {
+                    end++;
+                }
+                int lineEnd = end > start && text.get(end - 1) == '\r' ? end - 1 : end;
+                evaluateLine(text.subSequence(start, lineEnd), result).append('\n');
+                start = end + 1;
+            }
+            return StandardCharsets.UTF_8.encode(CharBuffer.wrap(result));
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.jjrising.android.dozcalc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serves expression evaluation and dozenal formatting over HTTP/1.1 on the
+ * loopback interface.
+ * <ul>
+ * <li>{@code POST /eval} with the expression as the body, or
+ * {@code GET /eval?expr=...} with it URL encoded, answers with the value in
+ * dozenal. With {@code exact=1} in the query as well, the expression is
+ * worked out in exact rational arithmetic, see {@link Expression#calcExact()}.
+ * </li>
+ * <li>{@code GET /format?value=...} answers with a decimal number written in
+ * dozenal.</li>
+ * </ul>
+ * Expressions that can not be evaluated get a 400 whose body is the error.
+ * <p>
+ * Every connection has a thread reading requests and a thread writing
+ * responses, and every request is evaluated on a thread of its own. On Java 21
+ * and later these are virtual threads, so blocking is cheap, otherwise they are
+ * platform threads. Requests pipelined on a connection are evaluated
+ * concurrently, up to the pipeline depth, and answered in order.
+ * <p>
+ * Connections beyond the connection limit are answered with a 503 and closed.
+ * Requests beyond the evaluation limit wait for a permit.
+ */
+public class EvaluationServer implements Closeable {
+    static final int DEFAULT_PORT = 8012;
+    static final int DEFAULT_MAX_CONNECTIONS = 1000;
+    static final int DEFAULT_PIPELINE_DEPTH = 16;
+
+    private static final String TEXT = "text/plain; charset=utf-8";
+
+    private final ServerSocket server;
+    private final ExecutorService threads;
+    private final Semaphore connections;
+    private final Semaphore evaluations;
+    private final int pipelineDepth;
+    private volatile boolean closed = false;
+
+    /**
+     * @param port           - port to listen on, 0 for any free port.
+     * @param maxConnections - connections served at once.
+     * @param maxEvaluations - requests evaluated at once.
+     * @param pipelineDepth  - requests of one connection in flight at once.
+     * @throws IOException - if the port can not be bound.
+     */
+    EvaluationServer(int port, int maxConnections, int maxEvaluations, int pipelineDepth)
+            throws IOException {
+        if (maxConnections < 1 || maxEvaluations < 1 || pipelineDepth < 1) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+        this.server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.threads = newThreadPerTaskExecutor();
+        this.connections = new Semaphore(maxConnections);
+        this.evaluations = new Semaphore(maxEvaluations);
+        this.pipelineDepth = pipelineDepth;
+    }
+
+    /**
+     * Usage: {@code EvaluationServer [port] [maxConnections] [maxEvaluations] [pipelineDepth]}
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxConnections = args.length > 1 ? Integer.parseInt(args[1])
+                : DEFAULT_MAX_CONNECTIONS;
+        int maxEvaluations = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        int pipelineDepth = args.length > 3 ? Integer.parseInt(args[3])
+                : DEFAULT_PIPELINE_DEPTH;
+        EvaluationServer server = new EvaluationServer(port, maxConnections, maxEvaluations,
+                pipelineDepth);
+        server.start();
+        System.out.println("Listening on http://localhost:" + server.getPort() + "/");
+    }
+
+    /**
+     * An executor starting a new virtual thread per task where the JVM has
+     * them. They are looked up reflectively so that the module still builds
+     * and runs on the Java 8 toolchain the rest of the project uses.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * @param expression - expression to evaluate.
+     * @return - status line and body of the answer.
+     */
+    static Response evaluate(String expression) {
+        return evaluate(expression, false);
+    }
+
+    /**
+     * @param expression - expression to evaluate.
+     * @param exact      - whether to work it out in exact rational arithmetic.
+     * @return - status line and body of the answer.
+     */
+    static Response evaluate(String expression, boolean exact) {
+        try {
+            Expression parsed = new Expression(expression);
+            Numeral value = exact ? parsed.calcExact() : parsed.calc();
+            return new Response(200, "OK", value.toString());
+        } catch (StringException e) {
+            return new Response(400, "Bad Request", e.getMessage());
+        } catch (CalculationError e) {
+            return new Response(400, "Bad Request", e.error);
+        }
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections in the background.
+     */
+    void start() {
+        threads.execute(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        threads.shutdownNow();
+    }
+
+    private void accept() {
+        while (!closed) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    e.printStackTrace();
+                }
+                return;
+            }
+            if (!connections.tryAcquire()) {
+                threads.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        reject(socket);
+                    }
+                });
+                continue;
+            }
+            threads.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        serve(socket);
+                    } finally {
+                        connections.release();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void reject(Socket socket) {
+        try {
+            OutputStream out = socket.getOutputStream();
+            HttpMessage.write(out, "HTTP/1.1 503 Service Unavailable", TEXT,
+                    "Too many connections".getBytes(StandardCharsets.UTF_8), true);
+            out.flush();
+        } catch (IOException e) {
+            // The client is gone already.
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Reads requests off the connection until it ends or asks to be closed. The
+     * response futures go through a queue as deep as the pipeline to the
+     * writing thread, so reading stops while the pipeline is full.
+     */
+    private void serve(final Socket socket) {
+        final BlockingQueue<Future<Response>> pending = new ArrayBlockingQueue<>(pipelineDepth);
+        Future<?> writer;
+        try {
+            final OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            writer = threads.submit(new Runnable() {
+                @Override
+                public void run() {
+                    write(socket, out, pending);
+                }
+            });
+        } catch (IOException e) {
+            closeQuietly(socket);
+            return;
+        }
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            while (true) {
+                HttpMessage request;
+                try {
+                    request = HttpMessage.read(in);
+                } catch (SocketException e) {
+                    break;
+                } catch (IOException e) {
+                    pending.put(CompletableFuture.completedFuture(
+                            new Response(400, "Bad Request", e.getMessage()).closing()));
+                    break;
+                }
+                if (request == null) {
+                    break;
+                }
+                final HttpMessage current = request;
+                pending.put(threads.submit(new Callable<Response>() {
+                    @Override
+                    public Response call() throws InterruptedException {
+                        evaluations.acquire();
+                        try {
+                            return handle(current);
+                        } finally {
+                            evaluations.release();
+                        }
+                    }
+                }));
+                if (request.wantsClose()) {
+                    break;
+                }
+            }
+            // A null response tells the writer there is nothing more to come.
+            pending.put(CompletableFuture.<Response>completedFuture(null));
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException e) {
+            // Dropped connection, nothing to answer.
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Writes the responses in request order, flushing whenever no further
+     * response is ready so that pipelined responses share a write. Once the
+     * connection fails the rest are dropped, but the queue is still drained so
+     * that the reading thread never blocks on it.
+     */
+    private static void write(Socket socket, OutputStream out,
+                              BlockingQueue<Future<Response>> pending) {
+        boolean open = true;
+        try {
+            while (true) {
+                Response response;
+                try {
+                    response = pending.take().get();
+                } catch (ExecutionException e) {
+                    response = new Response(500, "Internal Server Error",
+                            String.valueOf(e.getCause())).closing();
+                }
+                if (response == null) {
+                    if (open) {
+                        try {
+                            out.flush();
+                        } catch (IOException e) {
+                            closeQuietly(socket);
+                        }
+                    }
+                    return;
+                } else if (!open) {
+                    continue;
+                }
+                try {
+                    HttpMessage.write(out, "HTTP/1.1 " + response.status + " "
+                                    + response.reason, TEXT,
+                            response.body.getBytes(StandardCharsets.UTF_8), response.close);
+                    if (response.close) {
+                        out.flush();
+                        socket.shutdownOutput();
+                        open = false;
+                    } else if (pending.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    closeQuietly(socket);
+                    open = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Response handle(HttpMessage request) {
+        String[] parts = request.getStartLine().split(" ");
+        if (parts.length != 3) {
+            return new Response(400, "Bad Request", "Malformed request line").closing();
+        }
+        String method = parts[0];
+        String target = parts[1];
+        int query = target.indexOf('?');
+        String path = query < 0 ? target : target.substring(0, query);
+        String parameters = query < 0 ? "" : target.substring(query + 1);
+        boolean exact = "1".equals(parameter(parameters, "exact"));
+        Response response;
+        if (path.equals("/eval") && method.equals("POST")) {
+            response = evaluate(request.getBodyText().trim(), exact);
+        } else if (path.equals("/eval") && method.equals("GET")) {
+            String expression = parameter(parameters, "expr");
+            response = expression == null ? new Response(400, "Bad Request", "Missing expr")
+                    : evaluate(expression, exact);
+        } else if (path.equals("/format") && method.equals("GET")) {
+            response = format(parameter(parameters, "value"));
+        } else if (path.equals("/eval") || path.equals("/format")) {
+            response = new Response(405, "Method Not Allowed", method);
+        } else {
+            response = new Response(404, "Not Found", path);
+        }
+        return request.wantsClose() ? response.closing() : response;
+    }
+
+    private static Response format(String value) {
+        if (value == null) {
+            return new Response(400, "Bad Request", "Missing value");
+        }
+        try {
+            return new Response(200, "OK", new Numeral(Double.parseDouble(value)).toString());
+        } catch (NumberFormatException e) {
+            return new Response(400, "Bad Request", "Not a number: " + value);
+        }
+    }
+
+    /**
+     * @return - the value of a query parameter with its percent escapes
+     * decoded, null if it is absent or an escape is malformed.
+     */
+    private static String parameter(String parameters, String name) {
+        for (String pair : parameters.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return percentDecode(pair.substring(equals + 1));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Unlike {@link java.net.URLDecoder}, leaves '+' as it is rather than
+     * reading it as a space, so that {@code expr=1+2} is a sum. A space can
+     * still be sent as %20.
+     *
+     * @return - the text with each %XX replaced by its byte, read as UTF-8,
+     * null if an escape is malformed.
+     */
+    static String percentDecode(String text) {
+        if (text.indexOf('%') < 0) {
+            return text;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch != '%') {
+                byte[] encoded = String.valueOf(ch).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+                continue;
+            }
+            int high = i + 2 < text.length() ? Character.digit(text.charAt(i + 1), 16) : -1;
+            int low = high >= 0 ? Character.digit(text.charAt(i + 2), 16) : -1;
+            if (low < 0) {
+                return null;
+            }
+            bytes.write(16 * high + low);
+            i += 2;
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with it.
+        }
+    }
+
+    static class Response {
+        final int status;
+        final String reason;
+        final String body;
+        final boolean close;
+
+        Response(int status, String reason, String body) {
+            this(status, reason, body, false);
+        }
+
+        private Response(int status, String reason, String body, boolean close) {
+            this.status = status;
+            this.reason = reason;
+            this.body = body;
+            this.close = close;
+        }
+
+        Response closing() {
+            return new Response(status, reason, body, true);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.jjrising.android.dozcalc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * A minimal HTTP/1.1 message, request or response, as used between
+ * {@link EvaluationServer} and {@link LoadTest}. Only bodies with a
+ * {@code Content-Length} are supported.
+ */
+class HttpMessage {
+    static final int MAX_LINE = 8192;
+    static final int MAX_HEADERS = 100;
+    static final int MAX_BODY = 1 << 20;
+
+    private final String startLine;
+    // Header names in lower case.
+    private final HashMap<String, String> headers;
+    private final byte[] body;
+
+    HttpMessage(String startLine, HashMap<String, String> headers, byte[] body) {
+        this.startLine = startLine;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Reads the next message from a stream.
+     *
+     * @param in - stream positioned at the start of a message.
+     * @return - the message, null if the stream ended before it started.
+     * @throws IOException - if the stream fails or the message is malformed or
+     *                     over one of the limits.
+     */
+    static HttpMessage read(InputStream in) throws IOException {
+        String startLine = readLine(in);
+        if (startLine == null) {
+            return null;
+        }
+        HashMap<String, String> headers = new HashMap<>();
+        while (true) {
+            String line = readLine(in);
+            if (line == null) {
+                throw new IOException("Stream ended inside the headers");
+            } else if (line.isEmpty()) {
+                break;
+            } else if (headers.size() == MAX_HEADERS) {
+                throw new IOException("Too many headers");
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new IOException("Malformed header: " + line);
+            }
+            headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                    line.substring(colon + 1).trim());
+        }
+        int length = 0;
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            try {
+                length = Integer.parseInt(contentLength);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed Content-Length: " + contentLength);
+            }
+            if (length < 0 || length > MAX_BODY) {
+                throw new IOException("Unsupported Content-Length: " + length);
+            }
+        }
+        byte[] body = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(body, read, length - read);
+            if (n < 0) {
+                throw new IOException("Stream ended inside the body");
+            }
+            read += n;
+        }
+        return new HttpMessage(startLine, headers, body);
+    }
+
+    /**
+     * Reads a line ending in CRLF or LF, without the line break.
+     *
+     * @return - the line, null if the stream ended before any byte was read.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (line.size() == 0) {
+                    return null;
+                }
+                throw new IOException("Stream ended inside a line");
+            } else if (line.size() == MAX_LINE) {
+                throw new IOException("Line too long");
+            }
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes a message with a {@code Content-Length} header. The stream is not
+     * flushed.
+     */
+    static void write(OutputStream out, String startLine, String contentType, byte[] body,
+                      boolean close) throws IOException {
+        StringBuilder head = new StringBuilder(128);
+        head.append(startLine).append("\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        head.append("Content-Length: ").append(body.length).append("\r\n");
+        if (close) {
+            head.append("Connection: close\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(body);
+    }
+
+    String getStartLine() {
+        return startLine;
+    }
+
+    /**
+     * @param name - name of the header, in any case.
+     * @return - its value, null if the message does not have it.
+     */
+    String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    String getBodyText() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return - whether the connection should be closed after this message.
+     */
+    boolean wantsClose() {
+        String connection = getHeader("connection");
+        return connection != null && connection.equalsIgnoreCase("close");
+    }
+}
@@ -0,0 +1,169 @@
+package com.jjrising.android.dozcalc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the latency and throughput of an {@link EvaluationServer}.
+ * <p>
+ * Every connection sends its requests in batches as deep as the pipeline,
+ * without waiting for answers in between, and then reads the answers. The
+ * latency of a request runs from writing its batch to reading its answer.
+ * <p>
+ * Usage: {@code LoadTest [connections] [requests per connection] [pipeline depth]
+ * [host port]}. Without a host a server is started in this JVM.
+ */
+public class LoadTest {
+    private static final String[] EXPRESSIONS = {
+            "1+2*3", "sqrt(2)", "X.6^2", "pi*E", "4!", "(1+2)*(3+4)/5", "2^0.5+sin(1)",
+            "12^2/(3+4!)-sqrt(X.6*E)+1.2*3.4-5/6"
+    };
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final int requests;
+    private final int depth;
+
+    LoadTest(String host, int port, int connections, int requests, int depth) {
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.requests = requests;
+        this.depth = depth;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        if (args.length > 4) {
+            Result result = new LoadTest(args[3], Integer.parseInt(args[4]), connections,
+                    requests, depth).run();
+            System.out.println(result);
+            return;
+        }
+        try (EvaluationServer server = new EvaluationServer(0, connections,
+                Runtime.getRuntime().availableProcessors(), depth)) {
+            server.start();
+            // One round to warm up, one to measure.
+            new LoadTest("localhost", server.getPort(), connections, requests, depth).run();
+            Result result = new LoadTest("localhost", server.getPort(), connections, requests,
+                    depth).run();
+            System.out.println(result);
+        }
+    }
+
+    /**
+     * Runs every connection to completion.
+     *
+     * @return - the latencies and throughput seen.
+     * @throws Exception - if a connection fails or an answer is not a 200.
+     */
+    Result run() throws Exception {
+        ExecutorService threads = EvaluationServer.newThreadPerTaskExecutor();
+        try {
+            ArrayList<Future<long[]>> clients = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                final int client = i;
+                clients.add(threads.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() throws IOException {
+                        return client(client);
+                    }
+                }));
+            }
+            long[] latencies = new long[connections * requests];
+            for (int i = 0; i < connections; i++) {
+                System.arraycopy(clients.get(i).get(), 0, latencies, i * requests, requests);
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new Result(latencies, elapsed);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * @return - the latency of every request of one connection, in nanoseconds.
+     */
+    private long[] client(int client) throws IOException {
+        long[] latencies = new long[requests];
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            int sent = 0;
+            while (sent < requests) {
+                int batch = Math.min(depth, requests - sent);
+                for (int i = 0; i < batch; i++) {
+                    String expression = EXPRESSIONS[(client + sent + i) % EXPRESSIONS.length];
+                    HttpMessage.write(out, "POST /eval HTTP/1.1", "text/plain",
+                            expression.getBytes(StandardCharsets.UTF_8), false);
+                }
+                long sentAt = System.nanoTime();
+                out.flush();
+                for (int i = 0; i < batch; i++) {
+                    HttpMessage response = HttpMessage.read(in);
+                    if (response == null) {
+                        throw new IOException("Connection closed by the server");
+                    } else if (!response.getStartLine().startsWith("HTTP/1.1 200")) {
+                        throw new IOException(response.getStartLine() + ": "
+                                + response.getBodyText());
+                    }
+                    latencies[sent + i] = System.nanoTime() - sentAt;
+                }
+                sent += batch;
+            }
+        }
+        return latencies;
+    }
+
+    static class Result {
+        private final long[] latencies;
+        private final long elapsed;
+
+        /**
+         * @param latencies - latency of every request in nanoseconds, sorted.
+         * @param elapsed   - duration of the whole run in nanoseconds.
+         */
+        Result(long[] latencies, long elapsed) {
+            this.latencies = latencies;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @param p - percentile, between 0 and 100.
+         * @return - the latency in nanoseconds that p percent of requests beat.
+         */
+        long percentile(double p) {
+            int index = (int) Math.ceil(p / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+        }
+
+        double throughput() {
+            return latencies.length * 1e9 / elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d requests in %.2f s: %.0f req/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    latencies.length, elapsed / 1e9, throughput(), percentile(50) / 1e6,
+                    percentile(99) / 1e6, latencies[latencies.length - 1] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchEvaluatorTests {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void resultsKeepTheInputOrder() throws IOException, InterruptedException {
+        String[] templates = {"1+2*3", "sqrt(2)", "(1+", "X.6^2", "pi*E", "4!", "2+*3"};
+        Random random = new Random(12);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String line = templates[random.nextInt(templates.length)];
+            lines.add(random.nextInt(10) == 0 ? line + "+" + i : line);
+        }
+        // A line longer than the chunk size.
+        StringBuilder longLine = new StringBuilder("1");
+        for (int i = 0; i < 100; i++) {
+            longLine.append("+1");
+        }
+        lines.add(2500, longLine.toString());
+
+        File input = folder.newFile("input.txt");
+        File output = folder.newFile("output.txt");
+        Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+        new BatchEvaluator(4, 64).evaluate(input.toPath(), output.toPath());
+
+        List<String> results = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals(lines.size(), results.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.get(i), BatchEvaluator.evaluateLine(lines.get(i)), results.get(i));
+        }
+    }
+
+    @Test
+    public void lastLineWithoutBreak() throws IOException, InterruptedException {
+        File input = folder.newFile("input.txt");
+        File output = folder.newFile("output.txt");
+        Files.write(input.toPath(), "1+1\r\n2*3".getBytes(StandardCharsets.UTF_8));
+        new BatchEvaluator(2, 4).evaluate(input.toPath(), output.toPath());
+
+        List<String> results = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, results.size());
+        assertEquals(BatchEvaluator.evaluateLine("1+1"), results.get(0));
+        assertEquals(BatchEvaluator.evaluateLine("2*3"), results.get(1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.jjrising.android.dozcalc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EvaluationServerTests {
+    private EvaluationServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new EvaluationServer(0, 2, 2, 4);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void pipelinedRequestsAreAnsweredInOrder() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            StringBuilder requests = new StringBuilder();
+            String[] expressions = {"1+2*3", "sqrt(2)", "2+*3", "(1+", "4!", "X.6^2"};
+            for (String expression : expressions) {
+                requests.append("POST /eval HTTP/1.1\r\nContent-Length: ")
+                        .append(expression.length()).append("\r\n\r\n").append(expression);
+            }
+            requests.append("GET /format?value=0.5 HTTP/1.1\r\n\r\n");
+            requests.append("GET /eval?expr=1%2B1 HTTP/1.1\r\n\r\n");
+            requests.append("GET /eval?expr=1+2 HTTP/1.1\r\n\r\n");
+            requests.append("GET /nowhere HTTP/1.1\r\nConnection: close\r\n\r\n");
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            for (String expression : expressions) {
+                EvaluationServer.Response expected = EvaluationServer.evaluate(expression);
+                HttpMessage response = HttpMessage.read(in);
+                assertTrue(expression, response.getStartLine()
+                        .startsWith("HTTP/1.1 " + expected.status));
+                assertEquals(expression, expected.body, response.getBodyText());
+            }
+            assertEquals(new Numeral(0.5).toString(), HttpMessage.read(in).getBodyText());
+            assertEquals(new Numeral(2).toString(), HttpMessage.read(in).getBodyText());
+            assertEquals(new Numeral(3).toString(), HttpMessage.read(in).getBodyText());
+            HttpMessage notFound = HttpMessage.read(in);
+            assertTrue(notFound.getStartLine().startsWith("HTTP/1.1 404"));
+            assertTrue(notFound.wantsClose());
+            assertNull(HttpMessage.read(in));
+        }
+    }
+
+    @Test
+    public void exactEvaluation() throws Exception {
+        // A third of 3^38, plus one: 3^37 + 1 is past the doubles that hold
+        // every whole number, and the third is not whole.
+        String exact = new Numeral(Rational.valueOf(450283905890997364L)).toString();
+        String rounded = new Expression("0.4*3^32+1").calc().toString();
+        assertNotEquals(exact, rounded);
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /eval?expr=0.4*3^32+1&exact=1 HTTP/1.1\r\n\r\n"
+                    + "POST /eval?exact=1 HTTP/1.1\r\nContent-Length: 10\r\n\r\n0.4*3^32+1"
+                    + "GET /eval?expr=0.4*3^32+1 HTTP/1.1\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            assertEquals(exact, HttpMessage.read(in).getBodyText());
+            assertEquals(exact, HttpMessage.read(in).getBodyText());
+            assertEquals(rounded, HttpMessage.read(in).getBodyText());
+        }
+    }
+
+    @Test
+    public void connectionsOverTheLimitAreRejected() throws Exception {
+        try (Socket first = open(); Socket second = open(); Socket third =
+                new Socket("localhost", server.getPort())) {
+            HttpMessage response = HttpMessage.read(third.getInputStream());
+            assertTrue(response.getStartLine().startsWith("HTTP/1.1 503"));
+        }
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        LoadTest.Result result = new LoadTest("localhost", server.getPort(), 2, 200, 4).run();
+        assertTrue(result.percentile(50) <= result.percentile(99));
+        assertTrue(result.throughput() > 0);
+    }
+    @Test
+    public void queryEscapes() {
+        assertEquals("1+2", EvaluationServer.percentDecode("1+2"));
+        assertEquals("1+2", EvaluationServer.percentDecode("1%2B2"));
+        assertEquals("sqrt (2)", EvaluationServer.percentDecode("sqrt%20%282%29"));
+        assertEquals("\u218a+1", EvaluationServer.percentDecode("%E2%86%8A+1"));
+        assertNull(EvaluationServer.percentDecode("1%2"));
+        assertNull(EvaluationServer.percentDecode("1%zz"));
+    }
+
+    /**
+     * Opens a connection and makes sure the server has taken it on.
+     */
+    private Socket open() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        OutputStream out = socket.getOutputStream();
+        out.write("GET /format?value=1 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        HttpMessage response = HttpMessage.read(socket.getInputStream());
+        assertTrue(response.getStartLine().startsWith("HTTP/1.1 200"));
+        return socket;
+    }
+}